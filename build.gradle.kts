@@ -163,6 +163,25 @@ tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+tasks.register<Test>("benchmark") {
+    description = "Runs the storage benchmarks (tag 'benchmark') against a mongo container."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    systemProperties(System.getProperties().filterKeys { it.toString().startsWith("benchmark.") }
+                                           .mapKeys { it.key.toString() })
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    testLogging.showStandardStreams = true
+}
+
 allOpen {
     annotation("jakarta.persistence.Entity")
 }
@@ -0,0 +1,130 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  CompressedBody.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A large eventBody stored compressed. The Event keeps the compressed bytes as they are read from mongo and they
+ * are inflated only when the eventBody is really needed (e.g., a GraphQL selection asks for it).
+ *
+ * It is stored as a BSON binary of subtype BINARY_SUBTYPE (user defined):
+ *      byte format (1: deflate) | int dictionary id (0: no dictionary) | int uncompressed length | deflated BSON
+ * where the dictionary id is the Adler-32 of the preset dictionary of the applicationName (see Deflater).
+ *
+ * note: the fields of a compressed body cannot be queried (e.g., 'eventBody.datos.idUsuario'), only the bodies
+ *       bigger than 'audit-service.body.compression.threshold-bytes' are compressed.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public final class CompressedBody {
+
+    public static final byte BINARY_SUBTYPE = (byte) 0x80;
+    private static final byte DEFLATE = 1;
+    private static final int HEADER_SIZE = 1 + Integer.BYTES * 2;
+
+    private final byte[] bytes;
+
+    public CompressedBody(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public static CompressedBody deflate(byte[] bson, int dictionaryId, byte[] dictionary, int level) {
+        Deflater deflater = new Deflater(level);
+
+        try {
+            if (dictionary != null)
+                deflater.setDictionary(dictionary);
+            deflater.setInput(bson);
+            deflater.finish();
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bson.length / 2 + HEADER_SIZE);
+            byte[] buffer = new byte[8192];
+
+            output.writeBytes(ByteBuffer.allocate(HEADER_SIZE).put(DEFLATE).putInt(dictionaryId).putInt(bson.length).array());
+            while (!deflater.finished())
+                output.write(buffer, 0, deflater.deflate(buffer));
+
+            return new CompressedBody(output.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns the BSON of the body.
+     *
+     * @param dictionaries the preset dictionaries by id
+     */
+    public byte[] inflate(IntFunction<byte[]> dictionaries) {
+        Inflater inflater = new Inflater();
+
+        try {
+            byte[] bson = new byte[getUncompressedLength()];
+            int length = 0;
+
+            inflater.setInput(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+            while (length < bson.length) {
+                int inflated = inflater.inflate(bson, length, bson.length - length);
+
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    byte[] dictionary = dictionaries.apply(getDictionaryId());
+
+                    if (dictionary == null)
+                        throw new IllegalStateException("Unknown eventBody dictionary " + getDictionaryId());
+                    inflater.setDictionary(dictionary);
+                } else if (inflated == 0 && (inflater.finished() || inflater.needsInput()))
+                    throw new IllegalStateException("Truncated compressed eventBody");
+                length += inflated;
+            }
+            return bson;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupted compressed eventBody", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public int getDictionaryId() {
+        return ByteBuffer.wrap(bytes).getInt(1);
+    }
+
+    public int getUncompressedLength() {
+        return ByteBuffer.wrap(bytes).getInt(1 + Integer.BYTES);
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+}
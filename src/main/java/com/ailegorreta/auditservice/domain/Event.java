@@ -56,11 +56,28 @@ public class Event {
     private LocalDateTime   eventDate;
     private String applicationName;
     private Object      eventBody;
+    private LocalDateTime   storedAt;
+    // ^ set by the EventRepository when the event is inserted (or replayed from the spool), i.e., the insertion
+    //   order, unlike the eventDate that is the time of the Kafka record
 
     public static Event createEventByEventDTO(EventDTO eventDTO) {
-        return new Event(UUID.randomUUID(), 0, eventDTO.getCorrelationId(), eventDTO.getEventType(),
-                         eventDTO.getUsername(), eventDTO.getEventName(), LocalDateTime.now(),
-                         eventDTO.getApplicationName(), eventDTO.getEventBody().toString()
+        return createEventByEventDTO(eventDTO, EventIds.timeOrdered());
+    }
+
+    /**
+     * Creates the event with a given id, e.g., a deterministic id so a redelivered EventDTO
+     * generates the same document and can be detected as a duplicate.
+     *
+     * The eventBody is stored as a BSON sub-document (see EventBodyConverter), not as its toString().
+     * If the id is time ordered the eventDate is its timestamp (see EventIds).
+     */
+    public static Event createEventByEventDTO(EventDTO eventDTO, UUID id) {
+        LocalDateTime eventDate = EventIds.isTimeOrdered(id) ? EventCodec.toLocalDateTime(EventIds.epochMilli(id))
+                                                             : LocalDateTime.now();
+
+        return new Event(id, 0, eventDTO.getCorrelationId(), eventDTO.getEventType(),
+                         eventDTO.getUsername(), eventDTO.getEventName(), eventDate,
+                         eventDTO.getApplicationName(), EventBodyConverter.toBson(eventDTO.getEventBody())
                     );
 
     }
@@ -145,6 +162,14 @@ public class Event {
         this.eventBody = eventBody;
     }
 
+    public LocalDateTime getStoredAt() {
+        return storedAt;
+    }
+
+    public void setStoredAt(LocalDateTime storedAt) {
+        this.storedAt = storedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
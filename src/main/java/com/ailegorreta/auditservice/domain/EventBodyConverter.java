@@ -0,0 +1,126 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventBodyConverter.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts the eventBody received in the EventDTO into BSON values, i.e., Document for objects and List for arrays,
+ * so the body is stored as a native sub-document that can be indexed and queried (e.g., 'eventBody.datos.idUsuario').
+ *
+ * The body arrives as the Map/List tree that Jackson deserialized or as a JsonNode. The tree is walked directly:
+ * there is no intermediate String and no reflective object mapping. A String body is stored as it is, even if it
+ * looks like JSON, so the type of a plain text body never changes.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public final class EventBodyConverter {
+
+    private EventBodyConverter() {
+    }
+
+    public static Object toBson(Object body) {
+        if (body == null)
+            return null;
+        if (body instanceof Document)
+            return body;
+        if (body instanceof Map<?, ?> map) {
+            Document document = new Document();
+
+            map.forEach((key, value) -> document.put(String.valueOf(key), toBson(value)));
+            return document;
+        }
+        if (body instanceof Collection<?> collection) {
+            List<Object> list = new ArrayList<>(collection.size());
+
+            collection.forEach(value -> list.add(toBson(value)));
+            return list;
+        }
+        if (body instanceof Object[] array)
+            return toBson(Arrays.asList(array));
+            // ^ not List.of: a JSON array can have null elements
+        if (body instanceof JsonNode node)
+            return fromJsonNode(node);
+        if (body instanceof BigDecimal decimal)
+            return new Decimal128(decimal);
+        if (body instanceof BigInteger integer)
+            return new Decimal128(new BigDecimal(integer));
+
+        return body;        // String, Number, Boolean, dates, etc. are already BSON values
+    }
+
+    private static Object fromJsonNode(JsonNode node) {
+        switch (node.getNodeType()) {
+            case OBJECT: {
+                Document document = new Document();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+
+                    document.put(field.getKey(), fromJsonNode(field.getValue()));
+                }
+                return document;
+            }
+            case ARRAY: {
+                List<Object> list = new ArrayList<>(node.size());
+
+                node.forEach(element -> list.add(fromJsonNode(element)));
+                return list;
+            }
+            case STRING:
+                return node.textValue();
+            case BOOLEAN:
+                return node.booleanValue();
+            case NUMBER:
+                if (node.isInt()) return node.intValue();
+                if (node.isLong()) return node.longValue();
+                if (node.isBigInteger() || node.isBigDecimal()) return new Decimal128(node.decimalValue());
+                return node.doubleValue();
+            case BINARY:
+                try {
+                    return node.binaryValue();
+                } catch (java.io.IOException e) {
+                    return node.asText();
+                }
+            case POJO:
+                return toBson(((POJONode) node).getPojo());
+            default:
+                return null;        // NULL and MISSING
+        }
+    }
+}
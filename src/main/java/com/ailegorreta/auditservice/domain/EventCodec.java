@@ -0,0 +1,253 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCodec.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.commons.event.EventType;
+import org.bson.BsonBinary;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinarySubType;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.BsonTypeClassMap;
+import org.bson.codecs.BsonTypeCodecMap;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Binary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Hand-written BSON codec for the Event document. The fields are written and read directly with the
+ * BsonWriter/BsonReader, i.e., without the reflective MappingMongoConverter.
+ *
+ * The document has the same shape that Spring Data generates for the Event class (without the '_class' field):
+ *  - _id: the UUID, with the uuid representation of the codec registry of the mongo client (STANDARD, so the
+ *    time ordered ids are stored in order, see EventIds). Old JAVA_LEGACY ids are still read.
+ *  - eventType: the enum name.
+ *  - eventDate: BSON date, the LocalDateTime in the system zone like the Spring Data Jsr310 converters.
+ *  - storedAt: BSON date like eventDate, only for the events inserted by the EventRepository.
+ *  - eventBody: the BSON sub-document (see EventBodyConverter) encoded with the registry codecs, or a binary
+ *    if it is a CompressedBody.
+ *
+ * It is used by the bulk insert (see EventRepositoryCustomImpl) and by the file sink. The repository uses the
+ * equivalent Document converters (see EventConverters).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class EventCodec implements Codec<Event> {
+
+    public static final String ID = "_id";
+    public static final String TOKEN = "token";
+    public static final String CORRELATION_ID = "correlationId";
+    public static final String EVENT_TYPE = "eventType";
+    public static final String USERNAME = "username";
+    public static final String EVENT_NAME = "eventName";
+    public static final String EVENT_DATE = "eventDate";
+    public static final String APPLICATION_NAME = "applicationName";
+    public static final String EVENT_BODY = "eventBody";
+    public static final String STORED_AT = "storedAt";
+    public static final String META = "meta";
+
+    private final CodecRegistry registry;
+    private final Codec<UUID> uuidCodec;
+    private final Codec<Document> documentCodec;
+    private final BsonTypeCodecMap bsonTypeCodecMap;
+    private final boolean timeSeries;
+
+    public EventCodec(CodecRegistry registry) {
+        this(registry, false);
+    }
+
+    /**
+     * @param timeSeries if true the applicationName and eventType are written inside the 'meta' sub-document,
+     *                   i.e., the meta field of the time-series collection (see EventStorageMode)
+     */
+    public EventCodec(CodecRegistry registry, boolean timeSeries) {
+        this.registry = registry;
+        this.timeSeries = timeSeries;
+        this.uuidCodec = registry.get(UUID.class);
+        this.documentCodec = registry.get(Document.class);
+        this.bsonTypeCodecMap = new BsonTypeCodecMap(new BsonTypeClassMap(), registry);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Event event, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (event.getId() != null) {
+            writer.writeName(ID);
+            uuidCodec.encode(writer, event.getId(), encoderContext);
+        }
+        if (event.getToken() != null)
+            writer.writeInt32(TOKEN, event.getToken());
+        writeString(writer, CORRELATION_ID, event.getCorrelationId());
+        if (timeSeries) {
+            writer.writeStartDocument(META);
+            writeString(writer, APPLICATION_NAME, event.getApplicationName());
+            if (event.getEventType() != null)
+                writer.writeString(EVENT_TYPE, event.getEventType().name());
+            writer.writeEndDocument();
+        } else if (event.getEventType() != null)
+            writer.writeString(EVENT_TYPE, event.getEventType().name());
+        writeString(writer, USERNAME, event.getUsername());
+        writeString(writer, EVENT_NAME, event.getEventName());
+        if (event.getEventDate() != null)
+            writer.writeDateTime(EVENT_DATE, toEpochMilli(event.getEventDate()));
+        if (!timeSeries)
+            writeString(writer, APPLICATION_NAME, event.getApplicationName());
+        if (event.getEventBody() != null)
+            writeValue(writer, EVENT_BODY, event.getEventBody(), encoderContext);
+        if (event.getStoredAt() != null)
+            writer.writeDateTime(STORED_AT, toEpochMilli(event.getStoredAt()));
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Event decode(BsonReader reader, DecoderContext decoderContext) {
+        Event event = new Event(null, null, null, null, null, null, null, null, null);
+
+        readFields(reader, decoderContext, event);
+
+        return event;
+    }
+
+    /**
+     * Reads both layouts: the flat one and the one of the time-series collection
+     */
+    private void readFields(BsonReader reader, DecoderContext decoderContext, Event event) {
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = reader.readName();
+
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (name) {
+                case ID -> event.setId(readId(reader));
+                case TOKEN -> event.setToken(reader.readInt32());
+                case CORRELATION_ID -> event.setCorrelationId(reader.readString());
+                case EVENT_TYPE -> event.setEventType(EventType.valueOf(reader.readString()));
+                case USERNAME -> event.setUsername(reader.readString());
+                case EVENT_NAME -> event.setEventName(reader.readString());
+                case EVENT_DATE -> event.setEventDate(toLocalDateTime(reader.readDateTime()));
+                case APPLICATION_NAME -> event.setApplicationName(reader.readString());
+                case EVENT_BODY -> event.setEventBody(readValue(reader, decoderContext));
+                case STORED_AT -> event.setStoredAt(toLocalDateTime(reader.readDateTime()));
+                case META -> readFields(reader, decoderContext, event);
+                default -> reader.skipValue();      // e.g., the '_class' of the documents written by Spring Data
+            }
+        }
+        reader.readEndDocument();
+    }
+
+    @Override
+    public Class<Event> getEncoderClass() {
+        return Event.class;
+    }
+
+    /**
+     * The BSON bytes of the event, e.g., for the local logs (file sink and spool)
+     */
+    public byte[] toBytes(Event event) {
+        BasicOutputBuffer output = new BasicOutputBuffer();
+
+        encode(new BsonBinaryWriter(output), event, EncoderContext.builder().build());
+
+        return output.toByteArray();
+    }
+
+    public Event fromBytes(ByteBuffer bytes) {
+        return decode(new BsonBinaryReader(bytes.slice().order(ByteOrder.LITTLE_ENDIAN)), DecoderContext.builder().build());
+    }
+
+    /**
+     * Documents written before the STANDARD uuid representation have JAVA_LEGACY (subtype 3) ids.
+     */
+    private static UUID readId(BsonReader reader) {
+        BsonBinary id = reader.readBinaryData();
+
+        return id.getType() == BsonBinarySubType.UUID_LEGACY.getValue() ? id.asUuid(UuidRepresentation.JAVA_LEGACY)
+                                                                       : id.asUuid();
+    }
+
+    public static UUID toUuid(Object id) {
+        if (id instanceof Binary binary && binary.getType() == BsonBinarySubType.UUID_LEGACY.getValue())
+            return new BsonBinary(binary.getType(), binary.getData()).asUuid(UuidRepresentation.JAVA_LEGACY);
+
+        return (UUID) id;
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null)
+            writer.writeString(name, value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeValue(BsonWriter writer, String name, Object value, EncoderContext encoderContext) {
+        writer.writeName(name);
+        if (value instanceof Document document)
+            encoderContext.encodeWithChildContext(documentCodec, writer, document);
+        else if (value instanceof String text)
+            writer.writeString(text);
+        else if (value instanceof CompressedBody compressed)
+            writer.writeBinaryData(new BsonBinary(CompressedBody.BINARY_SUBTYPE, compressed.getBytes()));
+        else {
+            Codec codec = registry.get(value.getClass());
+
+            encoderContext.encodeWithChildContext(codec, writer, value);
+        }
+    }
+
+    private Object readValue(BsonReader reader, DecoderContext decoderContext) {
+        return switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> documentCodec.decode(reader, decoderContext);
+            case STRING -> reader.readString();
+            case BINARY -> reader.peekBinarySubType() == CompressedBody.BINARY_SUBTYPE
+                                ? new CompressedBody(reader.readBinaryData().getData())     // inflated lazily
+                                : decoderContext.decodeWithChildContext(bsonTypeCodecMap.get(BsonType.BINARY), reader);
+            default -> decoderContext.decodeWithChildContext(bsonTypeCodecMap.get(reader.getCurrentBsonType()), reader);
+        };
+    }
+
+    public static long toEpochMilli(LocalDateTime date) {
+        return date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+}
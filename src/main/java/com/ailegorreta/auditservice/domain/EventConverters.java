@@ -0,0 +1,133 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventConverters.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.commons.event.EventType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.ailegorreta.auditservice.domain.EventCodec.*;
+
+/**
+ * Spring Data converters between Event and Document. They are registered as MongoCustomConversions, so the
+ * repository (and the QueryDSL queries) map the Event documents field by field instead of by reflection.
+ *
+ * The Document has the same fields (and layouts) as the EventCodec; the UUID is left as is so the mongo driver encodes it
+ * with the configured uuid representation.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public final class EventConverters {
+
+    private EventConverters() {
+    }
+
+    public static List<Converter<?, ?>> converters(boolean timeSeries) {
+        return List.of(new EventWriteConverter(timeSeries), new EventReadConverter());
+    }
+
+    @WritingConverter
+    public static class EventWriteConverter implements Converter<Event, Document> {
+        private final boolean timeSeries;
+
+        public EventWriteConverter(boolean timeSeries) {
+            this.timeSeries = timeSeries;
+        }
+
+        @Override
+        public Document convert(Event event) {
+            Document document = new Document();
+            String eventType = event.getEventType() == null ? null : event.getEventType().name();
+
+            putIfNotNull(document, ID, event.getId());
+            putIfNotNull(document, TOKEN, event.getToken());
+            putIfNotNull(document, CORRELATION_ID, event.getCorrelationId());
+            if (timeSeries) {
+                Document meta = new Document();
+
+                putIfNotNull(meta, APPLICATION_NAME, event.getApplicationName());
+                putIfNotNull(meta, EVENT_TYPE, eventType);
+                document.put(META, meta);
+            } else
+                putIfNotNull(document, EVENT_TYPE, eventType);
+            putIfNotNull(document, USERNAME, event.getUsername());
+            putIfNotNull(document, EVENT_NAME, event.getEventName());
+            putIfNotNull(document, EVENT_DATE, event.getEventDate() == null ? null :
+                                                    new Date(toEpochMilli(event.getEventDate())));
+            if (!timeSeries)
+                putIfNotNull(document, APPLICATION_NAME, event.getApplicationName());
+            putIfNotNull(document, EVENT_BODY, event.getEventBody() instanceof CompressedBody compressed
+                                                    ? new Binary(CompressedBody.BINARY_SUBTYPE, compressed.getBytes())
+                                                    : event.getEventBody());
+            putIfNotNull(document, STORED_AT, event.getStoredAt() == null ? null :
+                                                    new Date(toEpochMilli(event.getStoredAt())));
+
+            return document;
+        }
+
+        private static void putIfNotNull(Document document, String name, Object value) {
+            if (value != null)
+                document.put(name, value);
+        }
+    }
+
+    @ReadingConverter
+    public static class EventReadConverter implements Converter<Document, Event> {
+        @Override
+        public Event convert(Document document) {
+            Document meta = document.get(META, Document.class);
+            Document metaFields = meta == null ? document : meta;
+            String eventType = metaFields.getString(EVENT_TYPE);
+            Date eventDate = document.getDate(EVENT_DATE);
+            Date storedAt = document.getDate(STORED_AT);
+            Event event = new Event(toUuid(document.get(ID)),
+                                    document.getInteger(TOKEN),
+                                    document.getString(CORRELATION_ID),
+                                    eventType == null ? null : EventType.valueOf(eventType),
+                                    document.getString(USERNAME),
+                                    document.getString(EVENT_NAME),
+                                    eventDate == null ? null : toLocalDateTime(eventDate.getTime()),
+                                    metaFields.getString(APPLICATION_NAME),
+                                    readBody(document.get(EVENT_BODY)));
+
+            event.setStoredAt(storedAt == null ? null : toLocalDateTime(storedAt.getTime()));
+
+            return event;
+        }
+
+        private static Object readBody(Object body) {
+            if (body instanceof Binary binary && binary.getType() == CompressedBody.BINARY_SUBTYPE)
+                return new CompressedBody(binary.getData());
+
+            return body;
+        }
+    }
+}
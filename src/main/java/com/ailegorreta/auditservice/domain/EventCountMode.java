@@ -0,0 +1,43 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCountMode.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+/**
+ * How the events are counted, chosen per request:
+ *
+ *  - EXACT: the count of all the matching events (i.e., a scan of the index or the collection).
+ *  - CAPPED: an exact count that stops at a limit, i.e., "10,000+" for larger results.
+ *  - ESTIMATE: the collection metadata when there is no predicate, otherwise the selectivity of the predicate in a
+ *    random sample of each partition times its estimated size.
+ *  - AUTO: ESTIMATE without predicate and CAPPED with predicate.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public enum EventCountMode {
+    AUTO,
+    EXACT,
+    CAPPED,
+    ESTIMATE
+}
@@ -0,0 +1,89 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCursor.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the keyset (cursor) pagination of the events: the eventDate and the id of the last event of a page.
+ *
+ * The events are ordered by eventDate desc and id desc (SORT), i.e., a total order that the inserts of other events
+ * do not change, and the next page seeks the events after the cursor with the eventDate_id indexes
+ * (see EventIndexes), so any page costs the same as the first one.
+ *
+ * The cursor is opaque for the clients: the base64url of the eventDate epoch millis and the 16 bytes of the id.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public record EventCursor(LocalDateTime eventDate, UUID id) {
+
+    public static final Sort SORT = Sort.by(Sort.Direction.DESC, EventCodec.EVENT_DATE, "id");
+
+    public static EventCursor of(Event event) {
+        return new EventCursor(event.getEventDate(), event.getId());
+    }
+
+    public static EventCursor decode(String cursor) {
+        byte[] bytes;
+
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid events cursor: " + cursor);
+        }
+        if (bytes.length != 24)
+            throw new IllegalArgumentException("Invalid events cursor: " + cursor);
+
+        var buffer = ByteBuffer.wrap(bytes);
+
+        return new EventCursor(EventCodec.toLocalDateTime(buffer.getLong()), new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    public String encode() {
+        var buffer = ByteBuffer.allocate(24)
+                               .putLong(EventCodec.toEpochMilli(eventDate))
+                               .putLong(id.getMostSignificantBits())
+                               .putLong(id.getLeastSignificantBits());
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * The predicate of the events after the cursor (in SORT order) and-ed with the query
+     */
+    public Predicate after(Predicate query) {
+        var root = QEvent.event;
+        var seek = root.eventDate.lt(eventDate).or(root.eventDate.eq(eventDate).and(root.id.lt(id)));
+
+        return query == null ? seek : ExpressionUtils.and(seek, query);
+    }
+}
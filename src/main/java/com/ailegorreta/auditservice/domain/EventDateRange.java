@@ -0,0 +1,131 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventDateRange.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Constant;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * The eventDate range implied by a QueryDSL predicate, used to route the queries to the partitions
+ * (see EventPartitions). A null bound means unbounded.
+ *
+ * Only the eventDate comparisons joined by 'and' (intersection) or 'or' (span of the ranges) narrow the range, any
+ * other expression (e.g., a 'not') is unbounded: the range may be wider than the predicate but never narrower.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public record EventDateRange(LocalDateTime from, LocalDateTime to) {
+
+    public static final EventDateRange UNBOUNDED = new EventDateRange(null, null);
+
+    public static EventDateRange of(Predicate predicate) {
+        if (predicate instanceof BooleanBuilder builder)
+            return of(builder.getValue());
+        if (!(predicate instanceof Operation<?> operation))
+            return UNBOUNDED;
+
+        var op = operation.getOperator();
+
+        if (op == Ops.AND)
+            return of((Predicate) operation.getArg(0)).intersect(of((Predicate) operation.getArg(1)));
+        if (op == Ops.OR)
+            return of((Predicate) operation.getArg(0)).span(of((Predicate) operation.getArg(1)));
+        if (!isEventDate(operation.getArg(0)))
+            return UNBOUNDED;
+        if (op == Ops.EQ)
+            return new EventDateRange(date(operation, 1), date(operation, 1));
+        if (op == Ops.BETWEEN)
+            return new EventDateRange(date(operation, 1), date(operation, 2));
+        if (op == Ops.GOE || op == Ops.GT)
+            return new EventDateRange(date(operation, 1), null);
+        if (op == Ops.LOE || op == Ops.LT)
+            return new EventDateRange(null, date(operation, 1));
+
+        return UNBOUNDED;
+    }
+
+    public boolean isEmpty() {
+        return from != null && to != null && from.isAfter(to);
+    }
+
+    public boolean overlaps(EventDateRange other) {
+        return !isEmpty() && !other.isEmpty() && !intersect(other).isEmpty();
+    }
+
+    /**
+     * The smallest range with all the eventDates of the events
+     */
+    public static EventDateRange spanning(Collection<Event> events) {
+        LocalDateTime from = null, to = null;
+
+        for (Event event : events)
+            if (event.getEventDate() != null) {
+                from = from == null ? event.getEventDate() : min(from, event.getEventDate());
+                to = to == null ? event.getEventDate() : max(to, event.getEventDate());
+            }
+
+        return from == null ? UNBOUNDED : new EventDateRange(from, to);
+    }
+
+    private EventDateRange intersect(EventDateRange other) {
+        return new EventDateRange(from == null ? other.from : other.from == null ? from : max(from, other.from),
+                                  to == null ? other.to : other.to == null ? to : min(to, other.to));
+    }
+
+    private EventDateRange span(EventDateRange other) {
+        if (isEmpty()) return other;
+        if (other.isEmpty()) return this;
+
+        return new EventDateRange(from == null || other.from == null ? null : min(from, other.from),
+                                  to == null || other.to == null ? null : max(to, other.to));
+    }
+
+    private static boolean isEventDate(Expression<?> expression) {
+        return expression instanceof Path<?> path &&
+               path.getMetadata().getParent() != null && path.getMetadata().getParent().getType() == Event.class &&
+               EventCodec.EVENT_DATE.equals(path.getMetadata().getName());
+    }
+
+    private static LocalDateTime date(Operation<?> operation, int arg) {
+        return operation.getArg(arg) instanceof Constant<?> constant &&
+               constant.getConstant() instanceof LocalDateTime date ? date : null;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,106 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventIds.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time ordered event ids (UUID version 7 layout): the 48 most significant bits are the unix epoch millis, so
+ * the ids of new events are always appended to the right of the _id index instead of scattered in the B-tree.
+ *
+ *  - timeOrdered(): monotonic within the node. The 12 bits after the version are a counter for the events of
+ *    the same millisecond (RFC 9562, method 1) and the rest are ThreadLocalRandom bits, i.e., no SecureRandom.
+ *  - timeOrdered(epochMilli, name): deterministic, the non time bits are the hash of the name. It is used for
+ *    the idempotent ids (see IdempotencyFilter), e.g., the Kafka record timestamp plus its (topic, partition, offset).
+ *
+ * The event date is the timestamp of its id, so when all the documents have time ordered ids (and the uuid
+ * representation is STANDARD, i.e., the bytes are stored in order) the eventDate ranges can be queried by
+ * _id range (see 'audit-service.ingest.id-range-queries' and EventRepositoryCustom.eventDateBetween).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public final class EventIds {
+
+    private static final AtomicLong last = new AtomicLong();      // (epochMilli << 12) | counter
+
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    private EventIds() {
+    }
+
+    public static UUID timeOrdered() {
+        long now = System.currentTimeMillis() << 12;
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        // ^ if the counter overflows in the same millisecond it borrows the next one, so it stays monotonic
+
+        return new UUID(((next >>> 12) << 16) | VERSION | (next & 0xFFFL),
+                        VARIANT | (ThreadLocalRandom.current().nextLong() & VARIANT_MASK));
+    }
+
+    public static UUID timeOrdered(long epochMilli, String name) {
+        ByteBuffer hash = ByteBuffer.wrap(sha256(name));
+
+        return new UUID((epochMilli << 16) | VERSION | (hash.getShort() & 0xFFFL),
+                        VARIANT | (hash.getLong() & VARIANT_MASK));
+    }
+
+    public static boolean isTimeOrdered(UUID id) {
+        return id.version() == 7;
+    }
+
+    public static long epochMilli(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * The lowest time ordered id for the millisecond
+     */
+    public static UUID lowerBound(long epochMilli) {
+        return new UUID((epochMilli << 16) | VERSION, VARIANT);
+    }
+
+    /**
+     * The highest time ordered id for the millisecond
+     */
+    public static UUID upperBound(long epochMilli) {
+        return new UUID((epochMilli << 16) | VERSION | 0xFFFL, VARIANT | VARIANT_MASK);
+    }
+
+    private static byte[] sha256(String name) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(name.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
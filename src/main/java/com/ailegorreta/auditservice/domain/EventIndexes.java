@@ -0,0 +1,109 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventIndexes.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The indexes of the event collections, chosen from the queries that the service issues:
+ *
+ * - username + eventDate desc + _id desc: 'notifications' and 'eventsPageable' by username.
+ * - eventName + eventDate desc + _id desc: 'notifications', 'events' and 'eventsPageable' by eventName.
+ * - applicationName + eventType + eventDate: 'events' by applicationName and the retention policies.
+ * - eventType + eventDate: 'events' by eventType and the retention policies of any application.
+ * - eventDate desc + _id desc: the date ranges without other filter.
+ * - storedAt: the events stored since a watermark, e.g., the refresh of the EventSearch indexes and of the
+ *   NotificationBuffer. The events stored before the field existed do not have it.
+ *
+ * The '_id' after the eventDate gives the (eventDate, id) order of the cursor pagination (see EventCursor)
+ * without a sort in memory.
+ *
+ * In the TIME_SERIES storage mode applicationName and eventType are inside the 'meta' field.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public final class EventIndexes {
+
+    private EventIndexes() {
+    }
+
+    public static List<Index> indexes(boolean timeSeries) {
+        var applicationName = field(EventCodec.APPLICATION_NAME, timeSeries);
+        var eventType = field(EventCodec.EVENT_TYPE, timeSeries);
+
+        return List.of(new Index().named("username_eventDate_id")
+                                  .on(EventCodec.USERNAME, Sort.Direction.ASC)
+                                  .on(EventCodec.EVENT_DATE, Sort.Direction.DESC)
+                                  .on(EventCodec.ID, Sort.Direction.DESC),
+                       new Index().named("eventName_eventDate_id")
+                                  .on(EventCodec.EVENT_NAME, Sort.Direction.ASC)
+                                  .on(EventCodec.EVENT_DATE, Sort.Direction.DESC)
+                                  .on(EventCodec.ID, Sort.Direction.DESC),
+                       new Index().named("applicationName_eventType_eventDate")
+                                  .on(applicationName, Sort.Direction.ASC)
+                                  .on(eventType, Sort.Direction.ASC)
+                                  .on(EventCodec.EVENT_DATE, Sort.Direction.ASC),
+                       new Index().named("eventType_eventDate")
+                                  .on(eventType, Sort.Direction.ASC)
+                                  .on(EventCodec.EVENT_DATE, Sort.Direction.ASC),
+                       new Index().named("eventDate_id")
+                                  .on(EventCodec.EVENT_DATE, Sort.Direction.DESC)
+                                  .on(EventCodec.ID, Sort.Direction.DESC),
+                       new Index().named("storedAt")
+                                  .on(EventCodec.STORED_AT, Sort.Direction.ASC));
+    }
+
+    /**
+     * The first field of each index (and '_id'), i.e., the fields that let a filter use an index
+     */
+    public static Set<String> leadingFields(boolean timeSeries) {
+        var fields = indexes(timeSeries).stream()
+                                        .map(index -> index.getIndexKeys().keySet().iterator().next())
+                                        .collect(Collectors.toSet());
+
+        fields.add(EventCodec.ID);
+
+        return fields;
+    }
+
+    /**
+     * Creates the missing indexes, the existing ones are not changed
+     */
+    public static void ensureIndexes(MongoOperations mongoOperations, String collectionName, boolean timeSeries) {
+        var indexOperations = mongoOperations.indexOps(collectionName);
+
+        indexes(timeSeries).forEach(indexOperations::ensureIndex);
+    }
+
+    private static String field(String name, boolean timeSeries) {
+        return timeSeries ? EventCodec.META + "." + name : name;
+    }
+}
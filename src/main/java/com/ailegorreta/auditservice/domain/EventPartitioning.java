@@ -0,0 +1,68 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventPartitioning.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+
+/**
+ * How the events are partitioned in collections by eventDate ('audit-service.storage.partitioning').
+ *
+ * - NONE: all the events in the 'event' collection.
+ * - MONTHLY: one collection per month, e.g., 'event_2026_10'. A range query reads only the months it overlaps
+ *   and an expired month is removed by dropping its collection.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public enum EventPartitioning {
+    NONE,
+    MONTHLY;
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("uuuu_MM");
+
+    public String collectionName(String baseName, YearMonth month) {
+        return this == NONE ? baseName : baseName + "_" + MONTH.format(month);
+    }
+
+    public String collectionName(String baseName, LocalDateTime eventDate) {
+        return collectionName(baseName, YearMonth.from(eventDate == null ? LocalDateTime.now() : eventDate));
+    }
+
+    /**
+     * The month of a partition collection, empty if the collection is not a partition of baseName
+     */
+    public static Optional<YearMonth> month(String baseName, String collectionName) {
+        if (!collectionName.startsWith(baseName + "_"))
+            return Optional.empty();
+        try {
+            return Optional.of(YearMonth.parse(collectionName.substring(baseName.length() + 1), MONTH));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventPartitions.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Router of the event partitions (see EventPartitioning): the collection of each inserted event and the
+ * collections that a query must read.
+ *
+ * The partitions are listed from mongo at most every REFRESH_MILLIS, so the partitions created by other
+ * instances are read shortly after. With NONE partitioning the only partition is the base collection.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class EventPartitions {
+
+    private static final long REFRESH_MILLIS = 10_000;
+
+    private final MongoOperations mongoOperations;
+    private final String baseName;
+    private final EventPartitioning partitioning;
+    private final CollectionOptions collectionOptions;
+    private final Consumer<String> onCreate;
+    private final NavigableMap<YearMonth, String> partitions = new ConcurrentSkipListMap<>();
+    private volatile long refreshedAt;
+
+    public EventPartitions(MongoOperations mongoOperations, String baseName,
+                           EventPartitioning partitioning, CollectionOptions collectionOptions) {
+        this(mongoOperations, baseName, partitioning, collectionOptions, collectionName -> {});
+    }
+
+    /**
+     * @param onCreate called after a new partition is created, e.g., to create its indexes
+     */
+    public EventPartitions(MongoOperations mongoOperations, String baseName, EventPartitioning partitioning,
+                           CollectionOptions collectionOptions, Consumer<String> onCreate) {
+        this.mongoOperations = mongoOperations;
+        this.baseName = baseName;
+        this.partitioning = partitioning;
+        this.collectionOptions = collectionOptions;
+        this.onCreate = onCreate;
+    }
+
+    public boolean isPartitioned() {
+        return partitioning != EventPartitioning.NONE;
+    }
+
+    public String partitionFor(Event event) {
+        return partitioning.collectionName(baseName, event.getEventDate());
+    }
+
+    /**
+     * The partitions that overlap the eventDate range of the predicate, in ascending eventDate order
+     */
+    public List<String> partitionsFor(Predicate predicate) {
+        if (!isPartitioned())
+            return List.of(baseName);
+
+        var range = EventDateRange.of(predicate);
+
+        if (range.isEmpty())
+            return List.of();
+        refreshIfStale();
+
+        NavigableMap<YearMonth, String> overlapping = partitions;
+
+        if (range.from() != null)
+            overlapping = overlapping.tailMap(YearMonth.from(range.from()), true);
+        if (range.to() != null)
+            overlapping = overlapping.headMap(YearMonth.from(range.to()), true);
+
+        return new ArrayList<>(overlapping.values());
+    }
+
+    /**
+     * All the partitions in ascending eventDate order
+     */
+    public NavigableMap<YearMonth, String> partitions() {
+        refresh();
+
+        return partitions;
+    }
+
+    /**
+     * Creates the partition collection, with the options of the storage mode, before its first insert
+     */
+    public void ensureExists(String collectionName) {
+        if (!isPartitioned() || partitions.containsValue(collectionName))
+            return;
+        if (!mongoOperations.collectionExists(collectionName))
+            try {
+                mongoOperations.createCollection(collectionName, collectionOptions);
+                onCreate.accept(collectionName);
+            } catch (DataAccessException e) {
+                if (!mongoOperations.collectionExists(collectionName))
+                    throw e;
+                // ^ created at the same time by another instance
+            }
+        EventPartitioning.month(baseName, collectionName)
+                         .ifPresent(month -> partitions.put(month, collectionName));
+    }
+
+    /**
+     * Forgets a partition, e.g., after it is dropped
+     */
+    public void remove(String collectionName) {
+        partitions.values().remove(collectionName);
+    }
+
+    private void refreshIfStale() {
+        if (System.currentTimeMillis() - refreshedAt > REFRESH_MILLIS)
+            refresh();
+    }
+
+    private synchronized void refresh() {
+        var listed = new TreeMap<YearMonth, String>();
+
+        mongoOperations.getCollectionNames()
+                       .forEach(name -> EventPartitioning.month(baseName, name)
+                                                         .ifPresent(month -> listed.put(month, name)));
+        partitions.keySet().retainAll(listed.keySet());
+        partitions.putAll(listed);
+        refreshedAt = System.currentTimeMillis();
+    }
+}
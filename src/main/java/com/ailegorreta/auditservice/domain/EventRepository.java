@@ -26,7 +26,6 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.StringPath;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
 import org.springframework.data.querydsl.binding.QuerydslBindings;
@@ -53,7 +52,8 @@ import java.util.*;
 public interface EventRepository extends CrudRepository<Event, UUID>,
                                          PagingAndSortingRepository<Event, UUID>,
                                          QuerydslPredicateExecutor<Event>,
-                                         QuerydslBinderCustomizer<QEvent> {
+                                         QuerydslBinderCustomizer<QEvent>,
+                                         EventRepositoryCustom {
 
     @Override
     default void customize(QuerydslBindings bindings, QEvent root) {
@@ -62,7 +62,8 @@ public interface EventRepository extends CrudRepository<Event, UUID>,
         bindings.bind(String.class)
                 .first((StringPath path, String value) -> {
                     if (value.startsWith("%") && value.endsWith("%"))
-                        return path.containsIgnoreCase(value.substring(1, value.length() - 1));
+                        return containsIgnoreCase(path, value.substring(1, value.length() - 1));
+                        // ^ the repository fragment, resolved with the trigram index of the usernames and event names
                     else
                         return path.eq(value);
         });
@@ -77,7 +78,8 @@ public interface EventRepository extends CrudRepository<Event, UUID>,
                         LocalDateTime from = dates.get(0);
                         LocalDateTime to = dates.get(1);
 
-                        return Optional.of(path.between(from, to));
+                        return Optional.of(eventDateBetween(from, to));
+                        // ^ the repository fragment, it knows if the _id range can be used
                     }
                 });
         /* Other examples that can be used for gt, le, le
@@ -86,12 +88,14 @@ public interface EventRepository extends CrudRepository<Event, UUID>,
         */
     }
 
-    /**
-     * Example to do queries inside the JSON data for events. This examples reads where the JSON data
-     * has telefono attribute inside.
+    /*
+     * Implemented by the EventRepositoryCustom fragment, so they use the event partitions
      */
-    @Query("'eventBody.datos.idUsuario': ?0 'eventBody.datos.telefono': {$regex: ?1}")
-    List<Event> findEventsDetail(Integer idUsuario, String telefono);
+    @Override
+    <S extends Event> S save(S event);
+
+    @Override
+    Optional<Event> findById(UUID id);
 
     @Override
     Page<Event> findAll(Pageable pageable);
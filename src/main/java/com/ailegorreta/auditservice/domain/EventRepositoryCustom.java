@@ -0,0 +1,166 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventRepositoryCustom.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.StringPath;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Custom fragment for the EventRepository. These are the operations that cannot be expressed
+ * with the Spring Data derived queries or the QueryDSL executor, e.g., bulk inserts for the
+ * batch Kafka consumer.
+ *
+ * The fragment also implements the QueryDSL queries, so they are routed to the event partitions
+ * (see EventPartitions). The fragment methods take precedence over the Spring Data implementation.
+ *
+ * Spring Data detects the implementation by the 'Impl' postfix (i.e., EventRepositoryCustomImpl)
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public interface EventRepositoryCustom {
+
+    /**
+     * Inserts all the events in just one unordered 'insertMany' round trip. The method returns
+     * only when the write concern has been satisfied, so the caller can commit the Kafka offsets.
+     * The inserts set the storedAt of the events.
+     *
+     * Events whose id already exists (i.e., redelivered events) are ignored, in both storage modes.
+     *
+     * @return the events that have been inserted, i.e., without the duplicates
+     */
+    List<Event> insertAll(Collection<Event> events);
+
+    /**
+     * Saves the event in the partition of its eventDate
+     */
+    <S extends Event> S save(S event);
+
+    /**
+     * Finds the event in the partition of the timestamp of a time ordered id (i.e., its eventDate), or in all
+     * the partitions for any other id.
+     */
+    Optional<Event> findById(UUID id);
+
+    /**
+     * Example to do queries inside the JSON data for events. This examples reads where the JSON data
+     * has telefono attribute inside, in all the partitions.
+     *
+     * note: the compressed bodies (see EventBodyCompressor) are not matched.
+     */
+    List<Event> findEventsDetail(Integer idUsuario, String telefono);
+
+    /*
+     * QueryDSL executor methods routed to the partitions that overlap the eventDate range of the predicate.
+     */
+    Page<Event> findAll(Predicate predicate, Pageable pageable);
+
+    List<Event> findAll(Predicate predicate, Sort sort);
+
+    /**
+     * The first 'limit' events in sort order, without counting them (e.g., for the cursor pagination)
+     */
+    List<Event> findAll(Predicate predicate, Sort sort, int limit);
+
+    /*
+     * Versions with a projection: the events only have the Event properties 'fields' and the id (all the
+     * properties if 'fields' is null), e.g., the fields selected by a GraphQL query.
+     */
+    Page<Event> findAll(Predicate predicate, Pageable pageable, Collection<String> fields);
+
+    List<Event> findAll(Predicate predicate, Sort sort, Collection<String> fields);
+
+    List<Event> findAll(Predicate predicate, Sort sort, int limit, Collection<String> fields);
+
+    Optional<Event> findOne(Predicate predicate, Collection<String> fields);
+
+    /**
+     * The events sorted by eventDate and id ascending read with a mongo cursor per partition (in batches of
+     * 'batchSize'), i.e., without loading them in memory. The stream must be closed.
+     */
+    Stream<Event> stream(Predicate predicate, int batchSize);
+
+    /**
+     * EventRepository.findEventsDetail with a projection, over all the partitions
+     */
+    List<Event> findEventsDetail(Integer idUsuario, String telefono, Collection<String> fields);
+
+    List<Event> findAll(Predicate predicate);
+
+    Page<Event> findAll(Pageable pageable);
+
+    long count(Predicate predicate);
+
+    long count();
+
+    /**
+     * The count of the events stopped at 'limit' (i.e., 'limit' means "limit or more"), so large results do not
+     * scan the whole index.
+     */
+    long count(Predicate predicate, long limit);
+
+    /**
+     * The number of events from the collections metadata, without reading them.
+     */
+    long estimatedCount();
+
+    /**
+     * The number of events estimated with the matches of the predicate in a random sample of 'sampleSize' events
+     * of each partition; empty if there are less than 'minMatches' matches, i.e., the predicate is too selective
+     * for the sample to be significant.
+     */
+    OptionalLong estimatedCount(Predicate predicate, int sampleSize, int minMatches);
+
+    boolean exists(Predicate predicate);
+
+    /**
+     * The eventDate range predicate (e.g., of the eventDate QueryDSL binding). With
+     * 'audit-service.ingest.id-range-queries' it adds the equivalent _id range (see EventIds), so the query can use
+     * the _id index without a separate index on eventDate.
+     */
+    Predicate eventDateBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * The case-insensitive 'contains' predicate (e.g., of the '%value%' QueryDSL binding), resolved with the
+     * trigram indexes of the EventSearch.
+     */
+    Predicate containsIgnoreCase(StringPath path, String value);
+
+    Optional<Event> findOne(Predicate predicate);
+
+    <S extends Event, R> R findBy(Predicate predicate, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
+}
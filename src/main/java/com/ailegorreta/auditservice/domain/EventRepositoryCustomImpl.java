@@ -0,0 +1,567 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventRepositoryCustomImpl.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.querydsl.core.NonUniqueResultException;
+import com.querydsl.core.types.Order;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
+import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.repository.support.SpringDataMongodbQuery;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the EventRepositoryCustom fragment.
+ *
+ * The bulk insert goes directly to the mongo collection with an unordered insertMany, so one
+ * failed document (e.g., a duplicate key of a redelivered event) does not stop the rest of the batch.
+ * The events are encoded with the EventCodec.
+ *
+ * The inserts (and save) are routed to the partition of their eventDate, findById to the partition of the id
+ * timestamp and the QueryDSL queries to the partitions that overlap the eventDate range of the predicate
+ * (see EventPartitions). When a query reads more than one
+ * partition:
+ *  - Sorted by eventDate (or unsorted) the partitions are read one after the other, skipping whole partitions
+ *    with their counts, because the partitions do not overlap.
+ *  - Any other sort reads the first offset + size events of each partition and merges them.
+ *
+ * Every insert sets the storedAt of the events, adds their values to the EventSearch and publishes an EventsStored
+ * application event with the eventDate range of the stored events.
+ *
+ * A time-series collection (TIME_SERIES storage mode) has no unique index on '_id', so the duplicates are not
+ * rejected by mongo: the bulk insert reads the ids of the batch first and inserts only the events not stored yet.
+ * note: two consumers that insert the same event at the same time may still both store it in this mode.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+    private static final PathBuilder<Event> EVENT_PATH = new PathBuilder<>(Event.class, QEvent.event.getMetadata());
+
+    private final MongoOperations mongoOperations;
+    private final WriteConcern writeConcern;
+    private final EventStorageMode storageMode;
+    private final EventPartitions eventPartitions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSearch eventSearch;
+    private final boolean idRangeQueries;
+    private volatile CodecRegistry eventCodecRegistry;
+
+    public EventRepositoryCustomImpl(MongoOperations mongoOperations,
+                                     ApplicationEventPublisher eventPublisher,
+                                     EventPartitions eventPartitions,
+                                     EventSearch eventSearch,
+                                     @Value("${audit-service.ingest.write-concern:JOURNALED}") String writeConcern,
+                                     @Value("${audit-service.storage.mode:COLLECTION}") EventStorageMode storageMode,
+                                     @Value("${audit-service.ingest.id-range-queries:false}") boolean idRangeQueries) {
+        this.mongoOperations = mongoOperations;
+        this.eventPublisher = eventPublisher;
+        this.eventPartitions = eventPartitions;
+        // ^ the bean shared with the retention, see StorageConfig
+        this.eventSearch = eventSearch;
+        this.idRangeQueries = idRangeQueries;
+        this.writeConcern = WriteConcern.valueOf(writeConcern);
+        // ^ acknowledged by the primary and written to its journal before the offsets are committed
+        this.storageMode = storageMode;
+    }
+
+    @Override
+    public List<Event> insertAll(Collection<Event> events) {
+        if (events.isEmpty())
+            return List.of();
+
+        var byPartition = new LinkedHashMap<String, List<Event>>();
+        var inserted = new ArrayList<Event>(events.size());
+        var storedAt = LocalDateTime.now();
+
+        events.forEach(event -> event.setStoredAt(storedAt));
+        events.forEach(event -> byPartition.computeIfAbsent(eventPartitions.partitionFor(event), p -> new ArrayList<>())
+                                           .add(event));
+        byPartition.forEach((partition, partitionEvents) -> inserted.addAll(insertAll(partition, partitionEvents)));
+        inserted.forEach(eventSearch::index);
+        if (!inserted.isEmpty())
+            eventPublisher.publishEvent(new EventsStored(EventDateRange.spanning(inserted), inserted.size()));
+
+        return inserted;
+    }
+
+    private List<Event> insertAll(String collectionName, List<Event> events) {
+        eventPartitions.ensureExists(collectionName);
+
+        List<Event> inserted = storageMode.isTimeSeries() ? withoutStored(collectionName, events)
+                                                          : new ArrayList<>(events);
+
+        if (inserted.isEmpty())
+            return inserted;
+        try {
+            eventCollection(collectionName).insertMany(inserted, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteConcernError() != null ||
+                !e.getWriteErrors().stream().allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) ==
+                                                                ErrorCategory.DUPLICATE_KEY))
+                throw e;
+            // ^ only duplicates: the rest of the batch has been inserted
+            e.getWriteErrors().stream()
+                              .map(BulkWriteError::getIndex)
+                              .sorted(Comparator.reverseOrder())
+                              .forEach(index -> inserted.remove(index.intValue()));
+        }
+        return inserted;
+    }
+
+    /**
+     * The events of the batch whose id is not in the (time-series) collection yet, nor repeated in the batch. The
+     * eventDate range lets mongo read only the buckets of the batch.
+     */
+    private List<Event> withoutStored(String collectionName, List<Event> events) {
+        var ids = new HashSet<UUID>();
+        var dates = events.stream().map(Event::getEventDate).toList();
+        var predicate = QEvent.event.id.in(events.stream().map(Event::getId).toList())
+                                       .and(QEvent.event.eventDate.between(Collections.min(dates), Collections.max(dates)));
+
+        fetch(collectionName, predicate, Sort.unsorted(), 0, Long.MAX_VALUE, List.of("id"))
+                .forEach(event -> ids.add(event.getId()));
+
+        return events.stream()
+                     .filter(event -> ids.add(event.getId()))
+                     .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+    }
+
+    /**
+     * The Event collection with the EventCodec, i.e., the events are encoded directly into BSON without
+     * an intermediate Document.
+     */
+    private MongoCollection<Event> eventCollection(String collectionName) {
+        var collection = mongoOperations.getCollection(collectionName);
+
+        if (eventCodecRegistry == null)
+            eventCodecRegistry = CodecRegistries.fromRegistries(
+                                        CodecRegistries.fromCodecs(new EventCodec(collection.getCodecRegistry(),
+                                                                                   storageMode.isTimeSeries())),
+                                        collection.getCodecRegistry());
+
+        return collection.withDocumentClass(Event.class)
+                         .withCodecRegistry(eventCodecRegistry)
+                         .withWriteConcern(writeConcern);
+    }
+
+    @Override
+    public <S extends Event> S save(S event) {
+        var collectionName = eventPartitions.partitionFor(event);
+
+        eventPartitions.ensureExists(collectionName);
+        event.setStoredAt(LocalDateTime.now());
+
+        return mongoOperations.save(event, collectionName);
+    }
+
+    @Override
+    public Optional<Event> findById(UUID id) {
+        var partitions = EventIds.isTimeOrdered(id)
+                            ? eventPartitions.partitionsFor(QEvent.event.eventDate.eq(EventCodec.toLocalDateTime(EventIds.epochMilli(id))))
+                            : eventPartitions.partitionsFor(null);
+
+        return partitions.stream()
+                         .map(partition -> mongoOperations.findById(id, Event.class, partition))
+                         .filter(Objects::nonNull)
+                         .findFirst();
+    }
+
+    @Override
+    public List<Event> findEventsDetail(Integer idUsuario, String telefono) {
+        return findEventsDetail(idUsuario, telefono, null);
+    }
+
+    @Override
+    public Page<Event> findAll(Predicate predicate, Pageable pageable) {
+        return findAll(predicate, pageable, null);
+    }
+
+    @Override
+    public Page<Event> findAll(Predicate predicate, Pageable pageable, Collection<String> fields) {
+        var partitions = eventPartitions.partitionsFor(predicate);
+
+        if (partitions.size() == 1 && fields == null)
+            return query(partitions.get(0), predicate).fetchPage(pageable);
+
+        var counts = partitions.stream().mapToLong(partition -> query(partition, predicate).fetchCount()).toArray();
+        var total = Arrays.stream(counts).sum();
+
+        if (pageable.isUnpaged())
+            return new PageImpl<>(find(partitions, counts, predicate, pageable.getSort(), 0, total, fields),
+                                  pageable, total);
+
+        return new PageImpl<>(find(partitions, counts, predicate, pageable.getSort(),
+                                   pageable.getOffset(), pageable.getPageSize(), fields),
+                              pageable, total);
+    }
+
+    @Override
+    public List<Event> findAll(Predicate predicate, Sort sort) {
+        return findAll(predicate, sort, (Collection<String>) null);
+    }
+
+    @Override
+    public List<Event> findAll(Predicate predicate, Sort sort, Collection<String> fields) {
+        var partitions = eventPartitions.partitionsFor(predicate);
+
+        if (partitions.size() == 1)
+            return fetch(partitions.get(0), predicate, sort, 0, Long.MAX_VALUE, fields);
+
+        var counts = partitions.stream().mapToLong(partition -> query(partition, predicate).fetchCount()).toArray();
+
+        return find(partitions, counts, predicate, sort, 0, Arrays.stream(counts).sum(), fields);
+    }
+
+    @Override
+    public List<Event> findAll(Predicate predicate, Sort sort, int limit) {
+        return findAll(predicate, sort, limit, null);
+    }
+
+    @Override
+    public List<Event> findAll(Predicate predicate, Sort sort, int limit, Collection<String> fields) {
+        var partitions = eventPartitions.partitionsFor(predicate);
+
+        if (partitions.size() == 1)
+            return fetch(partitions.get(0), predicate, sort, 0, limit, fields);
+
+        return find(partitions, null, predicate, sort, 0, limit, fields);
+    }
+
+    @Override
+    public List<Event> findAll(Predicate predicate) {
+        return findAll(predicate, Sort.unsorted());
+    }
+
+    @Override
+    public Page<Event> findAll(Pageable pageable) {
+        return findAll(null, pageable);
+    }
+
+    @Override
+    public long count(Predicate predicate) {
+        return eventPartitions.partitionsFor(predicate).stream()
+                              .mapToLong(partition -> query(partition, predicate).fetchCount())
+                              .sum();
+    }
+
+    @Override
+    public long count() {
+        return count(null);
+    }
+
+    @Override
+    public long count(Predicate predicate, long limit) {
+        var count = 0L;
+
+        for (String partition : eventPartitions.partitionsFor(predicate)) {
+            if (count >= limit)
+                break;
+            var query = new BasicQuery(query(partition, predicate).asDocument())
+                                .limit((int) Math.min(limit - count, Integer.MAX_VALUE));
+            // ^ SpringDataMongodbQuery.fetchCount drops the limit
+
+            count += mongoOperations.count(query, Event.class, partition);
+        }
+
+        return count;
+    }
+
+    @Override
+    public long estimatedCount() {
+        return eventPartitions.partitionsFor(null).stream()
+                              .mapToLong(mongoOperations::estimatedCount)
+                              .sum();
+    }
+
+    @Override
+    public OptionalLong estimatedCount(Predicate predicate, int sampleSize, int minMatches) {
+        var estimate = 0.0;
+        var matches = 0L;
+
+        for (String partition : eventPartitions.partitionsFor(predicate)) {
+            var size = mongoOperations.estimatedCount(partition);
+
+            if (size == 0)
+                continue;
+
+            var filter = query(partition, predicate).asDocument();
+            var aggregation = Aggregation.newAggregation(Event.class,
+                                                         Aggregation.sample(sampleSize),
+                                                         Aggregation.match(new CriteriaDefinition() {
+                                                             @Override
+                                                             public Document getCriteriaObject() { return filter; }
+                                                             @Override
+                                                             public String getKey() { return null; }
+                                                         }),
+                                                         Aggregation.count().as("matches"));
+            var result = mongoOperations.aggregate(aggregation, partition, Document.class).getUniqueMappedResult();
+            var sampleMatches = result == null ? 0L : ((Number) result.get("matches")).longValue();
+
+            matches += sampleMatches;
+            estimate += (double) size * sampleMatches / Math.min(size, sampleSize);
+        }
+
+        return matches < minMatches ? OptionalLong.empty() : OptionalLong.of(Math.round(estimate));
+    }
+
+    @Override
+    public boolean exists(Predicate predicate) {
+        return eventPartitions.partitionsFor(predicate).stream()
+                              .anyMatch(partition -> query(partition, predicate).fetchFirst() != null);
+    }
+
+    @Override
+    public Predicate eventDateBetween(LocalDateTime from, LocalDateTime to) {
+        var dates = QEvent.event.eventDate.between(from, to);
+
+        if (!idRangeQueries)
+            return dates;
+
+        return Expressions.allOf(QEvent.event.id.between(EventIds.lowerBound(EventCodec.toEpochMilli(from)),
+                                                         EventIds.upperBound(EventCodec.toEpochMilli(to))),
+                                 dates);
+    }
+
+    @Override
+    public Predicate containsIgnoreCase(StringPath path, String value) {
+        return eventSearch.containsIgnoreCase(path, value);
+    }
+
+    @Override
+    public Optional<Event> findOne(Predicate predicate) {
+        Event found = null;
+
+        try {
+            for (String partition : eventPartitions.partitionsFor(predicate)) {
+                var event = query(partition, predicate).fetchOne();
+
+                if (event != null && found != null)
+                    throw new IncorrectResultSizeDataAccessException(1);
+                if (event != null)
+                    found = event;
+            }
+        } catch (NonUniqueResultException e) {
+            throw new IncorrectResultSizeDataAccessException(e.getMessage(), 1, e);
+        }
+
+        return Optional.ofNullable(found);
+    }
+
+    @Override
+    public Optional<Event> findOne(Predicate predicate, Collection<String> fields) {
+        if (fields == null)
+            return findOne(predicate);
+
+        var found = new ArrayList<Event>();
+
+        for (String partition : eventPartitions.partitionsFor(predicate)) {
+            found.addAll(fetch(partition, predicate, Sort.unsorted(), 0, 2 - found.size(), fields));
+            if (found.size() > 1)
+                throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+
+        return found.stream().findFirst();
+    }
+
+    @Override
+    public Stream<Event> stream(Predicate predicate, int batchSize) {
+        var sort = Sort.by(Sort.Direction.ASC, EventCodec.EVENT_DATE, "id");
+        // ^ the partitions are ascending, so the concatenation is sorted too
+
+        return eventPartitions.partitionsFor(predicate).stream()
+                              .flatMap(partition -> mongoOperations.stream(
+                                      new BasicQuery(query(partition, predicate).asDocument()).with(sort)
+                                                                                              .cursorBatchSize(batchSize),
+                                      Event.class, partition));
+    }
+
+    @Override
+    public List<Event> findEventsDetail(Integer idUsuario, String telefono, Collection<String> fields) {
+        var filter = new Document("eventBody.datos.idUsuario", idUsuario)
+                            .append("eventBody.datos.telefono", new Document("$regex", telefono));
+
+        return eventPartitions.partitionsFor(null).stream()
+                              .flatMap(partition -> mongoOperations.find(new BasicQuery(filter, projection(fields, Sort.unsorted())),
+                                                                         Event.class, partition).stream())
+                              .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends Event, R> R findBy(Predicate predicate,
+                                        Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply((FluentQuery.FetchableFluentQuery<S>) new PartitionedFluentQuery<>(this, predicate));
+    }
+
+    /**
+     * Reads 'limit' events from the 'offset' of the sorted union of the partitions. The counts of the partitions
+     * are only needed with an offset.
+     */
+    private List<Event> find(List<String> partitions, long[] counts, Predicate predicate, Sort sort,
+                             long offset, long limit, Collection<String> fields) {
+        var first = sort.stream().findFirst();
+        var result = new ArrayList<Event>();
+
+        if (first.isEmpty() || first.get().getProperty().equals(EventCodec.EVENT_DATE)) {
+            var descending = first.isPresent() && first.get().isDescending();
+            var skip = offset;
+
+            for (int i = 0; i < partitions.size() && result.size() < limit; i++) {
+                var index = descending ? partitions.size() - 1 - i : i;
+
+                if (skip > 0 && skip >= counts[index]) {
+                    skip -= counts[index];
+                    continue;
+                }
+                result.addAll(fetch(partitions.get(index), predicate, sort, skip, limit - result.size(), fields));
+                skip = 0;
+            }
+            return result;
+        }
+        for (int i = 0; i < partitions.size(); i++)
+            if (counts == null || counts[i] > 0)
+                result.addAll(fetch(partitions.get(i), predicate, sort, 0, offset + limit, fields));
+        result.sort(comparator(sort));
+        // ^ the concatenation of sorted runs: the sort is a merge of the partitions
+
+        return result.subList((int) Math.min(offset, result.size()), (int) Math.min(offset + limit, result.size()));
+    }
+
+    /**
+     * The sorted events of a partition with only the 'fields' (all of them if null), so the fields not
+     * requested are neither read nor decoded.
+     */
+    private List<Event> fetch(String collectionName, Predicate predicate, Sort sort, long offset, long limit,
+                              Collection<String> fields) {
+        if (fields == null) {
+            var query = query(collectionName, predicate).orderBy(orderSpecifiers(sort)).offset(offset);
+
+            return (limit == Long.MAX_VALUE ? query : query.limit(limit)).fetch();
+        }
+
+        var query = new BasicQuery(query(collectionName, predicate).asDocument(), projection(fields, sort))
+                            .with(sort)
+                            .skip(offset);
+
+        if (limit < Integer.MAX_VALUE)
+            query.limit((int) limit);
+
+        return mongoOperations.find(query, Event.class, collectionName);
+    }
+
+    /**
+     * The projection of the Event properties 'fields', with the sort properties because the merge of the
+     * partitions compares them. The id is always included (i.e., an empty projection would be all the fields).
+     */
+    private static Document projection(Collection<String> fields, Sort sort) {
+        if (fields == null)
+            return new Document();
+
+        var projection = new Document("id", 1);
+
+        fields.forEach(field -> projection.put(field, 1));
+        sort.forEach(order -> projection.put(order.getProperty(), 1));
+
+        return projection;
+    }
+
+    private SpringDataMongodbQuery<Event> query(String collectionName, Predicate predicate) {
+        var query = new SpringDataMongodbQuery<Event>(mongoOperations, Event.class, collectionName);
+
+        return predicate == null ? query : query.where(predicate);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static OrderSpecifier<?>[] orderSpecifiers(Sort sort) {
+        return sort.stream()
+                   .map(order -> new OrderSpecifier(order.isAscending() ? Order.ASC : Order.DESC,
+                                                    EVENT_PATH.getComparable(order.getProperty(), Comparable.class)))
+                   .toArray(OrderSpecifier[]::new);
+    }
+
+    /**
+     * The same order as mongo for the Event fields (nulls first)
+     */
+    private static Comparator<Event> comparator(Sort sort) {
+        Comparator<Event> comparator = (a, b) -> 0;
+
+        for (Sort.Order order : sort) {
+            Comparator<Event> field = Comparator.comparing(event -> sortValue(event, order.getProperty()),
+                                                           Comparator.nullsFirst(Comparator.naturalOrder()));
+
+            comparator = comparator.thenComparing(order.isAscending() ? field : field.reversed());
+        }
+        return comparator;
+    }
+
+    private static Comparable<Object> sortValue(Event event, String property) {
+        Comparable<?> value = switch (property) {
+            case "id" -> event.getId() == null ? null : event.getId().toString();
+            // ^ the hex string has the unsigned byte order of the binary UUID
+            case EventCodec.TOKEN -> event.getToken();
+            case EventCodec.CORRELATION_ID -> event.getCorrelationId();
+            case EventCodec.EVENT_TYPE -> event.getEventType() == null ? null : event.getEventType().name();
+            case EventCodec.USERNAME -> event.getUsername();
+            case EventCodec.EVENT_NAME -> event.getEventName();
+            case EventCodec.EVENT_DATE -> event.getEventDate();
+            case EventCodec.APPLICATION_NAME -> event.getApplicationName();
+            default -> throw new IllegalArgumentException("The events of several partitions cannot be sorted by " +
+                                                          property);
+        };
+
+        @SuppressWarnings("unchecked")
+        var comparable = (Comparable<Object>) value;
+
+        return comparable;
+    }
+}
@@ -0,0 +1,124 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventSearch.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.StringPath;
+
+import java.time.LocalDateTime;
+
+/**
+ * Substring search of the usernames and event names. A 'contains' filter is resolved with the TrigramIndex of
+ * the distinct values into an 'in' of the matching values, which uses the username and eventName indexes
+ * (see EventIndexes) instead of an unanchored regex that scans the whole collection.
+ *
+ * The indexes are loaded and refreshed by the EventSearchIndexer up to a watermark: they have all the values of
+ * the events stored (see Event.storedAt) before it. The events stored after the watermark, e.g., by other instances
+ * since the last refresh, are still matched with the regex, restricted to them with the storedAt index:
+ *
+ *      path in (matching values) or (path matches regex and storedAt >= watermark)
+ *
+ * so the result is the same as the one of the regex. Until the first load, for the other String fields or when
+ * too many values match, the filter is the regex.
+ *
+ * It is a bean (see StorageConfig) shared by the repository, the predicate builders and the indexer.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class EventSearch {
+
+    private final TrigramIndex usernames = new TrigramIndex();
+    private final TrigramIndex eventNames = new TrigramIndex();
+    private final int maxTerms;
+    private volatile LocalDateTime watermark;
+    // ^ null until the first load
+
+    public EventSearch(int maxTerms) {
+        this.maxTerms = maxTerms;
+    }
+
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * The indexes have all the values of the events stored before the watermark
+     */
+    public void setWatermark(LocalDateTime watermark) {
+        this.watermark = watermark;
+    }
+
+    public void index(Event event) {
+        usernames.add(event.getUsername());
+        eventNames.add(event.getEventName());
+    }
+
+    public TrigramIndex usernames() {
+        return usernames;
+    }
+
+    public TrigramIndex eventNames() {
+        return eventNames;
+    }
+
+    public BooleanExpression contains(StringPath path, String value) {
+        return contains(path, value, false);
+    }
+
+    public BooleanExpression containsIgnoreCase(StringPath path, String value) {
+        return contains(path, value, true);
+    }
+
+    private BooleanExpression contains(StringPath path, String value, boolean ignoreCase) {
+        var regex = ignoreCase ? path.containsIgnoreCase(value) : path.contains(value);
+        var index = indexOf(path);
+        var loadedUntil = watermark;
+
+        if (loadedUntil == null || index == null)
+            return regex;
+
+        var terms = index.search(value, ignoreCase);
+
+        if (terms.size() > maxTerms)
+            return regex;
+
+        var recent = regex.and(QEvent.event.storedAt.goe(loadedUntil));
+
+        return terms.isEmpty() ? recent : path.in(terms).or(recent);
+    }
+
+    private TrigramIndex indexOf(StringPath path) {
+        var parent = path.getMetadata().getParent();
+
+        if (parent == null || parent.getType() != Event.class)
+            return null;
+
+        return switch (path.getMetadata().getName()) {
+            case EventCodec.USERNAME -> usernames;
+            case EventCodec.EVENT_NAME -> eventNames;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventStorageMode.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+/**
+ * How the events are stored in mongo ('audit-service.storage.mode').
+ *
+ * - COLLECTION: a regular collection, the flat Event document.
+ * - TIME_SERIES: a time-series collection with 'eventDate' as time field and the 'meta' sub-document
+ *   (applicationName and eventType) as meta field. Mongo groups the events of the same meta in buckets
+ *   ordered by time and compresses them, so the storage is smaller and the eventDate ranges read fewer pages.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public enum EventStorageMode {
+    COLLECTION,
+    TIME_SERIES;
+
+    public boolean isTimeSeries() {
+        return this == TIME_SERIES;
+    }
+
+    /**
+     * The options to create an event collection (or partition) in this mode
+     */
+    public CollectionOptions collectionOptions(Granularity granularity) {
+        if (!isTimeSeries())
+            return CollectionOptions.empty();
+
+        return CollectionOptions.empty()
+                                .timeSeries(CollectionOptions.TimeSeriesOptions.timeSeries(EventCodec.EVENT_DATE)
+                                                                               .metaField(EventCodec.META)
+                                                                               .granularity(granularity));
+    }
+}
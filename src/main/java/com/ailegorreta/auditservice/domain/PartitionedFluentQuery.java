@@ -0,0 +1,136 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  PartitionedFluentQuery.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The fluent query of EventRepository.findBy (e.g., the one used by the QuerydslDataFetcher of the GraphQL
+ * 'events' and 'event' queries) over the event partitions. It only returns Events; the projection (i.e., the
+ * properties of the GraphQL selection set) is pushed down to mongo, so the other properties are null.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+class PartitionedFluentQuery<T extends Event> implements FluentQuery.FetchableFluentQuery<T> {
+
+    private final EventRepositoryCustomImpl repository;
+    private final Predicate predicate;
+    private final Sort sort;
+    private final int limit;
+    private final Collection<String> fields;
+
+    PartitionedFluentQuery(EventRepositoryCustomImpl repository, Predicate predicate) {
+        this(repository, predicate, Sort.unsorted(), 0, null);
+    }
+
+    private PartitionedFluentQuery(EventRepositoryCustomImpl repository, Predicate predicate, Sort sort, int limit,
+                                   Collection<String> fields) {
+        this.repository = repository;
+        this.predicate = predicate;
+        this.sort = sort;
+        this.limit = limit;
+        this.fields = fields;
+    }
+
+    @Override
+    public FetchableFluentQuery<T> sortBy(Sort sort) {
+        return new PartitionedFluentQuery<>(repository, predicate, this.sort.and(sort), limit, fields);
+    }
+
+    @Override
+    public FetchableFluentQuery<T> limit(int limit) {
+        return new PartitionedFluentQuery<>(repository, predicate, sort, limit, fields);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> FetchableFluentQuery<R> as(Class<R> resultType) {
+        if (!resultType.isAssignableFrom(Event.class))
+            throw new UnsupportedOperationException("The event partitions only return Events, not " + resultType);
+
+        return (FetchableFluentQuery<R>) this;
+    }
+
+    @Override
+    public FetchableFluentQuery<T> project(Collection<String> properties) {
+        return new PartitionedFluentQuery<>(repository, predicate, sort, limit,
+                                            properties.isEmpty() ? null : List.copyOf(properties));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T oneValue() {
+        return (T) repository.findOne(predicate, fields).orElse(null);
+    }
+
+    @Override
+    public T firstValue() {
+        var events = page(PageRequest.of(0, 1)).getContent();
+
+        return events.isEmpty() ? null : events.get(0);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> all() {
+        if (limit > 0)
+            return (List<T>) repository.findAll(predicate, sort, limit, fields);
+
+        return (List<T>) repository.findAll(predicate, sort, fields);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Page<T> page(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted())
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+
+        return (Page<T>) repository.findAll(predicate, pageable, fields);
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return all().stream();
+    }
+
+    @Override
+    public long count() {
+        return repository.count(predicate);
+    }
+
+    @Override
+    public boolean exists() {
+        return repository.exists(predicate);
+    }
+}
@@ -0,0 +1,53 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  TimeSeriesFieldNamingStrategy.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+import org.springframework.data.mapping.model.PropertyNameFieldNamingStrategy;
+
+/**
+ * Field naming of the Event in the TIME_SERIES storage mode: applicationName and eventType are inside the
+ * 'meta' sub-document, so the QueryDSL predicates and sorts of the EventRepository (e.g., the ones of
+ * the GraphQL queries) are mapped to 'meta.applicationName' and 'meta.eventType'.
+ *
+ * The documents are written and read by the EventConverters, this strategy is only used by the query mapper.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class TimeSeriesFieldNamingStrategy implements FieldNamingStrategy {
+
+    @Override
+    public String getFieldName(PersistentProperty<?> property) {
+        if (Event.class.equals(property.getOwner().getType()))
+            switch (property.getName()) {
+                case EventCodec.APPLICATION_NAME, EventCodec.EVENT_TYPE -> {
+                    return EventCodec.META + "." + property.getName();
+                }
+            }
+
+        return PropertyNameFieldNamingStrategy.INSTANCE.getFieldName(property);
+    }
+}
@@ -0,0 +1,91 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  TrigramIndex.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory trigram index of a set of terms (e.g., the distinct usernames) to find the terms that contain a
+ * substring without scanning all of them: the candidates are the terms that have every trigram of the substring,
+ * and they are verified with String.contains.
+ *
+ * The trigrams are case-insensitive (lower case), so the same index answers case-sensitive and case-insensitive
+ * searches. The terms are only added; a term that no longer exists in mongo just matches no event.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+public class TrigramIndex {
+
+    private static final int N = 3;
+
+    private final Set<String> terms = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    public void add(String term) {
+        if (term == null || !terms.add(term))
+            return;
+        trigrams(term.toLowerCase(Locale.ROOT)).forEach(trigram -> postings.computeIfAbsent(trigram,
+                                                                   t -> ConcurrentHashMap.newKeySet())
+                                                                 .add(term));
+    }
+
+    public int size() {
+        return terms.size();
+    }
+
+    /**
+     * The terms that contain the value
+     */
+    public Set<String> search(String value, boolean ignoreCase) {
+        var lowerValue = value.toLowerCase(Locale.ROOT);
+        Collection<String> candidates = terms;
+
+        if (lowerValue.length() >= N) {
+            var trigramPostings = trigrams(lowerValue).stream()
+                                                      .map(trigram -> postings.getOrDefault(trigram, Set.of()))
+                                                      .sorted(Comparator.comparingInt(Set::size))
+                                                      .toList();
+
+            candidates = trigramPostings.get(0);
+            // ^ the smallest posting list: the rest are only checked by the contains of the candidates
+        }
+
+        return candidates.stream()
+                         .filter(term -> ignoreCase ? term.toLowerCase(Locale.ROOT).contains(lowerValue)
+                                                    : term.contains(value))
+                         .collect(Collectors.toSet());
+    }
+
+    private static Set<String> trigrams(String text) {
+        var trigrams = new HashSet<String>();
+
+        for (int i = 0; i + N <= text.length(); i++)
+            trigrams.add(text.substring(i, i + N));
+
+        return trigrams;
+    }
+}
@@ -22,14 +22,27 @@
  */
 package com.ailegorreta.auditservice.gql;
 
-import com.ailegorreta.auditservice.domain.QEvent;
+import com.ailegorreta.auditservice.domain.EventCountMode;
+import com.ailegorreta.auditservice.domain.EventCursor;
 import com.ailegorreta.auditservice.gql.querydsl.EventPredicatesBuilder;
+import com.ailegorreta.auditservice.gql.types.EventCount;
+import com.ailegorreta.auditservice.gql.types.EventPage;
 import com.ailegorreta.auditservice.gql.types.EventQuery;
 import com.ailegorreta.auditservice.gql.types.Notification;
+import com.ailegorreta.auditservice.gql.types.RollupPoint;
 import com.ailegorreta.auditservice.domain.Event;
 import com.ailegorreta.auditservice.domain.EventRepository;
-import com.ailegorreta.data.mongo.querydsl.PredicateDate;
-import com.querydsl.core.BooleanBuilder;
+import com.ailegorreta.auditservice.domain.EventSearch;
+import com.ailegorreta.auditservice.service.cache.QueryResultCache;
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor;
+import com.ailegorreta.auditservice.service.count.EventCounter;
+import com.ailegorreta.auditservice.service.file.EventFileSink;
+import com.ailegorreta.auditservice.service.notification.NotificationBuffer;
+import com.ailegorreta.auditservice.service.notification.NotificationSubscriptions;
+import com.ailegorreta.auditservice.service.rollup.EventRollup;
+import com.ailegorreta.auditservice.service.rollup.RollupGranularity;
+import com.ailegorreta.commons.event.EventType;
+import graphql.schema.DataFetchingFieldSelectionSet;
 import com.querydsl.core.types.Predicate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -42,7 +55,8 @@ import org.springframework.validation.annotation.Validated;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
-import java.time.ZoneId;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -61,9 +75,18 @@ import java.util.*;
 @RequiredArgsConstructor
 public class EventController {
 
-    private final String NOTIFICATION = "NOTIFICACION";
+    private final int FILE_EVENTS_LIMIT = 1000;
+    private final int CURSOR_PAGE_SIZE = 100;
     public final EventRepository eventRepository;
     public final Sinks.Many<Notification> notificationSink;
+    public final EventFileSink eventFileSink;
+    public final EventBodyCompressor eventBodyCompressor;
+    public final EventCounter eventCounter;
+    public final EventRollup eventRollup;
+    public final QueryResultCache queryResultCache;
+    public final NotificationBuffer notificationBuffer;
+    public final NotificationSubscriptions notificationSubscriptions;
+    public final EventSearch eventSearch;
 
     /**
      * In this example a query is generated by the schema:
@@ -73,65 +96,146 @@ public class EventController {
      * This query is for introspect the event body event for idUsuario & telefono
      * Many combinations can be done, or generalize the query for a key value
      *
+     * Only the selected fields are read from mongo (see EventProjection), as in eventsPageable.
      */
     @QueryMapping
     public List<Event> eventsDetail(@Argument("idUsuario") Integer idUsuario,
-                                    @Argument("telefono") String telefono) {
-        return eventRepository.findEventsDetail(idUsuario, telefono);
+                                    @Argument("telefono") String telefono,
+                                    DataFetchingFieldSelectionSet selectionSet) {
+        return eventRepository.findEventsDetail(idUsuario, telefono, EventProjection.fields(selectionSet));
     }
 
     @QueryMapping
-    public Page<Event> eventsPageable(@Argument("eventQuery") EventQuery eventQuery) {
-        Predicate query = new EventPredicatesBuilder()
+    public Page<Event> eventsPageable(@Argument("eventQuery") EventQuery eventQuery,
+                                      DataFetchingFieldSelectionSet selectionSet) {
+        Predicate query = new EventPredicatesBuilder(eventSearch)
                                     .with("eventName",":",eventQuery.getEventName())
                                     .with("username",":",eventQuery.getUsername())
                                     .with("eventDate",":",eventQuery.getEventDate())
                                     .build();
 
-        if (query == null)
-            return eventRepository.findAll(PageRequest.of(eventQuery.getPage(), eventQuery.getSize()));
-        else
-            return eventRepository.findAll(query, PageRequest.of(eventQuery.getPage(), eventQuery.getSize()));
+        var fields = EventProjection.fields(selectionSet);
+
+        return queryResultCache.get("eventsPageable", query,
+                                    eventQuery.getPage() + "|" + eventQuery.getSize() + "|" + fields,
+                                    () -> eventRepository.findAll(query,
+                                                                  PageRequest.of(eventQuery.getPage(), eventQuery.getSize()),
+                                                                  fields));
+    }
+
+    /**
+     * Cursor (keyset) pagination of the same query as eventsPageable, sorted by eventDate and id descending.
+     * The 'after' cursor is the one of the previous page (null for the first page); the page number is ignored.
+     */
+    @QueryMapping
+    public EventPage eventsCursor(@Argument("eventQuery") EventQuery eventQuery,
+                                  @Argument("after") String after) {
+        Predicate query = new EventPredicatesBuilder(eventSearch)
+                                    .with("eventName",":",eventQuery.getEventName())
+                                    .with("username",":",eventQuery.getUsername())
+                                    .with("eventDate",":",eventQuery.getEventDate())
+                                    .build();
+        int size = eventQuery.getSize() == null ? CURSOR_PAGE_SIZE : eventQuery.getSize();
+
+        if (after != null)
+            query = EventCursor.decode(after).after(query);
+
+        var events = eventRepository.findAll(query, EventCursor.SORT, size + 1);
+        // ^ one more event to know if there is a next page
+        var hasMore = events.size() > size;
+        var page = hasMore ? events.subList(0, size) : events;
+
+        return new EventPage(page, page.isEmpty() ? after : EventCursor.of(page.get(page.size() - 1)).encode(), hasMore);
     }
 
     @QueryMapping
     public Long eventsCount(@Argument("eventQuery") EventQuery eventQuery) {
-        Predicate query = new EventPredicatesBuilder()
+        Predicate query = new EventPredicatesBuilder(eventSearch)
+                                        .with("eventName",":",eventQuery.getEventName())
+                                        .with("username",":",eventQuery.getUsername())
+                                        .with("eventDate",":",eventQuery.getEventDate())
+                                        .build();
+
+        return queryResultCache.get("eventsCount", query, "",
+                                    () -> query == null ? eventRepository.count() : eventRepository.count(query));
+    }
+
+    /**
+     * Count of the same query as eventsCount with the mode chosen by the client (see EventCountMode), e.g., a
+     * CAPPED count shown as "10,000+" instead of an exact count that scans millions of events.
+     */
+    @QueryMapping
+    public EventCount eventsTotal(@Argument("eventQuery") EventQuery eventQuery,
+                                  @Argument("mode") EventCountMode mode,
+                                  @Argument("limit") Integer limit) {
+        Predicate query = new EventPredicatesBuilder(eventSearch)
                                         .with("eventName",":",eventQuery.getEventName())
                                         .with("username",":",eventQuery.getUsername())
                                         .with("eventDate",":",eventQuery.getEventDate())
                                         .build();
 
-        if (query == null) return eventRepository.count(); else return eventRepository.count(query);
+        return queryResultCache.get("eventsTotal", query, mode + "|" + limit,
+                                    () -> eventCounter.count(query, mode, limit == null ? null : limit.longValue()));
+    }
+
+    /**
+     * Time series of the number of events per minute, hour or day read from the rollups (see EventRollup), i.e.,
+     * without reading the events.
+     */
+    @QueryMapping
+    public List<RollupPoint> eventRollups(@Argument("granularity") RollupGranularity granularity,
+                                          @Argument("from") LocalDateTime from,
+                                          @Argument("to") LocalDateTime to,
+                                          @Argument("applicationName") String applicationName,
+                                          @Argument("eventName") String eventName,
+                                          @Argument("eventType") EventType eventType) {
+        return eventRollup.series(granularity, from, to, applicationName, eventName, eventType);
+    }
+
+    /**
+     * Queries for the events stored in the application log files (i.e., FILE_STORE events that never
+     * reach the mongo database). The segments are read using their sparse index.
+     */
+    @QueryMapping
+    public List<Event> fileEvents(@Argument("applicationName") String applicationName,
+                                  @Argument("from") LocalDateTime from,
+                                  @Argument("to") LocalDateTime to,
+                                  @Argument("limit") Integer limit) {
+        return eventFileSink.find(applicationName, from, to, limit == null ? FILE_EVENTS_LIMIT : limit);
+    }
+
+    @QueryMapping
+    public Event fileEvent(@Argument("applicationName") String applicationName,
+                           @Argument("id") String id) {
+        return eventFileSink.findById(applicationName, UUID.fromString(id));
     }
 
     /**
      * Notification controller methods
      *
+     * With a username the subscription only receives the notifications of that user and the ones to all the users;
+     * without it, all the notifications. With 'since' (the time of the last notification received) a subscription of
+     * a user first receives the notifications it missed while it was disconnected.
      */
     @SubscriptionMapping
-    Flux<Notification> notification() {
-        return notificationSink.asFlux();
+    Flux<Notification> notification(@Argument("username") String username,
+                                    @Argument("since") Instant since) {
+        if (username == null)
+            return notificationSink.asFlux();
+        if (since == null)
+            return notificationSubscriptions.subscribe(username);
+
+        return notificationSubscriptions.subscribe(username, since);
     }
 
+    /**
+     * The notifications are read from the NotificationBuffer, or from mongo while the buffers are not loaded
+     * (or are truncated), both sorted by time
+     */
     @QueryMapping
     public List<Notification> notifications(@Argument("username") String username) {
-        BooleanBuilder query = new BooleanBuilder(QEvent.event.eventName.eq(NOTIFICATION))
-                                .and(PredicateDate.getPredicateDate(QEvent.event.eventDate, "semana"));
-                                // ^ list notifications no more than one week old
-        BooleanBuilder queryUser = (new BooleanBuilder(QEvent.event.username.eq(username)))
-                                    .or(new BooleanBuilder(QEvent.event.username.eq("*")));
-
-        var res = eventRepository.findAll(query.and(queryUser));
-        var notifications = new ArrayList<Notification>();
-
-        res.forEach (event -> {
-            notifications.add(new Notification(event.getUsername(),
-                                    ((String) ((LinkedHashMap) event.getEventBody()).get("notificaFacultad")),
-                                    ((String) ((LinkedHashMap) event.getEventBody()).get("datos")),
-                                    event.getEventDate().atZone(ZoneId.systemDefault()).toInstant()));
-        });
-
-        return notifications;
+        var buffered = notificationBuffer.notifications(username);
+
+        return buffered != null ? buffered : notificationBuffer.notificationsFromMongo(username);
     }
 }
@@ -22,18 +22,28 @@
  */
 package com.ailegorreta.auditservice.gql;
 
+import com.ailegorreta.auditservice.gql.scalars.LongScalar;
 import com.ailegorreta.auditservice.gql.scalars.MapScalar;
+import com.ailegorreta.auditservice.domain.Event;
+import com.ailegorreta.auditservice.domain.EventDateRange;
 import com.ailegorreta.auditservice.domain.EventRepository;
+import com.ailegorreta.auditservice.service.cache.QueryResultCache;
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor;
 import com.ailegorreta.data.mongo.gql.directives.UpperCaseDirectiveWiring;
 import com.ailegorreta.data.mongo.gql.scalars.InstantScalar;
 import com.ailegorreta.data.mongo.gql.scalars.LocalDateTimeScalar;
 import com.ailegorreta.data.mongo.gql.scalars.UUIDScalar;
+import graphql.schema.DataFetcher;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.TypeRuntimeWiring;
 import org.springframework.graphql.data.query.QuerydslDataFetcher;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.TreeMap;
+
 /**
  * This class makes the configurations the schema.graphqls queries, mutations, etc in order mapp the schema with the
  * QueryDSL repositories.
@@ -48,9 +58,14 @@ import org.springframework.stereotype.Component;
 public class EventsRuntimeWiring implements RuntimeWiringConfigurer {
 
     final EventRepository eventRepository;
+    final EventBodyCompressor eventBodyCompressor;
+    final QueryResultCache queryResultCache;
 
-    public EventsRuntimeWiring(EventRepository eventRepository) {
+    public EventsRuntimeWiring(EventRepository eventRepository, EventBodyCompressor eventBodyCompressor,
+                               QueryResultCache queryResultCache) {
         this.eventRepository = eventRepository;
+        this.eventBodyCompressor = eventBodyCompressor;
+        this.queryResultCache = queryResultCache;
     }
 
     @Override
@@ -59,12 +74,16 @@ public class EventsRuntimeWiring implements RuntimeWiringConfigurer {
                 /* We do not insert this code: */
                 .type(TypeRuntimeWiring.newTypeWiring("Query")
                                 .dataFetcher("events",
-                                              QuerydslDataFetcher.builder(eventRepository)
-                                              .many())
+                                             cached(QuerydslDataFetcher.builder(eventRepository).many()))
                                 .dataFetcher("event",
                                              QuerydslDataFetcher.builder(eventRepository)
                                              .single())
                 )
+                /* The eventBody is decompressed only if the query selects it */
+                .type(TypeRuntimeWiring.newTypeWiring("Event")
+                                .dataFetcher("eventBody",
+                                             env -> eventBodyCompressor.decompress(((Event) env.getSource()).getEventBody()))
+                )
                 /*
                 Because instead we see Spring GraphQL auto.registration for QueryDSL
                 */
@@ -72,8 +91,31 @@ public class EventsRuntimeWiring implements RuntimeWiringConfigurer {
                 .scalar(LocalDateTimeScalar.graphQLScalarType())
                 .scalar(InstantScalar.graphQLScalarType())
                 .scalar(MapScalar.graphQLScalarType())
+                .scalar(LongScalar.graphQLScalarType())
                 .directive("uppercase", new UpperCaseDirectiveWiring())
                 .build();
     }
 
+    /**
+     * The results of the 'events' query are cached (see QueryResultCache) by their arguments and selected fields,
+     * with the eventDate range of the 'eventDate' argument: one date or [from, to].
+     */
+    private DataFetcher<?> cached(DataFetcher<?> dataFetcher) {
+        return env -> {
+            var key = "events|" + new TreeMap<>(env.getArguments()) + "|" + EventProjection.fields(env.getSelectionSet());
+            var dates = env.<List<LocalDateTime>>getArgument("eventDate");
+            var range = dates == null || dates.isEmpty() ? EventDateRange.UNBOUNDED
+                      : dates.size() == 1 ? new EventDateRange(dates.get(0), dates.get(0))
+                      : new EventDateRange(dates.get(0), dates.get(1));
+            // ^ the same dates as the eventDate binding of the EventRepository
+
+            return queryResultCache.get(key, range, () -> {
+                try {
+                    return dataFetcher.get(env);
+                } catch (Exception e) {
+                    throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+                }
+            });
+        };
+    }
 }
@@ -23,6 +23,7 @@
 package com.ailegorreta.auditservice.gql.querydsl;
 
 import com.ailegorreta.data.mongo.querydsl.PredicateDate;
+import com.ailegorreta.auditservice.domain.EventSearch;
 import com.ailegorreta.auditservice.domain.QEvent;
 import com.querydsl.core.types.Predicate;
 
@@ -37,18 +38,20 @@ import com.querydsl.core.types.Predicate;
  */
 public class EventPredicate {
     private SearchCriteria criteria;
+    private EventSearch eventSearch;
 
-    public EventPredicate(SearchCriteria criteria) {
+    public EventPredicate(SearchCriteria criteria, EventSearch eventSearch) {
         this.criteria = criteria;
+        this.eventSearch = eventSearch;
     }
 
     public Predicate getPredicate() {
         QEvent entityPath = QEvent.event;
 
         if (criteria.getKey().equals("eventName"))
-            return entityPath.eventName.contains(criteria.getValue().toString());
+            return eventSearch.contains(entityPath.eventName, criteria.getValue().toString());
         else if (criteria.getKey().equals("username"))
-            return entityPath.username.contains(criteria.getValue().toString());
+            return eventSearch.contains(entityPath.username, criteria.getValue().toString());
         else if (criteria.getKey().equals("eventDate"))
             return PredicateDate.getPredicateDate(entityPath.eventDate, criteria.getValue().toString());
 
@@ -22,6 +22,7 @@
  */
 package com.ailegorreta.auditservice.gql.querydsl;
 
+import com.ailegorreta.auditservice.domain.EventSearch;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.Predicate;
 import java.util.*;
@@ -35,9 +36,11 @@ import java.util.*;
  */
 public class EventPredicatesBuilder {
     private List<SearchCriteria> params;
+    private EventSearch eventSearch;
 
-    public EventPredicatesBuilder() {
+    public EventPredicatesBuilder(EventSearch eventSearch) {
         params = new ArrayList<>();
+        this.eventSearch = eventSearch;
     }
 
     public EventPredicatesBuilder with(String key, String operation, Object value) {
@@ -53,7 +56,7 @@ public class EventPredicatesBuilder {
             return null;
 
         List<Predicate> predicates = params.stream().map(param -> {
-                                                                    EventPredicate predicate = new EventPredicate(param);
+                                                                    EventPredicate predicate = new EventPredicate(param, eventSearch);
                                                                     return predicate.getPredicate();
                                                                 })
                                                     .filter(Objects::nonNull)
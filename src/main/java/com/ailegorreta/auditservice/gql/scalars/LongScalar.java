@@ -0,0 +1,95 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  LongScalar.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.gql.scalars;
+
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.language.IntValue;
+import graphql.language.StringValue;
+import graphql.language.Value;
+import graphql.schema.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * This GraphQL scalar type is a 64-bit integer, e.g., the counts of events that do not fit in the 32-bit 'Int'
+ * (see EventCount). It is serialized as a JSON number.
+ *
+ * @author rlh
+ * @project audit-service
+ * @date October 2026
+ */
+public class LongScalar implements Coercing<Long, Long> {
+
+    public static GraphQLScalarType graphQLScalarType() {
+        return GraphQLScalarType.newScalar()
+                .name("Long")
+                .description("64-bit integer")
+                .coercing(new LongScalar())
+                .build();
+    }
+
+    @Override
+    public Long serialize(@NotNull Object dataFetcherResult,
+                          @NotNull GraphQLContext graphQLContext,
+                          @NotNull Locale locale) throws CoercingSerializeException {
+        if (dataFetcherResult instanceof Long || dataFetcherResult instanceof Integer)
+            return ((Number) dataFetcherResult).longValue();
+
+        throw new CoercingSerializeException("Not a valid Long type:" + dataFetcherResult.getClass().getCanonicalName());
+    }
+
+    @Override
+    public Long parseValue(@NotNull Object input,
+                           @NotNull GraphQLContext graphQLContext,
+                           @NotNull Locale locale) throws CoercingParseValueException {
+        try {
+            if (input instanceof Long || input instanceof Integer)
+                return ((Number) input).longValue();
+            if (input instanceof String value)
+                return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new CoercingParseValueException("Value is not a valid Long: " + input, e);
+        }
+
+        throw new CoercingParseValueException("Value is not a valid Long: " + input);
+    }
+
+    @Override
+    public Long parseLiteral(@NotNull Value<?> input,
+                             @NotNull CoercedVariables variables,
+                             @NotNull GraphQLContext graphQLContext,
+                             @NotNull Locale locale) throws CoercingParseLiteralException {
+        try {
+            if (input instanceof IntValue value)
+                return value.getValue().longValueExact();
+            if (input instanceof StringValue value)
+                return Long.parseLong(value.getValue());
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new CoercingParseLiteralException("Value is not a valid Long: " + input, e);
+        }
+
+        throw new CoercingParseLiteralException("Value is not a valid Long: " + input);
+    }
+}
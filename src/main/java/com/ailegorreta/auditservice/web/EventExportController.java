@@ -0,0 +1,90 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventExportController.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.web;
+
+import com.ailegorreta.auditservice.domain.EventSearch;
+import com.ailegorreta.auditservice.gql.querydsl.EventPredicatesBuilder;
+import com.ailegorreta.auditservice.service.export.EventExporter;
+import com.querydsl.core.types.Predicate;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * REST endpoint to export the events as NDJSON for the audit extractions that are too big for the GraphQL
+ * queries, e.g., all the events of a user in a quarter:
+ *
+ *   GET /audit/events/export?username=admin&eventDate=...&gzip=true
+ *
+ * The filters are the ones of the GraphQL EventQuery. The response is written while the events are read from
+ * the mongo cursor (see EventExporter), so the request thread blocks while the client does not read.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@RestController
+@RequestMapping("audit/events")
+@RequiredArgsConstructor
+public class EventExportController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    public final EventExporter eventExporter;
+    public final EventSearch eventSearch;
+
+    @GetMapping("export")
+    public void export(@RequestParam(value = "eventName", required = false) String eventName,
+                       @RequestParam(value = "username", required = false) String username,
+                       @RequestParam(value = "eventDate", required = false) String eventDate,
+                       @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                       HttpServletResponse response) throws IOException {
+        Predicate query = new EventPredicatesBuilder(eventSearch)
+                                    .with("eventName",":",eventName)
+                                    .with("username",":",username)
+                                    .with("eventDate",":",eventDate)
+                                    .build();
+
+        if (!eventExporter.tryAcquire()) {
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many exports running, retry later");
+            return;
+        }
+        try {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"events.ndjson\"");
+            if (gzip)
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            eventExporter.export(query, response.getOutputStream(), gzip);
+        } finally {
+            eventExporter.release();
+        }
+    }
+}
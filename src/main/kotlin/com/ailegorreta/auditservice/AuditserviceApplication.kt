@@ -34,6 +34,7 @@ import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.ComponentScan
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder
+import org.springframework.scheduling.annotation.EnableScheduling
 
 /**
  * Audit service repository.
@@ -47,6 +48,7 @@ import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder
  * @date September 2023
  */
 @SpringBootApplication
+@EnableScheduling
 @ComponentScan(basePackages = ["com.ailegorreta.auditservice", "com.ailegorreta.resourceserver"])
 							// ^ this package must be included in order to instantiate de UserContext
 class AuditserviceApplication {
@@ -24,9 +24,17 @@ package com.ailegorreta.auditservice.config
 
 import com.ailegorreta.auditservice.gql.types.Notification
 import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.auditservice.service.event.EventOrigin
 import com.ailegorreta.auditservice.service.event.EventService
+import com.ailegorreta.auditservice.service.event.ParallelEventProcessor
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import org.springframework.kafka.listener.AbstractMessageListenerContainer
+import org.springframework.kafka.listener.ContainerProperties
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.Message
 import org.springframework.stereotype.Component
 import reactor.core.publisher.Sinks
 import reactor.util.concurrent.Queues
@@ -77,8 +85,61 @@ class EventConfig {
                 use-native-decoding: true     # Enables using the custom deserializer
      */
     @Bean
-    fun consumerAuditService(eventService: EventService) = Consumer {
-            event: EventDTO -> eventService.processEvent(event)
+    fun consumerAuditService(eventService: EventService): Consumer<Message<EventDTO>> = Consumer {
+            message: Message<EventDTO> -> eventService.processEvent(message.payload, EventOrigin.of(message.headers))
+        }
+
+    /**
+     * Batch version of the consumerAuditService. Kafka delivers a whole poll of events and they are stored in
+     * the mongoDB with one bulk insert instead of one round trip per event.
+     *
+     * The offsets of the batch are committed by the listener container only after this consumer returns, i.e.,
+     * after the bulk insert has been acknowledged. If the insert fails the whole batch is delivered again.
+     *
+     * To activate it set the 'audit-service.ingest.consumer' property to 'consumerAuditServiceBatch'. The batch size
+     * and the linger time are configured with 'audit-service.ingest.batch.size' and
+     * 'audit-service.ingest.batch.linger-ms' (see application.yml):
+     *
+    bindings:
+        consumerAuditServiceBatch-in-0:
+            destination: audit
+            group: group-ailegorreta
+            consumer:
+                batch-mode: true
+     */
+    @Bean
+    fun consumerAuditServiceBatch(eventService: EventService): Consumer<Message<List<EventDTO>>> = Consumer {
+            message: Message<List<EventDTO>> ->
+                eventService.processEvents(message.payload, EventOrigin.ofBatch(message.headers, message.payload.size))
+        }
+
+    /**
+     * Parallel version of the consumerAuditService. The events are processed by the ParallelEventProcessor lanes
+     * keeping the order per key (see 'audit-service.ingest.parallel.key').
+     *
+     * The binding uses manual acknowledgment (i.e., ackMode: MANUAL) and every event is acknowledged by its lane
+     * when it has been processed. To activate it set the 'audit-service.ingest.consumer' property to
+     * 'consumerAuditServiceParallel'.
+     */
+    @Bean
+    fun consumerAuditServiceParallel(parallelEventProcessor: ParallelEventProcessor): Consumer<Message<EventDTO>> =
+        Consumer { message: Message<EventDTO> ->
+            parallelEventProcessor.submit(message.payload,
+                                          message.headers[KafkaHeaders.RECEIVED_KEY],
+                                          EventOrigin.of(message.headers),
+                                          message.headers.get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment::class.java))
+        }
+
+    /**
+     * The lanes of the parallel consumer acknowledge the events out of order. With async acks the container
+     * defers the commit of an offset until all previous offsets of the partition have been acknowledged, i.e.,
+     * the committed offset is always the lowest contiguous completed one.
+     */
+    @Bean
+    fun auditContainerCustomizer(): ListenerContainerCustomizer<AbstractMessageListenerContainer<*, *>> =
+        ListenerContainerCustomizer { container, _, _ ->
+            if (container.containerProperties.ackMode == ContainerProperties.AckMode.MANUAL)
+                container.containerProperties.isAsyncAcks = true
         }
 
     /**
@@ -131,7 +192,25 @@ class EventConfig {
                 use-native-decoding: true     # Enables using the custom deserializer
      */
     @Bean
-    fun consumerNot(eventService: EventService): Consumer<EventDTO> = Consumer {
-            event: EventDTO -> eventService.processNotification(event)
+    fun consumerNot(eventService: EventService): Consumer<Message<EventDTO>> = Consumer {
+            message: Message<EventDTO> -> eventService.processNotification(message.payload, EventOrigin.of(message.headers))
+    }
+
+    /**
+     * The consumerNot binding uses the shared group, so every notification is stored by one instance only. This
+     * binding has no group: Spring cloud stream creates an anonymous group for each instance (starting at the latest
+     * offset), so every instance receives all the notifications and sends them to its GraphQL subscribers.
+     *
+     * It is started only if 'audit-service.notifications.broadcast' is true:
+     *
+    bindings:
+        consumerNotBroadcast-in-0:
+            destination: notify
+            consumer:
+                auto-startup: ${audit-service.notifications.broadcast}
+     */
+    @Bean
+    fun consumerNotBroadcast(eventService: EventService): Consumer<Message<EventDTO>> = Consumer {
+            message: Message<EventDTO> -> eventService.relayNotification(message.payload, EventOrigin.of(message.headers))
     }
 }
@@ -0,0 +1,91 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  MongoConfig.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.config
+
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventConverters
+import com.ailegorreta.auditservice.domain.EventStorageMode
+import com.ailegorreta.auditservice.domain.TimeSeriesFieldNamingStrategy
+import com.ailegorreta.auditservice.service.storage.UnindexedQueryReporter
+import org.springframework.beans.factory.config.BeanPostProcessor
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.core.env.Environment
+import org.springframework.data.mongodb.MongoDatabaseFactory
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext
+
+/**
+ * Mongo configuration for the Event documents.
+ *
+ * The Event is mapped with hand-written converters (repository) and codec (bulk insert and file sink) instead
+ * of the reflective MappingMongoConverter.
+ *
+ * In the TIME_SERIES storage mode (see EventStorageMode) the converters and the codec write applicationName and
+ * eventType inside the 'meta' field and the mapping context maps the queries to it.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Configuration
+class MongoConfig(private val serviceConfig: ServiceConfig) {
+
+    @Bean
+    fun mongoCustomConversions() = MongoCustomConversions(EventConverters.converters(serviceConfig.storageMode.isTimeSeries))
+
+    /**
+     * The codec uses the registry of the mongo client, so the UUIDs are written with the same uuid
+     * representation as the repository.
+     */
+    @Bean
+    fun eventCodec(mongoDatabaseFactory: MongoDatabaseFactory) = EventCodec(mongoDatabaseFactory.mongoDatabase.codecRegistry,
+                                                                           serviceConfig.storageMode.isTimeSeries)
+
+    /**
+     * Reports the queries on the event collections that cannot use an index
+     */
+    @Bean
+    fun unindexedQueryCustomizer(unindexedQueryReporter: UnindexedQueryReporter) =
+        MongoClientSettingsBuilderCustomizer { builder -> builder.addCommandListener(unindexedQueryReporter) }
+
+    companion object {
+        /**
+         * The field naming strategy must be set before the mapping context reads the Event entity, so it is
+         * set in a (static) post processor of the MongoMappingContext created by Spring Boot.
+         */
+        @Bean
+        @JvmStatic
+        fun timeSeriesMappingContextPostProcessor(environment: Environment) = object : BeanPostProcessor {
+            override fun postProcessBeforeInitialization(bean: Any, beanName: String): Any {
+                if (bean is MongoMappingContext &&
+                    environment.getProperty("audit-service.storage.mode", EventStorageMode::class.java,
+                                            EventStorageMode.COLLECTION).isTimeSeries)
+                    bean.setFieldNamingStrategy(TimeSeriesFieldNamingStrategy())
+
+                return bean
+            }
+        }
+    }
+}
@@ -22,8 +22,14 @@
  */
 package com.ailegorreta.auditservice.config
 
+import com.ailegorreta.auditservice.domain.EventPartitioning
+import com.ailegorreta.auditservice.domain.EventStorageMode
+import com.ailegorreta.auditservice.service.event.IdempotencyFilter
+import com.ailegorreta.auditservice.service.event.ParallelEventProcessor
+import com.ailegorreta.auditservice.service.file.FsyncPolicy
 import org.springframework.beans.factory.annotation.Value
 import org.springframework.context.annotation.Configuration
+import org.springframework.data.mongodb.core.timeseries.Granularity
 import org.springframework.stereotype.Component
 
 /**
@@ -45,4 +51,196 @@ class ServiceConfig {
 
     @Value("/logs")
     val filePath: String = ""
+
+    @Value("\${audit-service.ingest.batch.size:500}")
+    val batchSize: Int = 500
+
+    @Value("\${audit-service.ingest.parallel.workers:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    val parallelWorkers: Int = 1
+
+    @Value("\${audit-service.ingest.parallel.key:APPLICATION_NAME}")
+    val parallelKey: ParallelEventProcessor.Key = ParallelEventProcessor.Key.APPLICATION_NAME
+
+    @Value("\${audit-service.ingest.parallel.queue-capacity:1000}")
+    val parallelQueueCapacity: Int = 1000
+
+    @Value("\${audit-service.ingest.parallel.max-attempts:10}")
+    val parallelMaxAttempts: Int = 10
+
+    @Value("\${audit-service.ingest.parallel.dead-letter:true}")
+    val parallelDeadLetter: Boolean = true
+
+    @Value("\${audit-service.ingest.idempotency.enabled:true}")
+    val idempotencyEnabled: Boolean = true
+
+    @Value("\${audit-service.ingest.idempotency.key:RECORD}")
+    val idempotencyKey: IdempotencyFilter.Key = IdempotencyFilter.Key.RECORD
+
+    @Value("\${audit-service.ingest.idempotency.window:100000}")
+    val idempotencyWindow: Int = 100000
+
+    @Value("\${audit-service.ingest.id-strategy:TIME_ORDERED}")
+    val idStrategy: IdempotencyFilter.IdStrategy = IdempotencyFilter.IdStrategy.TIME_ORDERED
+
+    @Value("\${audit-service.ingest.uuid-migration.enabled:true}")
+    val uuidMigration: Boolean = true
+
+    @Value("\${audit-service.ingest.uuid-migration.batch-size:1000}")
+    val uuidMigrationBatchSize: Int = 1000
+
+    @Value("\${audit-service.storage.mode:COLLECTION}")
+    val storageMode: EventStorageMode = EventStorageMode.COLLECTION
+
+    @Value("\${audit-service.storage.granularity:SECONDS}")
+    val storageGranularity: Granularity = Granularity.SECONDS
+
+    @Value("\${audit-service.storage.partitioning:NONE}")
+    val storagePartitioning: EventPartitioning = EventPartitioning.NONE
+
+    @Value("\${audit-service.indexes.auto-create:true}")
+    val indexesAutoCreate: Boolean = true
+
+    @Value("\${audit-service.indexes.report-unindexed:true}")
+    val indexesReportUnindexed: Boolean = true
+
+    @Value("\${audit-service.search.trigram-index:true}")
+    val searchTrigramIndex: Boolean = true
+
+    @Value("\${audit-service.search.max-terms:1000}")
+    val searchMaxTerms: Int = 1000
+
+    @Value("\${audit-service.search.watermark-lag-ms:10000}")
+    val searchWatermarkLagMs: Long = 10000
+
+    @Value("\${audit-service.count.limit:10000}")
+    val countLimit: Long = 10000
+
+    @Value("\${audit-service.count.sample-size:1000}")
+    val countSampleSize: Int = 1000
+
+    @Value("\${audit-service.count.min-sample-matches:20}")
+    val countMinSampleMatches: Int = 20
+
+    @Value("\${audit-service.retention.enabled:false}")
+    val retentionEnabled: Boolean = false
+
+    @Value("\${audit-service.retention.policies:}")
+    val retentionPolicies: List<String> = emptyList()
+
+    @Value("\${audit-service.retention.batch-size:1000}")
+    val retentionBatchSize: Int = 1000
+
+    @Value("\${audit-service.retention.target-latency-ms:50}")
+    val retentionTargetLatencyMs: Long = 50
+
+    @Value("\${audit-service.retention.min-pause-ms:10}")
+    val retentionMinPauseMs: Long = 10
+
+    @Value("\${audit-service.retention.max-pause-ms:5000}")
+    val retentionMaxPauseMs: Long = 5000
+
+    @Value("\${audit-service.rollup.enabled:true}")
+    val rollupEnabled: Boolean = true
+
+    @Value("\${audit-service.rollup.minute-retention-days:7}")
+    val rollupMinuteRetentionDays: Long = 7
+
+    @Value("\${audit-service.export.batch-size:1000}")
+    val exportBatchSize: Int = 1000
+
+    @Value("\${audit-service.export.max-concurrent:4}")
+    val exportMaxConcurrent: Int = 4
+
+    @Value("\${audit-service.cache.enabled:true}")
+    val cacheEnabled: Boolean = true
+
+    @Value("\${audit-service.cache.max-bytes:67108864}")
+    val cacheMaxBytes: Long = 67108864
+
+    @Value("\${audit-service.cache.lateness-ms:60000}")
+    val cacheLatenessMs: Long = 60000
+
+    @Value("\${audit-service.cache.open-ttl-ms:5000}")
+    val cacheOpenTtlMs: Long = 5000
+
+    @Value("\${audit-service.cache.closed-ttl-ms:600000}")
+    val cacheClosedTtlMs: Long = 600000
+
+    @Value("\${audit-service.notifications.buffer:true}")
+    val notificationsBuffer: Boolean = true
+
+    @Value("\${audit-service.notifications.window-days:7}")
+    val notificationsWindowDays: Long = 7
+
+    @Value("\${audit-service.notifications.user-capacity:100}")
+    val notificationsUserCapacity: Int = 100
+
+    @Value("\${audit-service.notifications.broadcast-capacity:1000}")
+    val notificationsBroadcastCapacity: Int = 1000
+
+    @Value("\${audit-service.notifications.broadcast:true}")
+    val notificationsBroadcast: Boolean = true
+
+    @Value("\${audit-service.notifications.subscriber-buffer:256}")
+    val notificationsSubscriberBuffer: Int = 256
+
+    @Value("\${audit-service.spool.enabled:true}")
+    val spoolEnabled: Boolean = true
+
+    @Value("\${audit-service.spool.path:/logs/spool}")
+    val spoolPath: String = "/logs/spool"
+
+    @Value("\${audit-service.spool.latency-budget-ms:500}")
+    val spoolLatencyBudgetMs: Long = 500
+
+    @Value("\${audit-service.spool.segment-bytes:16777216}")
+    val spoolSegmentBytes: Int = 16777216
+
+    @Value("\${audit-service.spool.writer-threads:16}")
+    val spoolWriterThreads: Int = 16
+
+    @Value("\${audit-service.spool.fsync:true}")
+    val spoolFsync: Boolean = true
+
+    @Value("\${audit-service.body.compression.enabled:true}")
+    val bodyCompressionEnabled: Boolean = true
+
+    @Value("\${audit-service.body.compression.threshold-bytes:8192}")
+    val bodyCompressionThresholdBytes: Int = 8192
+
+    @Value("\${audit-service.body.compression.level:6}")
+    val bodyCompressionLevel: Int = 6
+
+    @Value("\${audit-service.body.compression.dictionary-samples:32}")
+    val bodyCompressionDictionarySamples: Int = 32
+
+    @Value("\${audit-service.body.compression.dictionary-bytes:32768}")
+    val bodyCompressionDictionaryBytes: Int = 32768
+
+    @Value("\${audit-service.file.fsync:INTERVAL}")
+    val fileFsync: FsyncPolicy = FsyncPolicy.INTERVAL
+
+    @Value("\${audit-service.file.fsync-events:1000}")
+    val fileFsyncEvents: Int = 1000
+
+    @Value("\${audit-service.file.fsync-interval-ms:1000}")
+    val fileFsyncIntervalMs: Long = 1000
+
+    @Value("\${audit-service.file.sync-before-ack:true}")
+    val fileSyncBeforeAck: Boolean = true
+
+    @Value("\${audit-service.file.sync-timeout-ms:30000}")
+    val fileSyncTimeoutMs: Long = 30000
+
+    @Value("\${audit-service.file.queue-capacity:10000}")
+    val fileQueueCapacity: Int = 10000
+
+    @Value("\${audit-service.file.segment-bytes:67108864}")
+    val fileSegmentBytes: Long = 67108864
+
+    @Value("\${audit-service.file.segment-ms:86400000}")
+    val fileSegmentMs: Long = 86400000
+
+    @Value("\${audit-service.file.index-interval-bytes:4096}")
+    val fileIndexIntervalBytes: Int = 4096
 }
@@ -0,0 +1,63 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  StorageConfig.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.config
+
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventIndexes
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.auditservice.domain.EventSearch
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import org.springframework.data.mongodb.core.MongoTemplate
+
+/**
+ * Beans of the event storage shared by the EventRepository and the background services (retention, search
+ * indexer, collection initializer), so all of them see the same partitions, e.g., a partition dropped by the
+ * retention is not listed by the repository anymore and a late insert creates it again with its options and indexes,
+ * and the same search indexes.
+ *
+ * note: the test slices (e.g., @DataMongoTest) must import this configuration and ServiceConfig.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Configuration
+class StorageConfig(private val serviceConfig: ServiceConfig) {
+
+    @Bean
+    fun eventPartitions(mongoTemplate: MongoTemplate) =
+        EventPartitions(mongoTemplate, mongoTemplate.getCollectionName(Event::class.java),
+                        serviceConfig.storagePartitioning,
+                        serviceConfig.storageMode.collectionOptions(serviceConfig.storageGranularity)) { collectionName ->
+            if (serviceConfig.indexesAutoCreate)
+                EventIndexes.ensureIndexes(mongoTemplate, collectionName, serviceConfig.storageMode.isTimeSeries)
+        }
+
+    /**
+     * The trigram indexes of the 'contains' filters, updated by the inserts of the repository and loaded by
+     * the EventSearchIndexer
+     */
+    @Bean
+    fun eventSearch() = EventSearch(serviceConfig.searchMaxTerms)
+}
@@ -0,0 +1,57 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCount.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.gql.types
+
+import com.ailegorreta.auditservice.domain.EventCountMode
+import java.math.BigDecimal
+import java.math.MathContext
+import java.util.Locale
+
+/**
+ * Count of the events with the mode used to get it: 'exact' is false for the capped counts that reached the limit
+ * and for the estimates; 'display' is the text for the UI, i.e., "42", "10,000+" or "~12,300".
+ *
+ * @project audit-service
+ * @autho rlh
+ * @date October 2026
+ */
+data class EventCount constructor(val count: Long,
+                                  val exact: Boolean,
+                                  val mode: EventCountMode,
+                                  val display: String) {
+    companion object {
+        fun exact(count: Long, mode: EventCountMode) = EventCount(count, true, mode, format(count))
+
+        fun capped(limit: Long) = EventCount(limit, false, EventCountMode.CAPPED, format(limit) + "+")
+
+        fun estimate(count: Long): EventCount {
+            val rounded = if (count < 100) count
+                          else BigDecimal(count).round(MathContext(3)).toLong()
+                          // ^ three significant digits: the sample does not give more
+
+            return EventCount(rounded, false, EventCountMode.ESTIMATE, "~" + format(rounded))
+        }
+
+        private fun format(count: Long) = String.format(Locale.US, "%,d", count)
+    }
+}
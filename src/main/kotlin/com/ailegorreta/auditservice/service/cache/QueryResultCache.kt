@@ -0,0 +1,235 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  QueryResultCache.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.cache
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.CompressedBody
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventDateRange
+import com.ailegorreta.auditservice.domain.EventsDeleted
+import com.ailegorreta.auditservice.domain.EventsStored
+import com.ailegorreta.commons.utils.HasLogger
+import com.querydsl.core.BooleanBuilder
+import com.querydsl.core.types.Operation
+import com.querydsl.core.types.Ops
+import com.querydsl.core.types.Predicate
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.context.event.EventListener
+import org.springframework.data.domain.Page
+import org.springframework.stereotype.Component
+import java.time.Clock
+import java.time.LocalDateTime
+import java.util.*
+import java.util.function.Supplier
+
+/**
+ * Cache of the results of the GraphQL event queries (e.g., eventsPageable and eventsCount that every open audit
+ * screen repeats), keyed by the query name, the normalised predicate (the 'and' operands sorted) and the page.
+ *
+ * The cache is bounded by the estimated size of the results ('audit-service.cache.max-bytes'), evicting the least
+ * recently used ones; a result bigger than a tenth of the cache is not cached.
+ *
+ * The results are invalidated with the eventDate range of their predicate (see EventDateRange):
+ *  - The events stored by this instance (see EventsStored) drop only the results whose range includes their
+ *    eventDates, so the queries of past days are not invalidated by the continuous ingestion. The same for the
+ *    events deleted by the retention of this instance (see EventsDeleted).
+ *  - The events stored by the other instances are not notified, so the results whose range ends after the ingest
+ *    watermark (now - 'lateness-ms', i.e., the eventDates that may still arrive) expire after 'open-ttl-ms'.
+ *    The results of ranges closed before the watermark expire after 'closed-ttl-ms' (e.g., for the late events
+ *    and the retention run by another instance).
+ *
+ * Metrics: 'audit.cache.hits', 'audit.cache.misses', 'audit.cache.evictions', 'audit.cache.invalidations' and
+ * 'audit.cache.bytes'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Component
+class QueryResultCache(private val serviceConfig: ServiceConfig,
+                       meterRegistry: MeterRegistry): HasLogger {
+
+    private class Entry(val value: Any?, val range: EventDateRange, val bytes: Long, val expiresAt: Long)
+
+    private class Invalidation(val version: Long, val range: EventDateRange)
+
+    private val entries = LinkedHashMap<String, Entry>(256, 0.75f, true)
+    // ^ access order, i.e., LRU
+    private val invalidations = ArrayDeque<Invalidation>()
+    private var version = 0L
+    private var bytes = 0L
+    internal var clock: Clock = Clock.systemDefaultZone()
+
+    private val hits = Counter.builder("audit.cache.hits").register(meterRegistry)
+    private val misses = Counter.builder("audit.cache.misses").register(meterRegistry)
+    private val evictions = Counter.builder("audit.cache.evictions").register(meterRegistry)
+    private val invalidated = Counter.builder("audit.cache.invalidations").register(meterRegistry)
+
+    init {
+        Gauge.builder("audit.cache.bytes") { synchronized(this) { bytes } }.register(meterRegistry)
+    }
+
+    /**
+     * The cached result of the query or the one of the loader, that is cached
+     *
+     * @param page the rest of the key, e.g., the page and the selected fields
+     */
+    fun <T> get(query: String, predicate: Predicate?, page: String, loader: Supplier<T>): T =
+        get(key(query, predicate, page), EventDateRange.of(predicate), loader)
+
+    @Suppress("UNCHECKED_CAST")
+    fun <T> get(key: String, range: EventDateRange, loader: Supplier<T>): T {
+        if (!serviceConfig.cacheEnabled) return loader.get()
+
+        val startVersion = synchronized(this) {
+            val entry = entries[key]
+
+            if (entry != null && entry.expiresAt > clock.millis()) {
+                hits.increment()
+                return entry.value as T
+            }
+            entry?.let { remove(key) }
+            version
+        }
+        misses.increment()
+
+        val value = loader.get()
+        val size = weigh(value)
+
+        if (size <= serviceConfig.cacheMaxBytes / 10)
+            put(key, range, value, size, startVersion)
+
+        return value
+    }
+
+    @EventListener
+    fun onStored(stored: EventsStored) = invalidate(stored.range)
+
+    @EventListener
+    fun onDeleted(deleted: EventsDeleted) = invalidate(deleted.range)
+
+    private fun invalidate(range: EventDateRange) {
+        synchronized(this) {
+            version++
+            invalidations.addLast(Invalidation(version, range))
+            while (invalidations.size > MAX_INVALIDATIONS) invalidations.removeFirst()
+
+            val iterator = entries.entries.iterator()
+
+            while (iterator.hasNext()) {
+                val entry = iterator.next().value
+
+                if (entry.range.overlaps(range)) {
+                    bytes -= entry.bytes
+                    iterator.remove()
+                    invalidated.increment()
+                }
+            }
+        }
+    }
+
+    fun size() = synchronized(this) { entries.size }
+
+    fun bytes() = synchronized(this) { bytes }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+        bytes = 0L
+    }
+
+    @Synchronized
+    private fun put(key: String, range: EventDateRange, value: Any?, size: Long, startVersion: Long) {
+        if (invalidations.isNotEmpty() && invalidations.first.version > startVersion + 1)
+            return      // too many invalidations during the load to know if they include the range
+        if (invalidations.any { it.version > startVersion && it.range.overlaps(range) })
+            return      // events of the range were stored during the load: the value may be stale
+
+        val now = clock.millis()
+        val watermark = LocalDateTime.now(clock).minusNanos(serviceConfig.cacheLatenessMs * 1_000_000)
+        val closed = range.to() != null && range.to().isBefore(watermark)
+        val ttl = if (closed) serviceConfig.cacheClosedTtlMs else serviceConfig.cacheOpenTtlMs
+
+        entries.put(key, Entry(value, range, size, now + ttl))?.let { bytes -= it.bytes }
+        bytes += size
+
+        val iterator = entries.entries.iterator()
+
+        while (bytes > serviceConfig.cacheMaxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().value.bytes
+            iterator.remove()
+            evictions.increment()
+        }
+    }
+
+    @Synchronized
+    private fun remove(key: String) {
+        entries.remove(key)?.let { bytes -= it.bytes }
+    }
+
+    companion object {
+        private const val MAX_INVALIDATIONS = 1024
+
+        fun key(query: String, predicate: Predicate?, page: String) = query + "|" + normalize(predicate) + "|" + page
+
+        /**
+         * The predicate as a string with the operands of its (nested) 'and' sorted, so the same filters in any
+         * order have the same key
+         */
+        fun normalize(predicate: Predicate?): String {
+            val operands = ArrayList<String>()
+
+            fun collect(predicate: Predicate?) {
+                when {
+                    predicate == null -> {}
+                    predicate is BooleanBuilder -> collect(predicate.value)
+                    predicate is Operation<*> && predicate.operator == Ops.AND -> predicate.args.forEach { collect(it as Predicate) }
+                    else -> operands.add(predicate.toString())
+                }
+            }
+            collect(predicate)
+
+            return operands.sorted().joinToString(" && ")
+        }
+
+        /**
+         * Rough size in bytes of a query result (the JVM object overheads included)
+         */
+        fun weigh(value: Any?): Long = when (value) {
+            null -> 8L
+            is String -> 40L + 2L * value.length
+            is Number, is Boolean, is Enum<*>, is UUID -> 24L
+            is LocalDateTime -> 48L
+            is CompressedBody -> 32L + value.size()
+            is Event -> 64L + weigh(value.id) + weigh(value.correlationId) + weigh(value.username) +
+                        weigh(value.eventName) + weigh(value.eventDate) + weigh(value.applicationName) +
+                        weigh(value.eventBody)
+            is Page<*> -> 64L + weigh(value.content)
+            is Map<*, *> -> 48L + value.entries.sumOf { 32L + weigh(it.key) + weigh(it.value) }
+            is Iterable<*> -> 48L + value.sumOf { 8L + weigh(it) }
+            else -> 64L
+        }
+    }
+}
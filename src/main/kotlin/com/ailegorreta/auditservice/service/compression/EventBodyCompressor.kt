@@ -0,0 +1,307 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventBodyCompressor.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.compression
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.CompressedBody
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.commons.utils.HasLogger
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.DistributionSummary
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PreDestroy
+import org.bson.BsonBinaryWriter
+import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.codecs.Codec
+import org.bson.codecs.EncoderContext
+import org.bson.io.BasicOutputBuffer
+import org.bson.types.Binary
+import org.bson.types.Decimal128
+import org.bson.types.ObjectId
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.stereotype.Service
+import java.math.BigDecimal
+import java.time.Instant
+import java.time.LocalDate
+import java.time.LocalDateTime
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.zip.Adler32
+
+/**
+ * Compresses the eventBody bigger than 'audit-service.body.compression.threshold-bytes' before it is stored and
+ * decompresses it lazily (see CompressedBody), i.e., only when a GraphQL selection asks for the eventBody.
+ *
+ * The bodies are deflated with a preset dictionary per applicationName. The dictionary is built from the first
+ * 'dictionary-samples' large bodies of the application (the bodies of an application share most of their field
+ * names and values) and it is stored in the 'eventBodyDictionary' collection, so any instance can inflate the
+ * bodies. When several instances train a dictionary for the same application all of them use the oldest one.
+ *
+ * compress() runs in the ingestion path, so it never reads nor writes mongo: it only uses the cached dictionaries.
+ * The dictionaries are loaded (or trained and stored) by a background thread and, until the dictionary of the
+ * application is cached, its bodies are stored uncompressed. A failed load is retried after RETRY_MS.
+ *
+ * note: the fields of a compressed body cannot be queried, e.g., EventRepository.findEventsDetail does not find
+ *       the events whose 'eventBody.datos' is compressed.
+ *
+ * Metrics: 'audit.body.compression.ratio', 'audit.body.compression.time', 'audit.body.decompression.time',
+ * 'audit.body.compression.bytes.in' and 'audit.body.compression.bytes.out'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventBodyCompressor(private val serviceConfig: ServiceConfig,
+                          private val mongoTemplate: MongoTemplate,
+                          meterRegistry: MeterRegistry): HasLogger {
+
+    private class Dictionary(val id: Int, val bytes: ByteArray)
+
+    private val documentCodec: Codec<Document> by lazy { mongoTemplate.db.codecRegistry.get(Document::class.java) }
+    private val dictionaries = ConcurrentHashMap<Int, ByteArray>()
+    private val applicationDictionaries = ConcurrentHashMap<String, Dictionary>()
+    private val samples = ConcurrentHashMap<String, MutableList<ByteArray>>()
+    private val pending = ConcurrentHashMap.newKeySet<String>()
+    private val retryAt = ConcurrentHashMap<String, Long>()
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+                                Thread(runnable, "audit-body-dictionary").apply { isDaemon = true }
+                            }
+
+    private val ratio = DistributionSummary.builder("audit.body.compression.ratio").register(meterRegistry)
+    private val compressionTime = Timer.builder("audit.body.compression.time").register(meterRegistry)
+    private val decompressionTime = Timer.builder("audit.body.decompression.time").register(meterRegistry)
+    private val bytesIn = Counter.builder("audit.body.compression.bytes.in").register(meterRegistry)
+    private val bytesOut = Counter.builder("audit.body.compression.bytes.out").register(meterRegistry)
+
+    /**
+     * Replaces the eventBody by a CompressedBody if it is bigger than the threshold, the dictionary of its
+     * application is cached and it can be compressed
+     */
+    fun compress(event: Event) {
+        if (!serviceConfig.bodyCompressionEnabled) return
+
+        val body = event.eventBody as? Document ?: return
+        val threshold = serviceConfig.bodyCompressionThresholdBytes
+
+        if (bsonSizeBound(body, threshold) < threshold) return
+        // ^ most bodies: they are not encoded here, only by the EventCodec when they are stored
+        val bson = toBson(body)
+
+        if (bson.size < threshold) return
+
+        val applicationName = event.applicationName ?: ""
+        val dictionary = applicationDictionaries[applicationName]
+
+        if (dictionary == null) {
+            sample(applicationName, bson)
+            return
+        }
+        try {
+            val start = System.nanoTime()
+            val compressed = CompressedBody.deflate(bson, dictionary.id, dictionary.bytes,
+                                                    serviceConfig.bodyCompressionLevel)
+
+            compressionTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+            if (compressed.size() >= bson.size) return      // not compressible
+
+            ratio.record(bson.size.toDouble() / compressed.size())
+            bytesIn.increment(bson.size.toDouble())
+            bytesOut.increment(compressed.size().toDouble())
+            event.eventBody = compressed
+        } catch (e: Exception) {
+            logger.warn("The eventBody of ${event.id} is stored uncompressed: ${e.message}")
+        }
+    }
+
+    /**
+     * Returns the body as a Document if it is compressed, otherwise the body as is
+     */
+    fun decompress(body: Any?): Any? {
+        val compressed = body as? CompressedBody ?: return body
+        val start = System.nanoTime()
+        val document = RawBsonDocument(compressed.inflate { id -> dictionary(id) }).decode(documentCodec)
+
+        decompressionTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS)
+
+        return document
+    }
+
+    private fun toBson(body: Document): ByteArray {
+        val output = BasicOutputBuffer()
+
+        documentCodec.encode(BsonBinaryWriter(output), body, EncoderContext.builder().build())
+
+        return output.toByteArray()
+    }
+
+    /**
+     * Keeps the body as a training sample and asks the background thread for the dictionary of the application
+     */
+    private fun sample(applicationName: String, bson: ByteArray) {
+        val sample = samples.computeIfAbsent(applicationName) { ArrayList() }
+
+        synchronized(sample) {
+            if (sample.size < serviceConfig.bodyCompressionDictionarySamples)
+                sample.add(bson)
+        }
+        if ((retryAt[applicationName] ?: 0L) > System.currentTimeMillis() || !pending.add(applicationName)) return
+
+        try {
+            executor.execute {
+                try {
+                    prepare(applicationName)
+                } catch (e: Exception) {
+                    retryAt[applicationName] = System.currentTimeMillis() + RETRY_MS
+                    logger.warn("The compression dictionary of $applicationName is not ready: ${e.message}")
+                } finally {
+                    pending.remove(applicationName)
+                }
+            }
+        } catch (e: RejectedExecutionException) {
+            pending.remove(applicationName)
+        }
+    }
+
+    /**
+     * Caches the stored dictionary of the application or, if there is none and there are enough samples, trains
+     * and stores one
+     */
+    private fun prepare(applicationName: String) {
+        val sample = samples[applicationName]?.let { synchronized(it) { it.toList() } } ?: emptyList()
+        val dictionary = load(applicationName)
+                         ?: if (sample.size >= serviceConfig.bodyCompressionDictionarySamples) train(applicationName, sample)
+                            else null
+
+        if (dictionary == null) {
+            retryAt[applicationName] = System.currentTimeMillis() + RETRY_MS
+            // ^ another instance may train it meanwhile
+            return
+        }
+        applicationDictionaries[applicationName] = dictionary
+        samples.remove(applicationName)
+        retryAt.remove(applicationName)
+    }
+
+    /**
+     * The dictionary is the tail of the concatenated samples: deflate can only reference the last 32KB and the
+     * strings nearer to the end of the dictionary are encoded with shorter distances.
+     *
+     * @return the oldest dictionary of the application, i.e., the one of the instance that trained it first
+     */
+    private fun train(applicationName: String, sample: List<ByteArray>): Dictionary? {
+        val bytes = ByteArray(minOf(serviceConfig.bodyCompressionDictionaryBytes, sample.sumOf { it.size }))
+        var end = bytes.size
+
+        for (bson in sample.asReversed()) {
+            if (end == 0) break
+            val length = minOf(end, bson.size)
+
+            System.arraycopy(bson, bson.size - length, bytes, end - length, length)
+            end -= length
+        }
+        val id = Adler32().apply { update(bytes) }.value.toInt()
+
+        mongoTemplate.getCollection(DICTIONARY_COLLECTION)
+                     .insertOne(Document("_id", id).append("applicationName", applicationName)
+                                                   .append("dictionary", Binary(bytes))
+                                                   .append("created", Date()))
+        logger.info("A compression dictionary of ${bytes.size} bytes has been trained for $applicationName")
+
+        return load(applicationName)
+    }
+
+    private fun load(applicationName: String): Dictionary? =
+        mongoTemplate.getCollection(DICTIONARY_COLLECTION)
+                     .find(Document("applicationName", applicationName))
+                     .sort(Document("created", 1).append("_id", 1))
+                     .limit(1)
+                     .first()
+                     ?.let { Dictionary(it.getInteger("_id"), it.get("dictionary", Binary::class.java).data) }
+                     ?.also { dictionaries[it.id] = it.bytes }
+
+    /**
+     * The dictionary of a stored body. Only the dictionaries found are cached, so a dictionary that is stored
+     * later (e.g., mongo was unavailable) is found in the next read.
+     */
+    private fun dictionary(id: Int): ByteArray? =
+        dictionaries[id] ?: mongoTemplate.getCollection(DICTIONARY_COLLECTION)
+                                         .find(Document("_id", id))
+                                         .first()
+                                         ?.get("dictionary", Binary::class.java)?.data
+                                         ?.also { dictionaries[id] = it }
+
+    @PreDestroy
+    fun close() {
+        executor.shutdownNow()
+    }
+
+    companion object {
+        const val DICTIONARY_COLLECTION = "eventBodyDictionary"
+        private const val RETRY_MS = 10_000L
+
+        /**
+         * An upper bound of the BSON size of the value computed without encoding it (e.g., a String counts 3 bytes
+         * per char). It returns 'limit' as soon as the bound reaches it, and for any type it does not know.
+         */
+        internal fun bsonSizeBound(value: Any?, limit: Int): Int = when (value) {
+            null -> 0
+            is Boolean -> 1
+            is Int, is Short, is Byte -> 4
+            is Long, is Double, is Float, is Date, is Instant, is LocalDateTime, is LocalDate -> 8
+            is ObjectId -> 12
+            is Decimal128, is BigDecimal -> 16
+            is UUID -> 21
+            is String -> 5 + 3 * value.length
+            is ByteArray -> 9 + value.size
+            is Binary -> 9 + value.length()
+            is Map<*, *> -> {
+                var size = 5
+                // ^ length and terminator
+                for ((key, element) in value) {
+                    size += 2 + 3 * key.toString().length + bsonSizeBound(element, limit - size)
+                    if (size >= limit) break
+                }
+                minOf(size, limit)
+            }
+            is Iterable<*> -> {
+                var size = 5
+                var index = 0
+
+                for (element in value) {
+                    size += 2 + index.toString().length + bsonSizeBound(element, limit - size)
+                    // ^ the keys of a BSON array are the indexes
+                    if (size >= limit) break
+                    index++
+                }
+                minOf(size, limit)
+            }
+            else -> limit
+        }
+    }
+}
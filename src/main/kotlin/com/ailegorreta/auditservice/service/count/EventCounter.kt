@@ -0,0 +1,79 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCounter.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.count
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventCountMode
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.gql.types.EventCount
+import com.ailegorreta.commons.utils.HasLogger
+import com.querydsl.core.types.Predicate
+import org.springframework.stereotype.Service
+
+/**
+ * Counts the events with the mode of the request (see EventCountMode), so the UI does not need an exact count
+ * of millions of events to show "10,000+" or "~1,230,000":
+ *
+ *  - CAPPED counts stop at the limit of the request (or audit-service.count.limit).
+ *  - ESTIMATE without predicate reads the collections metadata; with predicate it uses the matches in a random
+ *    sample of each partition. A predicate too selective for the sample falls back to a CAPPED count, that is
+ *    cheap precisely because few events match.
+ *  - AUTO is ESTIMATE without predicate and CAPPED with predicate.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventCounter(private val serviceConfig: ServiceConfig,
+                   private val eventRepository: EventRepository): HasLogger {
+
+    fun count(predicate: Predicate?, mode: EventCountMode?, limit: Long?): EventCount {
+        val limit = limit ?: serviceConfig.countLimit
+
+        return when (mode ?: EventCountMode.AUTO) {
+            EventCountMode.EXACT -> EventCount.exact(if (predicate == null) eventRepository.count()
+                                                     else eventRepository.count(predicate), EventCountMode.EXACT)
+            EventCountMode.CAPPED -> capped(predicate, limit)
+            EventCountMode.ESTIMATE -> estimate(predicate, limit)
+            EventCountMode.AUTO -> if (predicate == null) estimate(null, limit) else capped(predicate, limit)
+        }
+    }
+
+    private fun capped(predicate: Predicate?, limit: Long): EventCount {
+        val count = eventRepository.count(predicate, limit + 1)
+        // ^ one more event to know if the limit was reached
+
+        return if (count > limit) EventCount.capped(limit) else EventCount.exact(count, EventCountMode.CAPPED)
+    }
+
+    private fun estimate(predicate: Predicate?, limit: Long): EventCount {
+        if (predicate == null)
+            return EventCount.estimate(eventRepository.estimatedCount())
+
+        val estimate = eventRepository.estimatedCount(predicate, serviceConfig.countSampleSize,
+                                                      serviceConfig.countMinSampleMatches)
+
+        return if (estimate.isPresent) EventCount.estimate(estimate.asLong) else capped(predicate, limit)
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventOrigin.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.MessageHeaders
+
+/**
+ * Position of an event in Kafka, i.e., (topic, partition, offset), and its record timestamp. A redelivered record
+ * has the same origin, so it is used to generate the deterministic id of the event (see IdempotencyFilter).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+data class EventOrigin(val topic: String, val partition: Int, val offset: Long, val timestamp: Long? = null) {
+
+    override fun toString() = "$topic/$partition/$offset"
+
+    companion object {
+        /**
+         * Origin of a single record message, null if the message does not come from Kafka (e.g., tests).
+         */
+        fun of(headers: MessageHeaders): EventOrigin? {
+            val topic = headers[KafkaHeaders.RECEIVED_TOPIC] as? String ?: return null
+            val partition = headers[KafkaHeaders.RECEIVED_PARTITION] as? Int ?: return null
+            val offset = headers[KafkaHeaders.OFFSET] as? Long ?: return null
+
+            return EventOrigin(topic, partition, offset, headers[KafkaHeaders.RECEIVED_TIMESTAMP] as? Long)
+        }
+
+        /**
+         * Origins of a batch message. In batch mode the Kafka headers are lists with one element per record.
+         */
+        fun ofBatch(headers: MessageHeaders, size: Int): List<EventOrigin?> {
+            val topics = headers[KafkaHeaders.RECEIVED_TOPIC] as? List<*>
+            val partitions = headers[KafkaHeaders.RECEIVED_PARTITION] as? List<*>
+            val offsets = headers[KafkaHeaders.OFFSET] as? List<*>
+            val timestamps = headers[KafkaHeaders.RECEIVED_TIMESTAMP] as? List<*>
+
+            if (topics?.size != size || partitions?.size != size || offsets?.size != size)
+                return List(size) { null }
+
+            return List(size) {
+                EventOrigin(topics[it] as String, partitions[it] as Int, offsets[it] as Long, timestamps?.getOrNull(it) as? Long)
+            }
+        }
+    }
+}
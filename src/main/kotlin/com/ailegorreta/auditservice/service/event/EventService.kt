@@ -24,18 +24,20 @@ package com.ailegorreta.auditservice.service.event
 
 import com.ailegorreta.auditservice.config.ServiceConfig
 import com.ailegorreta.auditservice.domain.Event
-import com.ailegorreta.auditservice.domain.EventRepository
 import com.ailegorreta.auditservice.gql.types.Notification
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.auditservice.service.file.EventFileSink
+import com.ailegorreta.auditservice.service.notification.NotificationBuffer
+import com.ailegorreta.auditservice.service.notification.NotificationSubscriptions
+import com.ailegorreta.auditservice.service.rollup.EventRollup
+import com.ailegorreta.auditservice.service.spool.EventSpool
 import com.ailegorreta.commons.event.EventDTO
 import com.ailegorreta.commons.event.EventType
 import com.ailegorreta.commons.utils.HasLogger
 import org.springframework.kafka.annotation.KafkaListener
 import org.springframework.stereotype.Service
 import reactor.core.publisher.Sinks
-import java.io.BufferedWriter
-import java.io.File
-import java.io.FileWriter
-import java.io.IOException
+import java.time.ZoneId
 import java.util.*
 import java.util.concurrent.CountDownLatch
 import kotlin.collections.LinkedHashMap
@@ -48,8 +50,14 @@ import kotlin.collections.LinkedHashMap
  *  @date September 2023
  */
 @Service
-class EventService(private val eventRepository: EventRepository,
-                   private val serviceConfig: ServiceConfig,
+class EventService(private val serviceConfig: ServiceConfig,
+                   private val eventFileSink: EventFileSink,
+                   private val idempotencyFilter: IdempotencyFilter,
+                   private val eventSpool: EventSpool,
+                   private val eventBodyCompressor: EventBodyCompressor,
+                   private val eventRollup: EventRollup,
+                   private val notificationBuffer: NotificationBuffer,
+                   private val notificationSubscriptions: NotificationSubscriptions,
                    private val notificationSink: Sinks.Many<Notification>): HasLogger {
 
     var latch = CountDownLatch(1)
@@ -60,97 +68,200 @@ class EventService(private val eventRepository: EventRepository,
      *
      * If we have a ConfigApplication that allow to store into a file we take the path and the application name to create a new file,
      * the file name will be the <ApplicationName>.txt
+     *
+     * The event id is deterministic (see IdempotencyFilter), so an event redelivered by Kafka is skipped: either
+     * it is found in the idempotency window or mongo rejects it as a duplicate key.
      */
     /* note: The @KafkaListener annotation must be uncommented just for the Kafka test (i.e., KakfkaTests.kt class)
      *       without the use os Spring cloud stream configuration
      */
     // @KafkaListener(topics = ["audit"], groupId = "group-ailegorreta")
-    fun processEvent(eventDTO: EventDTO): EventDTO {
+    fun processEvent(eventDTO: EventDTO, origin: EventOrigin? = null): EventDTO {
         logger.warn("Will process event $eventDTO")
-        var event: Event = Event.createEventByEventDTO(eventDTO)
+        val event: Event = Event.createEventByEventDTO(eventDTO, idempotencyFilter.idFor(eventDTO, origin))
+
+        if (idempotencyFilter.isDuplicate(event.id)) {
+            logger.info("The event ${event.id} has been already processed and it is skipped")
+            latch.countDown()       // just for testing purpose
 
-        when (event.eventType) {
+            return eventDTO
+        }
+        eventBodyCompressor.compress(event)
+        val stored = when (event.eventType) {
             EventType.FULL_STORE -> {
-                event = eventRepository.save(event)
-                writeToFile(event)
+                insert(event).also { inserted ->
+                    writeToFile(event, ifAbsent = !inserted)
+                    // ^ a duplicate may be a redelivery whose file append failed after mongo stored it
+                    syncFiles(listOf(event))
+                }
             }
             EventType.DB_STORE -> {
-                eventRepository.save(event)
+                insert(event)
             }
             EventType.FILE_STORE -> {
-                event = createEventOnlyFile(event)
                 writeToFile(event)
+                syncFiles(listOf(event))
+                true
             }
             EventType.ERROR_EVENT -> {
-                eventRepository.save(event)
                 logger.error("En ERROR event has been received:mvn  $eventDTO")
                 // writeToFile(event) // TODO define where error events must go
+                insert(event)
             }
-            else -> createEventOnlyFile(event)
+            else -> false
         }
+        if (stored) eventRollup.record(event)
+        // ^ only once stored: a duplicate or a failed insert redelivered by Kafka is not counted twice
+        idempotencyFilter.register(event.id)
         latch.countDown()           // just for testing purpose
 
         return eventDTO
     }
 
-    fun resetLatch() {
-        latch = CountDownLatch(1)
+    /**
+     * Batch version of processEvent. All events that must be stored in the database (i.e., DB_STORE, FULL_STORE
+     * and ERROR_EVENT) are inserted with unordered bulk inserts of at most 'audit-service.ingest.batch.size' events.
+     *
+     * If the bulk insert fails (and the events cannot be spooled, see EventSpool) the exception is propagated so
+     * the Kafka offsets of the batch are not committed.
+     * Duplicates (i.e., redelivered events) are ignored by the bulk insert and are not counted in the rollups. A
+     * FULL_STORE duplicate is written to the file only if the file does not have it yet, i.e., a previous delivery
+     * failed after mongo stored it.
+     */
+    fun processEvents(eventDTOs: List<EventDTO>, origins: List<EventOrigin?> = List(eventDTOs.size) { null }): List<EventDTO> {
+        logger.debug("Will process a batch of ${eventDTOs.size} events")
+        val toStore = ArrayList<Event>(eventDTOs.size)
+        val toFile = ArrayList<Event>()
+        val processed = ArrayList<UUID>(eventDTOs.size)
+
+        eventDTOs.forEachIndexed { i, eventDTO ->
+            val event: Event = Event.createEventByEventDTO(eventDTO, idempotencyFilter.idFor(eventDTO, origins[i]))
+
+            if (idempotencyFilter.isDuplicate(event.id)) return@forEachIndexed
+            processed.add(event.id)
+            eventBodyCompressor.compress(event)
+            when (event.eventType) {
+                EventType.FULL_STORE, EventType.DB_STORE -> toStore.add(event)
+                EventType.FILE_STORE -> toFile.add(event)
+                EventType.ERROR_EVENT -> {
+                    toStore.add(event)
+                    logger.error("En ERROR event has been received: $eventDTO")
+                }
+                else -> {}
+            }
+        }
+        val fileOnly = toFile.toList()
+        val duplicates = ArrayList<Event>()
+
+        toStore.chunked(serviceConfig.batchSize).forEach { events ->
+            val inserted = eventSpool.insertAll(events)
+            val insertedIds = inserted.mapTo(HashSet()) { it.id }
+
+            inserted.forEach { eventRollup.record(it) }
+            // ^ per bulk: if a later bulk fails, the redelivered batch only counts the events not inserted yet
+            events.filter { it.eventType == EventType.FULL_STORE }
+                  .forEach { if (it.id in insertedIds) toFile.add(it) else duplicates.add(it) }
+        }
+        toFile.forEach { writeToFile(it) }
+        duplicates.forEach { writeToFile(it, ifAbsent = true) }
+        syncFiles(toFile + duplicates)
+        fileOnly.forEach { eventRollup.record(it) }
+        processed.forEach { idempotencyFilter.register(it) }
+        latch.countDown()           // just for testing purpose
+
+        return eventDTOs
     }
 
     /**
-     * This function create the events that are not stored into a database, add an ID that is a UUID and the current date
+     * Inserts the event in mongo or in the spool if mongo is slow or unavailable (see EventSpool)
      *
-     * @param event Is the event without an ID
+     * @return false if the event was a duplicate
      */
-    private fun createEventOnlyFile(event: Event): Event {
-        event.id = UUID.randomUUID()
+    private fun insert(event: Event) = eventSpool.insertAll(listOf(event)).isNotEmpty()
 
-        return event
+    fun resetLatch() {
+        latch = CountDownLatch(1)
     }
 
     /**
-     * Write the event to a new File, the File name is based on the filepath of the configApplication
-     * and the ApplicationName
+     * Write the event to the application File, the File name is based on the filepath of the configApplication
+     * and the ApplicationName. The write is done asynchronously by the EventFileSink
      *
      * @param event The event to write in the File
-     * @param filePath Is the folder
+     * @param ifAbsent Only if the File does not have the event yet (see EventFileSink.append)
      */
-    private fun writeToFile(event: Event) {
-        try {
-            val file = File("${serviceConfig.filePath}/${event.applicationName}.txt")
-            val writer = BufferedWriter(FileWriter(file, !file.createNewFile()))
-
-            writer.append(event.toJson().trim())
-            writer.newLine()
-            writer.close()
-        } catch (e: IOException) {
-            logger.error("An error occurred writing the event to a file.")
-            e.printStackTrace()
-        }
+    private fun writeToFile(event: Event, ifAbsent: Boolean = false) {
+        eventFileSink.append(event, ifAbsent)
+    }
+
+    /**
+     * With 'audit-service.file.sync-before-ack' waits until the events written to the files are on disk, so the
+     * Kafka offsets are committed after it (see EventFileSink)
+     */
+    private fun syncFiles(events: List<Event>) {
+        if (serviceConfig.fileSyncBeforeAck && events.isNotEmpty())
+            eventFileSink.sync(events.mapNotNullTo(HashSet()) { it.applicationName })
     }
 
     /**
      * This function store the notification in the database
      * Then we use GraphQL Subscription in order to receive on-line the stored notification (from any client)
-     * and sent it to the front. The Subscription is just for the user.
+     * and sent it to the front. The Subscription is just for the user: with a username it only receives the
+     * notifications of that user (see NotificationSubscriptions).
      *
+     * With 'audit-service.notifications.broadcast' the notification is stored only by the instance of the shared
+     * group that consumes it, and it is sent to the subscribers of every instance by relayNotification.
      */
     /* note: The @KafkaListener annotation must be uncommented just for the Kafka test (i.e., KakfkaTests.kt class)
     *       without the use os Spring cloud stream configuration
     */
     // @KafkaListener(topics = ["notify"], groupId = "group-ailegorreta")
-    fun processNotification(eventDTO: EventDTO): EventDTO {
-        var event: Event = Event.createEventByEventDTO(eventDTO)
+    fun processNotification(eventDTO: EventDTO, origin: EventOrigin? = null): EventDTO {
+        val event: Event = Event.createEventByEventDTO(eventDTO, idempotencyFilter.idFor(eventDTO, origin))
 
         event.correlationId = "Notificación"
-        eventRepository.save(event)
+        if (idempotencyFilter.isDuplicate(event.id) || !insert(event))
+            return eventDTO     // redelivered: the notification has been already sent
 
-        val notification = Notification(eventDTO.username,
-                                        title = (eventDTO.eventBody as LinkedHashMap<*, *>)["notificaFacultad"] as String,
-                                        message = (eventDTO.eventBody as LinkedHashMap<*, *>)["datos"] as String)
+        idempotencyFilter.register(event.id)
+        notificationBuffer.add(event)
+        if (!serviceConfig.notificationsBroadcast)
+            sendNotification(event)
 
-        notificationSink.tryEmitNext(notification)
+        return eventDTO
+    }
+
+    /**
+     * Sends the notification to the subscribers of this instance, without storing it: every instance receives all
+     * the notifications with its own consumer group (see EventConfig.consumerNotBroadcast). The buffer of the
+     * 'notifications' query is updated too, since the event id is the same as the one stored by processNotification.
+     *
+     * note: the relay does not wait for the notification to be stored by processNotification (another consumer,
+     *       maybe of another instance), so a subscriber may receive it before the queries that read mongo return
+     *       it, or even if it is never stored (e.g., the storing consumer drops it). See the README.
+     */
+    fun relayNotification(eventDTO: EventDTO, origin: EventOrigin? = null): EventDTO {
+        if (!serviceConfig.notificationsBroadcast) return eventDTO
+
+        val event: Event = Event.createEventByEventDTO(eventDTO, idempotencyFilter.idFor(eventDTO, origin))
+
+        notificationBuffer.add(event)
+        sendNotification(event)
 
         return eventDTO
     }
+
+    /**
+     * The time of the notification is the eventDate, i.e., the same in all the instances and in the buffers, so it
+     * can be used as the cursor to resume a subscription.
+     */
+    private fun sendNotification(event: Event) {
+        val notification = Notification(event.username,
+                                        title = (event.eventBody as Map<*, *>)["notificaFacultad"] as String,
+                                        message = (event.eventBody as Map<*, *>)["datos"] as String,
+                                        time = event.eventDate.atZone(ZoneId.systemDefault()).toInstant())
+
+        notificationSink.tryEmitNext(notification)
+        notificationSubscriptions.publish(notification)
+    }
 }
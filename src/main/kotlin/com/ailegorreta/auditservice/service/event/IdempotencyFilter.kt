@@ -0,0 +1,94 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  IdempotencyFilter.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventIds
+import com.ailegorreta.commons.event.EventDTO
+import org.springframework.stereotype.Service
+import java.util.*
+
+/**
+ * Detects the events redelivered by Kafka (e.g., after a rebalance or a consumer restart).
+ *
+ * Every event gets a deterministic id from its (topic, partition, offset, record timestamp) plus its content or,
+ * if the key is 'CONTENT' (or the event does not come from Kafka), from its content plus the correlationId: a name
+ * based UUID or a time ordered one (see 'audit-service.ingest.id-strategy' and EventIds). So the redelivered event
+ * has the same _id and mongo rejects it with a duplicate key error. The content and the timestamp are part of the
+ * RECORD key because the offsets start again when a topic is recreated or its offsets are reset: the position
+ * alone would give the same id to different events.
+ *
+ * To avoid even that round trip the ids already processed are remembered in an LRU window of the last
+ * 'audit-service.ingest.idempotency.window' ids. An id older than the window falls back to the unique _id in
+ * mongo, so there is never an extra mongo read.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class IdempotencyFilter(private val serviceConfig: ServiceConfig) {
+
+    enum class Key { RECORD, CONTENT }
+
+    enum class IdStrategy { NAME_BASED, TIME_ORDERED }
+
+    private val window = object : LinkedHashMap<UUID, Boolean>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<UUID, Boolean>?) =
+            size > serviceConfig.idempotencyWindow
+    }
+
+    /**
+     * With the TIME_ORDERED strategy the id timestamp is the Kafka record timestamp, so it is deterministic too.
+     * An event that does not come from Kafka has no redeliveries and just gets a monotonic time ordered id.
+     */
+    fun idFor(eventDTO: EventDTO, origin: EventOrigin?): UUID {
+        val content = with(eventDTO) { "$correlationId|$eventType|$username|$eventName|$applicationName|$coreName|$eventBody" }
+        val name = if (origin != null && serviceConfig.idempotencyKey == Key.RECORD)
+                        "$origin|${origin.timestamp}|$content"
+                    else
+                        content
+
+        return when (serviceConfig.idStrategy) {
+            IdStrategy.NAME_BASED -> UUID.nameUUIDFromBytes(name.toByteArray())
+            IdStrategy.TIME_ORDERED -> if (origin?.timestamp != null) EventIds.timeOrdered(origin.timestamp, name)
+                                       else EventIds.timeOrdered()
+        }
+    }
+
+    fun isDuplicate(id: UUID): Boolean {
+        if (!serviceConfig.idempotencyEnabled) return false
+
+        synchronized(this) {
+            return window[id] != null
+        }
+    }
+
+    fun register(id: UUID) {
+        if (!serviceConfig.idempotencyEnabled) return
+
+        synchronized(this) {
+            window[id] = true
+        }
+    }
+}
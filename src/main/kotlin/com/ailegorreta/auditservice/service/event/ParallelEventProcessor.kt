@@ -0,0 +1,188 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  ParallelEventProcessor.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.commons.utils.HasLogger
+import jakarta.annotation.PreDestroy
+import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.support.MessageBuilder
+import org.springframework.stereotype.Service
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.TimeUnit
+
+/**
+ * Processes the audit events in parallel keeping the order per key.
+ *
+ * Every event is assigned to one of 'audit-service.ingest.parallel.workers' lanes by the hash of its key
+ * (applicationName, username or the Kafka record key, see 'audit-service.ingest.parallel.key'). Each lane is
+ * one thread with a bounded queue, so events with the same key are processed in order while events of
+ * different keys do not wait for each other (e.g., for a slow mongo write).
+ *
+ * Each event is acknowledged when its lane has processed it. The listener container is configured with
+ * async acks (see EventConfig), so the offset of a partition only advances up to the lowest offset that has
+ * not been acknowledged yet.
+ *
+ * If a lane queue is full the listener thread is blocked, i.e., Kafka is back-pressured.
+ *
+ * A failed event is retried in its lane (see Lane.process), so while it backs off the lane is blocked for all its
+ * keys, not only for the key of the failed event: with the default 'max-attempts' an event that always fails
+ * holds its lane for about 50 seconds (100ms doubled 9 times). The other lanes are not affected, so more
+ * 'workers' means fewer unrelated keys behind a failing one.
+ *
+ * An event that exhausts its attempts is sent to the dead-letter topic (binding 'auditDeadLetter-out-0') and then
+ * acknowledged. Without 'audit-service.ingest.parallel.dead-letter', or if the send fails, it is not acknowledged:
+ * the committed offset of its partition stops before it, so it is redelivered after a restart or a rebalance.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class ParallelEventProcessor(private val eventService: EventService,
+                             private val serviceConfig: ServiceConfig,
+                             private val streamBridge: StreamBridge): HasLogger {
+
+    enum class Key { APPLICATION_NAME, USERNAME, RECORD_KEY }
+
+    private val lanesDelegate = lazy { Array(serviceConfig.parallelWorkers) { Lane(it) } }
+    private val lanes by lanesDelegate
+    // ^ the threads are started only if the parallel consumer is active
+
+    fun submit(eventDTO: EventDTO, recordKey: Any?, origin: EventOrigin?, acknowledgment: Acknowledgment?) {
+        val key = when (serviceConfig.parallelKey) {
+                        Key.APPLICATION_NAME -> eventDTO.applicationName
+                        Key.USERNAME -> eventDTO.username
+                        Key.RECORD_KEY -> recordKey ?: eventDTO.applicationName
+                    }
+
+        lanes[Math.floorMod(key.hashCode(), lanes.size)].put(Task(eventDTO, recordKey, origin, acknowledgment))
+    }
+
+    @PreDestroy
+    fun close() {
+        if (lanesDelegate.isInitialized())
+            lanes.forEach { it.close() }
+    }
+
+    private class Task(val eventDTO: EventDTO, val recordKey: Any?, val origin: EventOrigin?,
+                       val acknowledgment: Acknowledgment?)
+
+    private inner class Lane(index: Int) {
+        private val queue = ArrayBlockingQueue<Task>(serviceConfig.parallelQueueCapacity)
+        private val thread = Thread(this::run, "audit-lane-$index")
+        @Volatile private var running = true
+
+        init {
+            thread.isDaemon = true
+            thread.start()
+        }
+
+        fun put(task: Task) = queue.put(task)
+
+        private fun run() {
+            while (running || queue.isNotEmpty()) {
+                try {
+                    val task = queue.poll(POLL_MS, TimeUnit.MILLISECONDS) ?: continue
+
+                    val failure = process(task)
+
+                    if (failure == null || deadLetter(task, failure))
+                        task.acknowledgment?.acknowledge()
+                } catch (e: InterruptedException) {
+                    running = false
+                }
+            }
+        }
+
+        /**
+         * Retries the event with an exponential back-off. The lane is blocked meanwhile, so the events with
+         * the same key stay in order (and the events of the other keys of the lane wait too).
+         *
+         * @return null if the event has been processed, or the last failure when the attempts are exhausted
+         */
+        private fun process(task: Task): Exception? {
+            var backOff = INITIAL_BACK_OFF_MS
+            var attempt = 1
+
+            while (true) {
+                try {
+                    eventService.processEvent(task.eventDTO, task.origin)
+                    return null
+                } catch (e: Exception) {
+                    logger.warn("Attempt $attempt to process the event ${task.eventDTO} failed: ${e.message}")
+                    if (attempt >= serviceConfig.parallelMaxAttempts)
+                        return e
+                    Thread.sleep(backOff)
+                    backOff *= 2
+                    attempt++
+                }
+            }
+        }
+
+        /**
+         * Sends the event that exhausted its attempts to the dead-letter topic, with its Kafka key and origin
+         *
+         * @return true if it has been sent, i.e., it can be acknowledged
+         */
+        private fun deadLetter(task: Task, failure: Exception): Boolean {
+            if (serviceConfig.parallelDeadLetter)
+                try {
+                    val message = MessageBuilder.withPayload(task.eventDTO)
+                                                .setHeader(KafkaHeaders.DLT_EXCEPTION_MESSAGE, failure.message)
+
+                    task.recordKey?.let { message.setHeader(KafkaHeaders.KEY, it) }
+                    task.origin?.let {
+                        message.setHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC, it.topic)
+                               .setHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION, it.partition)
+                               .setHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET, it.offset)
+                    }
+                    if (streamBridge.send(DEAD_LETTER_BINDING, message.build())) {
+                        logger.error("The event ${task.eventDTO} could not be processed, it is sent to the " +
+                                     "dead-letter topic", failure)
+                        return true
+                    }
+                } catch (e: Exception) {
+                    logger.error("The event ${task.eventDTO} could not be sent to the dead-letter topic: ${e.message}")
+                }
+            logger.error("The event ${task.eventDTO} could not be processed and it is not acknowledged", failure)
+
+            return false
+        }
+
+        fun close() {
+            running = false
+            thread.join(CLOSE_TIMEOUT_MS)
+        }
+    }
+
+    companion object {
+        private const val POLL_MS = 100L
+        private const val INITIAL_BACK_OFF_MS = 100L
+        private const val CLOSE_TIMEOUT_MS = 10_000L
+        const val DEAD_LETTER_BINDING = "auditDeadLetter-out-0"
+    }
+}
@@ -0,0 +1,109 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventExporter.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.export
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.commons.utils.HasLogger
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.querydsl.core.types.Predicate
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.stereotype.Service
+import java.io.OutputStream
+import java.util.concurrent.Semaphore
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Writes the events of a predicate as NDJSON (one JSON event per line), optionally gzipped, for the audit
+ * extractions of millions of events.
+ *
+ * The events are read with a mongo cursor (see EventRepository.stream) and written one by one to the output
+ * stream, so the memory is bounded by the cursor batch ('audit-service.export.batch-size') and the buffers of the
+ * output stream. The writes block while the client does not read (TCP backpressure), and then the cursor stops
+ * reading from mongo. At most 'audit-service.export.max-concurrent' exports run at the same time.
+ *
+ * Metrics: 'audit.export.events'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventExporter(private val serviceConfig: ServiceConfig,
+                    private val eventRepository: EventRepository,
+                    private val eventBodyCompressor: EventBodyCompressor,
+                    objectMapper: ObjectMapper,
+                    meterRegistry: MeterRegistry): HasLogger {
+
+    private val writer = objectMapper.writer()
+                                     .without(SerializationFeature.INDENT_OUTPUT)
+                                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                                     .withRootValueSeparator("\n")
+                                     // ^ one event per line
+    private val exports = Semaphore(serviceConfig.exportMaxConcurrent)
+    private val exported = Counter.builder("audit.export.events").register(meterRegistry)
+
+    /**
+     * @return false if there are already 'max-concurrent' exports running
+     */
+    fun tryAcquire() = exports.tryAcquire()
+
+    fun release() = exports.release()
+
+    /**
+     * Writes the events to 'output' (that is not closed)
+     *
+     * @return the number of exported events
+     */
+    fun export(predicate: Predicate?, output: OutputStream, gzip: Boolean): Long {
+        val out = if (gzip) GZIPOutputStream(output, BUFFER_SIZE) else output.buffered(BUFFER_SIZE)
+        val generator = writer.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        var count = 0L
+
+        eventRepository.stream(predicate, serviceConfig.exportBatchSize).use { events ->
+            events.forEach { event ->
+                event.eventBody = eventBodyCompressor.decompress(event.eventBody)
+                writer.writeValue(generator, event)
+                if (++count % serviceConfig.exportBatchSize == 0L) {
+                    generator.flush()
+                    exported.increment(serviceConfig.exportBatchSize.toDouble())
+                }
+            }
+        }
+        if (count > 0) generator.writeRaw('\n')
+        generator.flush()
+        exported.increment((count % serviceConfig.exportBatchSize).toDouble())
+        if (out is GZIPOutputStream) out.finish() else out.flush()
+        logger.info("Exported $count events")
+
+        return count
+    }
+
+    companion object {
+        private const val BUFFER_SIZE = 64 * 1024
+    }
+}
@@ -0,0 +1,173 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  ApplicationFileWriter.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import com.ailegorreta.commons.utils.HasLogger
+import java.io.IOException
+import java.util.*
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Long-lived writer for one application SegmentedLog. The consumers just enqueue the records and one writer
+ * thread drains the queue and appends all pending records before doing one fsync (group commit). The fsync
+ * is done according to the FsyncPolicy.
+ *
+ * If the queue is full the caller is blocked, so the Kafka consumer is back-pressured by the disk.
+ *
+ * sync() waits until the records appended before it are written and forced to disk, whatever the FsyncPolicy: it
+ * enqueues a marker, so the consumers that sync at the same time share one fsync.
+ *
+ * A record appended 'ifAbsent' (i.e., a redelivered event) is skipped by the writer thread if the log already has
+ * its id, so it is checked after all the records enqueued before it have been written.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+class ApplicationFileWriter(val log: SegmentedLog,
+                            private val fsyncPolicy: FsyncPolicy,
+                            private val fsyncEvents: Int,
+                            private val fsyncIntervalMs: Long,
+                            queueCapacity: Int): HasLogger {
+
+    private val queue = ArrayBlockingQueue<FileRecord>(queueCapacity)
+    private val writerThread = Thread(this::run, "file-sink-${log.dir.fileName}")
+    @Volatile private var running = true
+
+    init {
+        writerThread.isDaemon = true
+        writerThread.start()
+    }
+
+    fun append(record: FileRecord) {
+        queue.put(record)
+    }
+
+    /**
+     * Waits until all the records appended before the call are forced to disk
+     *
+     * @throws IOException if they could not be written or the timeout expires
+     */
+    fun sync(timeoutMs: Long) {
+        val marker = FileRecord.syncMarker()
+
+        queue.put(marker)
+        try {
+            marker.synced!!.get(timeoutMs, TimeUnit.MILLISECONDS)
+        } catch (e: ExecutionException) {
+            throw e.cause as? IOException ?: IOException(e.cause)
+        } catch (e: TimeoutException) {
+            throw IOException("The log ${log.dir} was not synced in $timeoutMs ms")
+        }
+    }
+
+    private fun run() {
+        val batch = ArrayList<FileRecord>(MAX_BATCH)
+        var unsynced = 0
+        var lastSync = System.currentTimeMillis()
+
+        while (running || queue.isNotEmpty()) {
+            try {
+                val first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS)
+                var syncRequested = false
+
+                if (first != null) {
+                    batch.add(first)
+                    queue.drainTo(batch, MAX_BATCH - 1)
+                    syncRequested = batch.any { it.synced != null }
+                    unsynced += write(batch)
+                }
+                val now = System.currentTimeMillis()
+                val mustSync = unsynced > 0 && (syncRequested || when (fsyncPolicy) {
+                                                    FsyncPolicy.EVERY_N -> unsynced >= fsyncEvents
+                                                    FsyncPolicy.INTERVAL -> now - lastSync >= fsyncIntervalMs
+                                                    FsyncPolicy.NEVER -> false
+                                                })
+                if (mustSync) {
+                    log.force()
+                    unsynced = 0
+                    lastSync = now
+                }
+                batch.forEach { it.synced?.complete(null) }
+                batch.clear()
+            } catch (e: InterruptedException) {
+                running = false
+            } catch (e: IOException) {
+                logger.error("An error occurred writing ${batch.size} events to the log ${log.dir}", e)
+                batch.forEach { it.synced?.completeExceptionally(e) }
+                batch.clear()
+            }
+        }
+        try {
+            log.close()
+        } catch (e: IOException) {
+            logger.error("An error occurred closing the log ${log.dir}", e)
+        }
+    }
+
+    /**
+     * @return the number of records written, i.e., without the sync markers
+     */
+    private fun write(records: List<FileRecord>): Int {
+        var written = 0
+
+        records.forEach {
+            if (it.synced == null && !(it.ifAbsent && log.contains(it.eventDate, it.id))) {
+                log.append(it.eventDate, it.id, it.payload)
+                written++
+            }
+        }
+
+        return written
+    }
+
+    /**
+     * Writes all pending records, forces them to disk and closes the log
+     */
+    fun close() {
+        running = false
+        writerThread.join(CLOSE_TIMEOUT_MS)
+    }
+
+    companion object {
+        private const val MAX_BATCH = 1024
+        private const val POLL_MS = 100L
+        private const val CLOSE_TIMEOUT_MS = 10_000L
+    }
+}
+
+/**
+ * One event to be appended to the SegmentedLog, or a sync marker (see ApplicationFileWriter.sync)
+ */
+class FileRecord(val eventDate: Long, val id: UUID, val payload: ByteArray,
+                 val synced: CompletableFuture<Void>? = null,
+                 val ifAbsent: Boolean = false) {
+
+    companion object {
+        fun syncMarker() = FileRecord(0L, UUID(0L, 0L), ByteArray(0), CompletableFuture())
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventFileSink.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.commons.utils.HasLogger
+import jakarta.annotation.PreDestroy
+import org.springframework.stereotype.Service
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.LocalDateTime
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * File sink for the FILE_STORE and FULL_STORE events.
+ *
+ * Every applicationName has its own SegmentedLog in the directory <filePath>/<ApplicationName> and one
+ * ApplicationFileWriter that keeps the active segment open, instead of opening and closing a .txt file for
+ * every event. All consumer threads share the same writer, so the records are never interleaved.
+ *
+ * The records are the BSON of the event written by the EventCodec, i.e., the same document that is stored in
+ * the mongo database, so FILE_STORE only events can be queried by date or by id without a linear scan of the files.
+ *
+ * Durability: append() only enqueues the record. With 'audit-service.file.sync-before-ack' the consumers call sync()
+ * before returning, i.e., before the Kafka offset is committed, so an acknowledged event is always on disk. Without
+ * it a crash loses the records not yet forced by the FsyncPolicy, even if their offsets have been committed.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventFileSink(private val serviceConfig: ServiceConfig,
+                    private val eventCodec: EventCodec): HasLogger {
+
+    private val writers = ConcurrentHashMap<String, ApplicationFileWriter>()
+    private val readers = ConcurrentHashMap<String, SegmentedLog>()
+    // ^ logs of the applications without writer, opened read only by the queries and refreshed by each of them
+
+    /**
+     * Appends the event. With 'ifAbsent' it is skipped if the log already has its id, e.g., a FULL_STORE event
+     * redelivered because its file append failed after mongo stored it.
+     */
+    fun append(event: Event, ifAbsent: Boolean = false) {
+        try {
+            writer(event.applicationName).append(FileRecord(toEpochMilli(event.eventDate), event.id,
+                                                            eventCodec.toBytes(event), ifAbsent = ifAbsent))
+        } catch (e: IOException) {
+            logger.error("An error occurred opening the log for ${event.applicationName}", e)
+        }
+    }
+
+    /**
+     * Waits until the events of the applications appended before the call are forced to disk (see
+     * ApplicationFileWriter.sync)
+     *
+     * @throws IOException if some of them could not be written, or the log of the application could not be opened
+     */
+    fun sync(applicationNames: Collection<String>) {
+        applicationNames.forEach {
+            (writers[it] ?: throw IOException("The log for $it is not open")).sync(serviceConfig.fileSyncTimeoutMs)
+        }
+    }
+
+    /**
+     * Reads the events stored for the application with from <= eventDate <= to
+     */
+    fun find(applicationName: String, from: LocalDateTime, to: LocalDateTime, limit: Int): List<Event> {
+        if (!exists(applicationName)) return emptyList()
+
+        return log(applicationName).read(toEpochMilli(from), toEpochMilli(to), limit).map { eventCodec.fromBytes(it) }
+    }
+
+    fun findById(applicationName: String, id: UUID): Event? {
+        if (!exists(applicationName)) return null
+
+        return log(applicationName).find(id)?.let { eventCodec.fromBytes(it) }
+    }
+
+    /**
+     * The log of the writer or, if the application has not been written by this instance, a read only log, so a
+     * query does not start a writer thread. The read only log is refreshed, so the query sees the segments rolled
+     * and the records appended by the instance that writes the application.
+     */
+    private fun log(applicationName: String): SegmentedLog =
+        writers[applicationName]?.log ?: readers.computeIfAbsent(applicationName) {
+            SegmentedLog(directory(applicationName),
+                         serviceConfig.fileSegmentBytes,
+                         serviceConfig.fileSegmentMs,
+                         serviceConfig.fileIndexIntervalBytes,
+                         readOnly = true)
+        }.apply { refresh() }
+
+    private fun writer(applicationName: String): ApplicationFileWriter =
+        writers.computeIfAbsent(applicationName) {
+            logger.debug("Open the file sink for $applicationName")
+            readers.remove(applicationName)
+            // ^ from now on the queries read the log of the writer, that has the new segments
+            ApplicationFileWriter(SegmentedLog(directory(applicationName),
+                                               serviceConfig.fileSegmentBytes,
+                                               serviceConfig.fileSegmentMs,
+                                               serviceConfig.fileIndexIntervalBytes),
+                                  serviceConfig.fileFsync,
+                                  serviceConfig.fileFsyncEvents,
+                                  serviceConfig.fileFsyncIntervalMs,
+                                  serviceConfig.fileQueueCapacity)
+        }
+
+    private fun exists(applicationName: String) =
+        writers.containsKey(applicationName) || Files.isDirectory(directory(applicationName))
+
+    /**
+     * The applicationName comes from the producers (and from the GraphQL queries), so it is sanitized
+     * before using it as a directory name.
+     */
+    private fun directory(applicationName: String): Path =
+        Path.of(serviceConfig.filePath, applicationName.replace(UNSAFE_CHARS, "_").replace("..", "__"))
+
+    private fun toEpochMilli(date: LocalDateTime) = EventCodec.toEpochMilli(date)
+
+    @PreDestroy
+    fun close() {
+        writers.values.forEach { it.close() }
+        writers.clear()
+        readers.clear()
+    }
+
+    companion object {
+        private val UNSAFE_CHARS = Regex("[^A-Za-z0-9._-]")
+    }
+}
@@ -0,0 +1,428 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  LogSegment.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.*
+import java.util.zip.CRC32C
+
+/**
+ * One segment of a SegmentedLog. A segment is two files:
+ *
+ *  - <base>.log: the records, one per event:
+ *      int length | int crc32c | long eventDate (epoch ms) | long id msb | long id lsb | payload
+ *    where length counts all bytes after the length itself and the crc covers the same bytes.
+ *  - <base>.idx: the sparse index, one entry every 'index-interval-bytes' of log:
+ *      long max eventDate of all previous records | long position of the record
+ *    Because the first value is a running maximum the entries are sorted, and all records before
+ *    an entry with a value < from can be skipped in a range scan.
+ *
+ * Only the writer thread of the SegmentedLog appends to a segment. The readers map the files in read
+ * only mode up to the 'size' committed by the writer, read once per query. The positions are Long and the log is
+ * mapped in windows, so a segment is not limited to 2GB.
+ *
+ * The lookups by id use an in-memory index of the segment sorted by id (24 bytes per record), built in the first
+ * lookup of the segment.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+class LogSegment(val base: Long, dir: Path) {
+
+    val logPath: Path = dir.resolve(String.format("%020d.log", base))
+    val indexPath: Path = dir.resolve(String.format("%020d.idx", base))
+
+    @Volatile var size = 0L
+        private set
+    @Volatile private var minDate = Long.MAX_VALUE
+    @Volatile private var maxDate = Long.MIN_VALUE
+    @Volatile private var boundsKnown = false
+
+    private var logChannel: FileChannel? = null
+    private var indexChannel: FileChannel? = null
+    private var bytesSinceIndex = 0L
+    private val crc = CRC32C()
+    private val indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+    @Volatile private var idIndex: IdIndex? = null
+
+    /**
+     * Opens the segment for appending. If the segment already exists (i.e., restart) the records are
+     * validated and any torn record at the tail (i.e., crash in the middle of a write) is truncated.
+     */
+    fun openForAppend() {
+        logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE)
+        indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                   StandardOpenOption.WRITE)
+        size = logChannel!!.size()
+        scanBounds()
+        logChannel!!.truncate(size)
+        logChannel!!.position(size)
+        val validEntries = countValidIndexEntries()
+
+        indexChannel!!.truncate(validEntries * INDEX_ENTRY_SIZE)
+        indexChannel!!.position(validEntries * INDEX_ENTRY_SIZE)
+        bytesSinceIndex = if (size == 0L) 0L else INDEX_INTERVAL_UNKNOWN
+    }
+
+    /**
+     * Loads an existing (closed) segment. The date bounds are computed lazily in the first query.
+     */
+    fun openForRead() {
+        size = Files.size(logPath)
+    }
+
+    /**
+     * Reads the records appended by another process (i.e., the segment of a read only log). Only the new records
+     * are validated, and a torn record at the tail is not read until it is complete.
+     */
+    @Synchronized
+    fun refresh() {
+        scanBounds()
+        validate(size, Files.size(logPath))
+    }
+
+    fun append(eventDate: Long, id: UUID, payload: ByteArray, indexIntervalBytes: Int) {
+        val channel = logChannel ?: throw IllegalStateException("Segment $logPath is not open for append")
+        val record = ByteBuffer.allocate(HEADER_SIZE + payload.size)
+
+        record.putInt(HEADER_SIZE - Int.SIZE_BYTES + payload.size)
+        record.putInt(0)                                // crc, filled below
+        record.putLong(eventDate)
+        record.putLong(id.mostSignificantBits)
+        record.putLong(id.leastSignificantBits)
+        record.put(payload)
+        crc.reset()
+        crc.update(record.array(), CRC_START, record.capacity() - CRC_START)
+        record.putInt(Int.SIZE_BYTES, crc.value.toInt())
+        record.flip()
+
+        val position = size
+
+        if (position == 0L || bytesSinceIndex >= indexIntervalBytes) {
+            indexEntry.clear()
+            indexEntry.putLong(maxDate)
+            indexEntry.putLong(position)
+            indexEntry.flip()
+            while (indexEntry.hasRemaining())
+                indexChannel!!.write(indexEntry)
+            bytesSinceIndex = 0
+        }
+        while (record.hasRemaining())
+            channel.write(record)
+        bytesSinceIndex += record.capacity()
+        if (eventDate < minDate) minDate = eventDate
+        if (eventDate > maxDate) maxDate = eventDate
+        size = position + record.capacity()
+        // ^ publish the new size to the readers after the record has been written
+    }
+
+    fun force() {
+        logChannel?.force(false)
+        indexChannel?.force(false)
+    }
+
+    fun close() {
+        logChannel?.close()
+        indexChannel?.close()
+        logChannel = null
+        indexChannel = null
+    }
+
+    fun overlaps(from: Long, to: Long): Boolean {
+        if (!boundsKnown) scanBounds()
+
+        return size > 0 && minDate <= to && maxDate >= from
+    }
+
+    /**
+     * Visits in the file order all records with from <= eventDate <= to. The visitor returns false to stop.
+     */
+    fun scan(from: Long, to: Long, visitor: (Long, UUID, ByteBuffer) -> Boolean): Boolean {
+        if (!overlaps(from, to)) return true
+
+        val end = size
+        // ^ read once: the writer keeps moving it while we scan
+        val log = MappedRange(logPath, end)
+        var position = seek(from, end)
+
+        while (position + HEADER_SIZE <= end) {
+            val header = log.at(position, HEADER_SIZE)
+            val offset = log.offset(position)
+            val length = header.getInt(offset)
+            val date = header.getLong(offset + DATE_OFFSET)
+
+            if (date in from..to) {
+                val id = UUID(header.getLong(offset + ID_OFFSET), header.getLong(offset + ID_OFFSET + 8))
+
+                if (!visitor(date, id, payload(log, position, length))) return false
+            }
+            position += Int.SIZE_BYTES + length
+        }
+        return true
+    }
+
+    /**
+     * Finds the record for the event id with the id index of the segment (see IdIndex)
+     */
+    fun find(id: UUID): ByteBuffer? {
+        val end = size
+        val log = MappedRange(logPath, end)
+        val index = idIndex(end, log)
+        var position = index.find(id)
+
+        if (position >= 0) return payload(log, position, log.at(position, HEADER_SIZE).getInt(log.offset(position)))
+
+        position = index.end
+        // ^ the records appended after the index was updated
+        while (position + HEADER_SIZE <= end) {
+            val header = log.at(position, HEADER_SIZE)
+            val offset = log.offset(position)
+            val length = header.getInt(offset)
+
+            if (header.getLong(offset + ID_OFFSET) == id.mostSignificantBits &&
+                header.getLong(offset + ID_OFFSET + 8) == id.leastSignificantBits)
+                return payload(log, position, length)
+            position += Int.SIZE_BYTES + length
+        }
+        return null
+    }
+
+    /**
+     * The id index up to 'end'. It is built in the first lookup and, for the active segment, extended when more
+     * than ID_INDEX_TAIL_BYTES have been appended after it; the (small) rest is scanned by find.
+     */
+    @Synchronized
+    private fun idIndex(end: Long, log: MappedRange): IdIndex {
+        val current = idIndex ?: IdIndex.EMPTY
+
+        if (end - current.end <= ID_INDEX_TAIL_BYTES && current !== IdIndex.EMPTY) return current
+
+        val ids = ArrayList<LongArray>()
+        var position = current.end
+
+        while (position + HEADER_SIZE <= end) {
+            val header = log.at(position, HEADER_SIZE)
+            val offset = log.offset(position)
+
+            ids.add(longArrayOf(header.getLong(offset + ID_OFFSET), header.getLong(offset + ID_OFFSET + 8), position))
+            position += Int.SIZE_BYTES + header.getInt(offset)
+        }
+        idIndex = current.merge(ids, position)
+
+        return idIndex!!
+    }
+
+    /**
+     * Binary search in the sparse index the last entry whose running max date is < from
+     */
+    private fun seek(from: Long, end: Long): Long {
+        val indexSize = Files.size(indexPath)
+        if (indexSize < INDEX_ENTRY_SIZE) return 0L
+
+        val index = map(indexPath, 0L, indexSize - indexSize % INDEX_ENTRY_SIZE)
+        var low = 0
+        var high = (index.capacity() / INDEX_ENTRY_SIZE) - 1
+        var result = 0L
+
+        while (low <= high) {
+            val mid = (low + high) ushr 1
+            val maxDateBefore = index.getLong(mid * INDEX_ENTRY_SIZE)
+
+            if (maxDateBefore < from) {
+                result = index.getLong(mid * INDEX_ENTRY_SIZE + Long.SIZE_BYTES)
+                low = mid + 1
+            } else
+                high = mid - 1
+        }
+        return if (result < end) result else 0L
+    }
+
+    /**
+     * Validates all records (length and crc) computing the date bounds. The size is adjusted to the last
+     * valid record.
+     */
+    @Synchronized
+    private fun scanBounds() {
+        if (boundsKnown) return
+
+        validate(0L, size)
+        boundsKnown = true
+    }
+
+    /**
+     * Validates the records in [from, end) extending the date bounds. The size is adjusted to the last valid record.
+     */
+    private fun validate(from: Long, end: Long) {
+        if (end <= from) return
+
+        val log = MappedRange(logPath, end)
+        val validator = CRC32C()
+        var position = from
+        var min = minDate
+        var max = maxDate
+
+        while (position + HEADER_SIZE <= end) {
+            val length = log.at(position, HEADER_SIZE).getInt(log.offset(position))
+
+            if (length < HEADER_SIZE - Int.SIZE_BYTES || position + Int.SIZE_BYTES + length > end) break
+            val record = log.at(position, Int.SIZE_BYTES + length)
+            val offset = log.offset(position)
+
+            validator.reset()
+            validator.update(record.slice(offset + CRC_START, length - Int.SIZE_BYTES))
+            if (validator.value.toInt() != record.getInt(offset + Int.SIZE_BYTES)) break
+
+            val date = record.getLong(offset + DATE_OFFSET)
+
+            if (date < min) min = date
+            if (date > max) max = date
+            position += Int.SIZE_BYTES + length
+        }
+        minDate = min
+        maxDate = max
+        size = position
+    }
+
+    private fun countValidIndexEntries(): Long {
+        val entries = indexChannel!!.size() / INDEX_ENTRY_SIZE
+        if (entries == 0L) return 0L
+
+        val index = indexChannel!!.map(FileChannel.MapMode.READ_ONLY, 0, entries * INDEX_ENTRY_SIZE)
+        var valid = 0L
+
+        while (valid < entries && index.getLong((valid * INDEX_ENTRY_SIZE + Long.SIZE_BYTES).toInt()) < size)
+            valid++
+
+        return valid
+    }
+
+    private fun payload(log: MappedRange, position: Long, length: Int): ByteBuffer =
+        log.at(position, Int.SIZE_BYTES + length).slice(log.offset(position) + HEADER_SIZE,
+                                                       Int.SIZE_BYTES + length - HEADER_SIZE)
+
+    /**
+     * Read only mapping of [0, end) of a file in windows of at most MAP_WINDOW_BYTES, so the positions are
+     * Long and a segment can be bigger than the 2GB of one MappedByteBuffer.
+     */
+    private class MappedRange(private val path: Path, private val end: Long) {
+        private var buffer: MappedByteBuffer? = null
+        private var start = 0L
+
+        /**
+         * The buffer that has [position, position + length) mapped, at offset(position)
+         */
+        fun at(position: Long, length: Int): MappedByteBuffer {
+            val current = buffer
+
+            if (current != null && position >= start && position + length <= start + current.capacity())
+                return current
+
+            start = position
+            buffer = map(path, position, minOf(end - position, maxOf(MAP_WINDOW_BYTES, length.toLong())))
+
+            return buffer!!
+        }
+
+        fun offset(position: Long) = (position - start).toInt()
+    }
+
+    /**
+     * The ids of the records of a segment sorted by (msb, lsb) with their positions
+     */
+    private class IdIndex(private val msb: LongArray, private val lsb: LongArray, private val positions: LongArray,
+                          val end: Long) {
+
+        /**
+         * The position of the record or -1
+         */
+        fun find(id: UUID): Long {
+            var low = 0
+            var high = msb.size - 1
+
+            while (low <= high) {
+                val mid = (low + high) ushr 1
+                val cmp = compare(msb[mid], lsb[mid], id.mostSignificantBits, id.leastSignificantBits)
+
+                if (cmp == 0) return positions[mid]
+                if (cmp < 0) low = mid + 1 else high = mid - 1
+            }
+            return -1L
+        }
+
+        /**
+         * A new index with the (msb, lsb, position) entries of the records in [end, newEnd)
+         */
+        fun merge(entries: List<LongArray>, newEnd: Long): IdIndex {
+            val added = entries.sortedWith { a, b -> compare(a[0], a[1], b[0], b[1]) }
+            val size = msb.size + added.size
+            val newMsb = LongArray(size)
+            val newLsb = LongArray(size)
+            val newPositions = LongArray(size)
+            var i = 0
+            var j = 0
+
+            for (k in 0 until size) {
+                if (j >= added.size || (i < msb.size && compare(msb[i], lsb[i], added[j][0], added[j][1]) <= 0)) {
+                    newMsb[k] = msb[i]; newLsb[k] = lsb[i]; newPositions[k] = positions[i]; i++
+                } else {
+                    newMsb[k] = added[j][0]; newLsb[k] = added[j][1]; newPositions[k] = added[j][2]; j++
+                }
+            }
+            return IdIndex(newMsb, newLsb, newPositions, newEnd)
+        }
+
+        companion object {
+            val EMPTY = IdIndex(LongArray(0), LongArray(0), LongArray(0), 0L)
+
+            private fun compare(msb1: Long, lsb1: Long, msb2: Long, lsb2: Long): Int {
+                val cmp = msb1.compareTo(msb2)
+
+                return if (cmp != 0) cmp else lsb1.compareTo(lsb2)
+            }
+        }
+    }
+
+    companion object {
+        const val HEADER_SIZE = 4 + 4 + 8 + 8 + 8
+        const val INDEX_ENTRY_SIZE = 16
+        private const val CRC_START = 8
+        private const val DATE_OFFSET = 8
+        private const val ID_OFFSET = 16
+        private const val INDEX_INTERVAL_UNKNOWN = Long.MAX_VALUE / 2
+        // ^ after a restart we do not know how many bytes were written since the last index entry, so index now
+        private const val MAP_WINDOW_BYTES = 64L * 1024 * 1024
+        private const val ID_INDEX_TAIL_BYTES = 256L * 1024
+
+        private fun map(path: Path, position: Long, length: Long): MappedByteBuffer =
+            FileChannel.open(path, StandardOpenOption.READ).use {
+                it.map(FileChannel.MapMode.READ_ONLY, position, length)
+            }
+    }
+}
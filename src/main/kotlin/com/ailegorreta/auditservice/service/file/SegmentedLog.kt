@@ -0,0 +1,167 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  SegmentedLog.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.*
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Append only log stored as rolling segments in one directory (see LogSegment for the record format).
+ *
+ * A new segment is started when the active segment reaches 'segmentBytes' or is older than 'segmentMs'.
+ * The appends must be done by just one thread (i.e., the ApplicationFileWriter thread), while the reads
+ * can be done concurrently by any thread and use memory-mapped I/O.
+ *
+ * A log opened 'readOnly' (i.e., of an application without writer in this instance) does not create, truncate nor
+ * roll any segment, and must be refreshed to see the changes of its writer (see refresh).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+class SegmentedLog(val dir: Path,
+                   private val segmentBytes: Long,
+                   private val segmentMs: Long,
+                   private val indexIntervalBytes: Int,
+                   private val readOnly: Boolean = false) {
+
+    private val segments = CopyOnWriteArrayList<LogSegment>()
+    private var activeCreated = 0L
+
+    init {
+        if (!readOnly) Files.createDirectories(dir)
+        bases().forEach { segments.add(LogSegment(it, dir)) }
+        if (readOnly)
+            segments.forEach { it.openForRead() }
+        else {
+            segments.dropLast(1).forEach { it.openForRead() }
+            if (segments.isEmpty()) {
+                roll()
+            } else {
+                segments.last().openForAppend()
+                activeCreated = segments.last().base
+            }
+        }
+    }
+
+    /**
+     * A read only log reads the segments rolled and the records appended by the writer (e.g., of another instance)
+     * since the last call, so it is called before every read. The appended records are validated incrementally.
+     */
+    @Synchronized
+    fun refresh() {
+        if (!readOnly) return
+
+        val last = segments.lastOrNull()
+        val rolled = bases().filter { it > (last?.base ?: Long.MIN_VALUE) }
+        // ^ listed before the refresh of the last segment: once rolled, the writer does not append to it
+
+        last?.refresh()
+        rolled.forEach { base -> segments.add(LogSegment(base, dir).apply { openForRead(); refresh() }) }
+    }
+
+    private fun bases(): List<Long> =
+        Files.list(dir).use { files ->
+            files.map { it.fileName.toString() }
+                 .filter { it.endsWith(".log") }
+                 .map { it.removeSuffix(".log").toLong() }
+                 .sorted()
+                 .toList()
+        }
+
+    private val active: LogSegment
+        get() = segments.last()
+
+    fun append(eventDate: Long, id: UUID, payload: ByteArray) {
+        check(!readOnly) { "The log $dir is read only" }
+        val now = System.currentTimeMillis()
+
+        if (active.size > 0 && (active.size + LogSegment.HEADER_SIZE + payload.size > segmentBytes ||
+                                now - activeCreated >= segmentMs))
+            roll()
+        active.append(eventDate, id, payload, indexIntervalBytes)
+    }
+
+    fun force() {
+        if (segments.isNotEmpty()) active.force()
+    }
+
+    fun close() {
+        if (segments.isEmpty()) return
+        active.force()
+        active.close()
+    }
+
+    /**
+     * Returns the payloads of the records with from <= eventDate <= to (in epoch ms), at most limit records
+     * in the order they were appended.
+     */
+    fun read(from: Long, to: Long, limit: Int): List<ByteBuffer> {
+        val result = ArrayList<ByteBuffer>()
+
+        for (segment in segments) {
+            val more = segment.scan(from, to) { _, _, payload ->
+                result.add(payload)
+                result.size < limit
+            }
+            if (!more) break
+        }
+        return result
+    }
+
+    /**
+     * Returns the payload of the event id. The newest segments are searched first.
+     */
+    fun find(id: UUID): ByteBuffer? {
+        for (segment in segments.reversed()) {
+            val payload = segment.find(id)
+
+            if (payload != null) return payload
+        }
+        return null
+    }
+
+    /**
+     * True if the log has the event id. Only the segments whose date range has the eventDate are searched.
+     */
+    fun contains(eventDate: Long, id: UUID): Boolean =
+        segments.reversed().any { it.overlaps(eventDate, eventDate) && it.find(id) != null }
+
+    private fun roll() {
+        var base = System.currentTimeMillis()
+
+        if (segments.isNotEmpty()) {
+            active.force()
+            active.close()
+            base = maxOf(base, active.base + 1)
+        }
+        val segment = LogSegment(base, dir)
+
+        segment.openForAppend()
+        segments.add(segment)
+        activeCreated = base
+    }
+}
@@ -0,0 +1,265 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  NotificationBuffer.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.notification
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.domain.QEvent
+import com.ailegorreta.auditservice.gql.types.Notification
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.commons.utils.HasLogger
+import com.querydsl.core.types.Predicate
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.data.domain.Sort
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneId
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * In-memory notifications of the last 'audit-service.notifications.window-days' days, so the 'notifications'
+ * query does not read mongo on every page load: a ring buffer per user of at most 'user-capacity' notifications
+ * and one of 'broadcast-capacity' for the notifications to all the users (username '*').
+ *
+ * The buffers are loaded from mongo at startup and then refreshed every 'refresh-ms' with the notifications stored
+ * since the last load (i.e., the ones of the other instances, read with the storedAt index). The refresh is by
+ * insertion order (see Event.storedAt), not by eventDate, because the eventDate is the time of the Kafka record:
+ * a notification stored late (consumer lag, spool replay) has an old eventDate but a new storedAt. The notifications
+ * of this instance are added when they are stored (see EventService.processNotification). So a restart only needs
+ * a new load, and until it finishes the queries read mongo.
+ *
+ * A ring that drops a notification still in the window is 'truncated' until that notification leaves the window:
+ * meanwhile the queries of that user read mongo. So the buffers answer like mongo (see notificationsFromMongo)
+ * except for the notifications stored by the other instances since the last refresh, i.e., at most 'refresh-ms' late.
+ *
+ * The buffers are also the journal of the subscriptions that resume from a time (see replay).
+ *
+ * Metrics: 'audit.notifications.buffered' and 'audit.notifications.replays' (by source).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class NotificationBuffer(private val serviceConfig: ServiceConfig,
+                         private val eventRepository: EventRepository,
+                         private val eventBodyCompressor: EventBodyCompressor,
+                         meterRegistry: MeterRegistry): HasLogger {
+
+    private class Entry(val id: UUID, val eventDate: LocalDateTime, val notification: Notification)
+
+    private class Ring(private val capacity: Int) {
+        private val entries = ArrayList<Entry>()
+        // ^ sorted by eventDate
+        private var truncatedUntil: LocalDateTime? = null
+
+        @Synchronized
+        fun add(entry: Entry, windowStart: LocalDateTime) {
+            if (entry.eventDate.isBefore(windowStart) || entries.any { it.id == entry.id }) return
+            // ^ the same notification stored by this instance and read by the refresh
+
+            var index = entries.size
+
+            while (index > 0 && entries[index - 1].eventDate.isAfter(entry.eventDate)) index--
+            entries.add(index, entry)
+            prune(windowStart)
+            while (entries.size > capacity) {
+                val dropped = entries.removeAt(0)
+
+                truncatedUntil = truncatedUntil?.let { maxOf(it, dropped.eventDate) } ?: dropped.eventDate
+            }
+        }
+
+        /**
+         * The notifications in the window or null if the ring is truncated
+         */
+        @Synchronized
+        fun notifications(windowStart: LocalDateTime): List<Notification>? {
+            prune(windowStart)
+            if (truncatedUntil != null) return null
+
+            return entries.map { it.notification }
+        }
+
+        /**
+         * The notifications after 'from' or null if some of them have been dropped
+         */
+        @Synchronized
+        fun after(from: LocalDateTime, windowStart: LocalDateTime): List<Notification>? {
+            prune(windowStart)
+            if (truncatedUntil?.isBefore(from) == false) return null
+
+            return entries.filter { it.eventDate.isAfter(from) }.map { it.notification }
+        }
+
+        @Synchronized
+        fun size() = entries.size
+
+        private fun prune(windowStart: LocalDateTime) {
+            val expired = entries.indexOfFirst { !it.eventDate.isBefore(windowStart) }.let { if (it < 0) entries.size else it }
+
+            entries.subList(0, expired).clear()
+            if (truncatedUntil?.isBefore(windowStart) == true) truncatedUntil = null
+            // ^ the dropped notifications have left the window
+        }
+    }
+
+    private val users = ConcurrentHashMap<String, Ring>()
+    private val broadcast = Ring(serviceConfig.notificationsBroadcastCapacity)
+    @Volatile private var ready = false
+    @Volatile private var loadedUntil: LocalDateTime? = null
+
+    private val replayedFromMemory = Counter.builder("audit.notifications.replays").tag("source", "memory")
+                                            .register(meterRegistry)
+    private val replayedFromMongo = Counter.builder("audit.notifications.replays").tag("source", "mongo")
+                                           .register(meterRegistry)
+
+    init {
+        Gauge.builder("audit.notifications.buffered") { users.values.sumOf { it.size() } + broadcast.size() }
+             .register(meterRegistry)
+    }
+
+    fun windowStart(): LocalDateTime = LocalDateTime.now().minusDays(serviceConfig.notificationsWindowDays)
+
+    /**
+     * Adds a stored notification event (with its eventBody not compressed)
+     */
+    fun add(event: Event) {
+        if (event.eventName != NOTIFICATION || event.eventDate == null) return
+
+        val notification = toNotification(event) ?: return
+        val entry = Entry(event.id, event.eventDate, notification)
+
+        if (event.username == BROADCAST)
+            broadcast.add(entry, windowStart())
+        else
+            users.computeIfAbsent(event.username) { Ring(serviceConfig.notificationsUserCapacity) }
+                 .add(entry, windowStart())
+    }
+
+    /**
+     * The notifications of the user and the ones to all the users in the window, sorted by time; null if they
+     * must be read from mongo (i.e., the buffers are not loaded or are truncated).
+     */
+    fun notifications(username: String): List<Notification>? {
+        if (!ready || !serviceConfig.notificationsBuffer) return null
+
+        val windowStart = windowStart()
+        val ring = users[username]
+        val user = if (ring == null) emptyList() else ring.notifications(windowStart) ?: return null
+        val all = broadcast.notifications(windowStart) ?: return null
+
+        return if (username == BROADCAST) all else (user + all).sortedBy { it.time }
+    }
+
+    /**
+     * The notifications of the user and the ones to all the users after 'since' (and in the window), sorted by time,
+     * for a subscription that resumes from its last notification. They are read from the buffers when they have all
+     * of them and from mongo otherwise, so the reconnections after a deploy do not read mongo.
+     */
+    fun replay(username: String, since: Instant): List<Notification> {
+        val windowStart = windowStart()
+        val from = maxOf(LocalDateTime.ofInstant(since, ZoneId.systemDefault()), windowStart)
+
+        if (ready && serviceConfig.notificationsBuffer) {
+            val user = users[username]?.let { it.after(from, windowStart) ?: return replayFromMongo(username, from) }
+            val all = broadcast.after(from, windowStart) ?: return replayFromMongo(username, from)
+
+            replayedFromMemory.increment()
+            return if (username == BROADCAST) all else ((user ?: emptyList()) + all).sortedBy { it.time }
+        }
+
+        return replayFromMongo(username, from)
+    }
+
+    /**
+     * The notifications of the user and the ones to all the users in the window read from mongo, e.g., while the
+     * buffers are not loaded. Like the ones of the buffers they are sorted by time and the events without the
+     * notification fields are skipped (see toNotification).
+     */
+    fun notificationsFromMongo(username: String): List<Notification> =
+        fromMongo(username, QEvent.event.eventDate.goe(windowStart()))
+
+    private fun replayFromMongo(username: String, from: LocalDateTime): List<Notification> {
+        replayedFromMongo.increment()
+        return fromMongo(username, QEvent.event.eventDate.after(from))
+    }
+
+    private fun fromMongo(username: String, dates: Predicate): List<Notification> {
+        val query = QEvent.event.eventName.eq(NOTIFICATION)
+                          .and(QEvent.event.username.`in`(username, BROADCAST))
+                          .and(dates)
+
+        return eventRepository.findAll(query, Sort.by(Sort.Direction.ASC, "eventDate")).mapNotNull { event ->
+            event.eventBody = eventBodyCompressor.decompress(event.eventBody)
+            toNotification(event)
+        }
+    }
+
+    @Scheduled(fixedDelayString = "\${audit-service.notifications.refresh-ms:30000}")
+    fun refresh() {
+        if (!serviceConfig.notificationsBuffer) return
+
+        try {
+            val now = LocalDateTime.now()
+            val storedFrom = loadedUntil?.minusSeconds(REFRESH_OVERLAP_SECONDS)
+            // ^ overlap for the inserts in flight and the clock skew of the other instances, the duplicates are ignored
+            val query = QEvent.event.eventName.eq(NOTIFICATION).and(QEvent.event.eventDate.goe(windowStart()))
+                              .and(storedFrom?.let { QEvent.event.storedAt.goe(it) })
+
+            eventRepository.findAll(query, Sort.by(Sort.Direction.ASC, "eventDate")).forEach { event ->
+                event.eventBody = eventBodyCompressor.decompress(event.eventBody)
+                add(event)
+            }
+            users.entries.removeIf { it.value.notifications(windowStart())?.isEmpty() == true }
+            loadedUntil = now
+            ready = true
+        } catch (e: Exception) {
+            logger.warn("The notification buffers could not be refreshed: ${e.message}")
+        }
+    }
+
+    companion object {
+        const val NOTIFICATION = "NOTIFICACION"
+        const val BROADCAST = "*"
+        private const val REFRESH_OVERLAP_SECONDS = 60L
+
+        /**
+         * The Notification of a notification event or null if its eventBody has not the notification fields
+         */
+        fun toNotification(event: Event): Notification? {
+            val eventBody = event.eventBody as? Map<*, *> ?: return null
+
+            return Notification(event.username,
+                                eventBody["notificaFacultad"] as? String ?: return null,
+                                eventBody["datos"] as? String ?: return null,
+                                event.eventDate.atZone(ZoneId.systemDefault()).toInstant())
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  NotificationSubscriptions.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.notification
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.gql.types.Notification
+import com.ailegorreta.commons.utils.HasLogger
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.stereotype.Service
+import reactor.core.publisher.BufferOverflowStrategy
+import reactor.core.publisher.Flux
+import reactor.core.publisher.FluxSink
+import reactor.core.publisher.Mono
+import reactor.core.publisher.Sinks
+import reactor.core.scheduler.Schedulers
+import java.time.Instant
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Registry of the 'notification(username)' subscriptions by username, so a notification is sent only to the
+ * sessions of its user (or to all the sessions if it is to all the users, username '*') instead of to every
+ * subscriber as the multicast notificationSink does: the cost of a notification is the number of its recipients.
+ *
+ * A subscription can be resumed from the time of its last notification: the missed ones are replayed from the
+ * NotificationBuffer (or from mongo if the buffer does not have all of them).
+ *
+ * Each session has its own buffer of 'audit-service.notifications.subscriber-buffer' notifications; a slow client
+ * loses its oldest notifications and does not delay the other sessions nor the ingestion.
+ *
+ * Metrics: 'audit.notifications.subscribers', 'audit.notifications.delivered' and 'audit.notifications.dropped'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class NotificationSubscriptions(private val serviceConfig: ServiceConfig,
+                                private val notificationBuffer: NotificationBuffer,
+                                meterRegistry: MeterRegistry): HasLogger {
+
+    private val sessions = ConcurrentHashMap<String, MutableSet<FluxSink<Notification>>>()
+    private val delivered = Counter.builder("audit.notifications.delivered").register(meterRegistry)
+    private val dropped = Counter.builder("audit.notifications.dropped").register(meterRegistry)
+
+    init {
+        Gauge.builder("audit.notifications.subscribers") { subscribers() }
+             .register(meterRegistry)
+    }
+
+    /**
+     * The notifications of the user and the ones to all the users, from now on
+     */
+    fun subscribe(username: String): Flux<Notification> =
+        Flux.create<Notification> { sink ->
+                sessions.compute(username) { _, sinks ->
+                    (sinks ?: ConcurrentHashMap.newKeySet()).apply { add(sink) }
+                }
+                sink.onDispose {
+                    sessions.computeIfPresent(username) { _, sinks ->
+                        sinks.remove(sink)
+                        if (sinks.isEmpty()) null else sinks
+                    }
+                }
+            }
+            .onBackpressureBuffer(serviceConfig.notificationsSubscriberBuffer,
+                                  { dropped.increment() },
+                                  BufferOverflowStrategy.DROP_OLDEST)
+
+    /**
+     * Resumes a subscription: the notifications after 'since' (i.e., the time of the last notification received
+     * before the disconnection) and then the new ones. The session is registered before the replay is read, so no
+     * notification is lost between both; the ones in both are sent once.
+     */
+    fun subscribe(username: String, since: Instant): Flux<Notification> =
+        Flux.defer {
+            // a unicast sink keeps what arrives until the replay has been sent (publish() would drop it while
+            // nobody is subscribed to the live part)
+            val live = Sinks.many().unicast().onBackpressureBuffer<Notification>()
+            val session = subscribe(username).subscribe({ live.tryEmitNext(it) },
+                                                        { live.tryEmitError(it) },
+                                                        { live.tryEmitComplete() })
+            // ^ registered now, buffered until the replay has been sent
+
+            Mono.fromCallable { notificationBuffer.replay(username, since) }
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapMany { replayed ->
+                    val sent = replayed.toHashSet()
+
+                    Flux.fromIterable(replayed).concatWith(live.asFlux().filter { it !in sent })
+                }
+                .onBackpressureBuffer(serviceConfig.notificationsSubscriberBuffer,
+                                      { dropped.increment() },
+                                      BufferOverflowStrategy.DROP_OLDEST)
+                .doFinally { session.dispose() }
+        }
+
+    /**
+     * Sends the notification to the sessions of its user, or to all the sessions if it is to all the users
+     */
+    fun publish(notification: Notification) {
+        if (notification.username == NotificationBuffer.BROADCAST)
+            sessions.values.forEach { send(it, notification) }
+        else
+            sessions[notification.username]?.let { send(it, notification) }
+    }
+
+    fun subscribers() = sessions.values.sumOf { it.size }
+
+    private fun send(sinks: Set<FluxSink<Notification>>, notification: Notification) {
+        sinks.forEach { it.next(notification) }
+        delivered.increment(sinks.size.toDouble())
+    }
+}
@@ -0,0 +1,85 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionPolicy.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.commons.event.EventType
+
+/**
+ * How many days the events of an applicationName and eventType are kept. A null applicationName or eventType
+ * matches any ('*').
+ *
+ * The policies are written as 'applicationName/eventType=days' with '*' for any, e.g., 'iam-service/NON_STORE=30'.
+ * When several policies match an event the most specific one applies: the one with both fields, then the one of
+ * the applicationName, then the one of the eventType and last the default one (both '*').
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+data class RetentionPolicy(val applicationName: String?, val eventType: EventType?, val days: Long) {
+
+    val key = "${applicationName ?: ANY}/${eventType ?: ANY}"
+
+    val specificity = (if (applicationName != null) 2 else 0) + (if (eventType != null) 1 else 0)
+
+    /**
+     * True if both policies can match the same event
+     */
+    fun overlaps(other: RetentionPolicy) =
+        (applicationName == null || other.applicationName == null || applicationName == other.applicationName) &&
+        (eventType == null || other.eventType == null || eventType == other.eventType)
+
+    /**
+     * The policies that take precedence over this one for some of its events
+     */
+    fun overriddenBy(policies: List<RetentionPolicy>) =
+        policies.filter { it.specificity > specificity && overlaps(it) }
+
+    override fun toString() = "$key=$days"
+
+    companion object {
+        private const val ANY = "*"
+
+        fun parse(policy: String): RetentionPolicy {
+            val (scope, days) = policy.split("=").map { it.trim() }.takeIf { it.size == 2 }
+                                    ?: throw IllegalArgumentException("Invalid retention policy '$policy', " +
+                                                                      "expected 'applicationName/eventType=days'")
+            val (applicationName, eventType) = scope.split("/").map { it.trim() }.takeIf { it.size == 2 }
+                                    ?: throw IllegalArgumentException("Invalid retention policy scope '$scope'")
+
+            return RetentionPolicy(applicationName.takeIf { it != ANY },
+                                   eventType.takeIf { it != ANY }?.let { EventType.valueOf(it) },
+                                   days.toLong())
+        }
+
+        fun parseAll(policies: List<String>): List<RetentionPolicy> {
+            val parsed = policies.filter { it.isNotBlank() }.map { parse(it) }
+
+            parsed.groupBy { it.key }.values.firstOrNull { it.size > 1 }?.let {
+                throw IllegalArgumentException("Duplicated retention policy '${it.first().key}'")
+            }
+
+            return parsed
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionService.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventDateRange
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.auditservice.domain.EventsDeleted
+import com.ailegorreta.auditservice.domain.QEvent
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import com.ailegorreta.commons.utils.HasLogger
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PreDestroy
+import org.bson.Document
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.dao.DuplicateKeyException
+import org.springframework.data.domain.Sort
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Criteria
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.Update
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import java.time.LocalDateTime
+import java.util.*
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Background deletion of the events older than their RetentionPolicy ('audit-service.retention.policies').
+ *
+ * The expired events are deleted in batches of 'batch-size' ordered by eventDate, on its own thread so it never
+ * delays the spool replay. It yields to the ingestion:
+ *  - The pause between batches doubles (up to 'max-pause-ms') while a delete takes longer than
+ *    'target-latency-ms' and halves (down to 'min-pause-ms') when it is faster.
+ *  - The run stops while the spool has events, i.e., while mongo cannot keep up with the ingestion.
+ *
+ * The eventDate of the last deleted event of each policy is checkpointed in the 'retentionCheckpoint' collection,
+ * so an interrupted run resumes where it stopped. The same collection has the lease that lets only one instance
+ * run the retention at a time.
+ *
+ * With MONTHLY partitioning and a default policy (both '*'), the partitions older than the longest retention are dropped
+ * instead of deleting their events. The EventPartitions bean is shared with the EventRepository, so it stops listing
+ * the dropped partitions at once.
+ *
+ * Every deleted batch and dropped partition publishes an EventsDeleted application event with its eventDate range,
+ * so the cached query results of that range are invalidated (see QueryResultCache).
+ *
+ * Metrics: 'audit.retention.deleted' (tag policy), 'audit.retention.batch.time', 'audit.retention.pause' (ms) and
+ * 'audit.retention.partitions.dropped'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class RetentionService(private val serviceConfig: ServiceConfig,
+                       private val mongoTemplate: MongoTemplate,
+                       private val eventPartitions: EventPartitions,
+                       private val eventSpool: EventSpool,
+                       private val eventPublisher: ApplicationEventPublisher,
+                       private val meterRegistry: MeterRegistry): HasLogger {
+
+    private val policies = RetentionPolicy.parseAll(serviceConfig.retentionPolicies)
+    private val instanceId = UUID.randomUUID().toString()
+    private val running = AtomicBoolean(false)
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+                                Thread(runnable, "audit-retention").apply { isDaemon = true }
+                            }
+    private val pauseMs = AtomicLong(serviceConfig.retentionMinPauseMs)
+    private val batchTime = Timer.builder("audit.retention.batch.time").register(meterRegistry)
+    private val partitionsDropped = Counter.builder("audit.retention.partitions.dropped").register(meterRegistry)
+
+    init {
+        Gauge.builder("audit.retention.pause") { pauseMs.get() }.register(meterRegistry)
+    }
+
+    @Scheduled(fixedDelayString = "\${audit-service.retention.interval-ms:3600000}",
+               initialDelayString = "\${audit-service.retention.interval-ms:3600000}")
+    fun schedule() {
+        if (!serviceConfig.retentionEnabled || policies.isEmpty() || !running.compareAndSet(false, true)) return
+
+        executor.execute {
+            try {
+                run(LocalDateTime.now())
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+            } catch (e: Exception) {
+                logger.warn("The retention run stopped, it continues in the next one: ${e.message}")
+            } finally {
+                running.set(false)
+            }
+        }
+    }
+
+    /**
+     * Deletes the events expired at 'now'
+     *
+     * @return the number of deleted events, without the ones of the dropped partitions
+     */
+    fun run(now: LocalDateTime): Long {
+        if (!acquireLease()) return 0L
+
+        try {
+            dropExpiredPartitions(now)
+
+            return policies.sumOf { purge(it, now.minusDays(it.days)) }
+        } finally {
+            mongoTemplate.remove(Query(Criteria.where(ID).`is`(LEASE).and(OWNER).`is`(instanceId)), CHECKPOINTS)
+        }
+    }
+
+    private fun purge(policy: RetentionPolicy, cutoff: LocalDateTime): Long {
+        val checkpoint = mongoTemplate.findById(policy.key, Document::class.java, CHECKPOINTS)
+        var from = checkpoint?.takeIf { it[COMPLETED] == null }?.getDate(RESUME_FROM)
+        var deleted = 0L
+        val deletedCounter = Counter.builder("audit.retention.deleted").tag("policy", policy.key).register(meterRegistry)
+
+        for (partition in eventPartitions.partitionsFor(QEvent.event.eventDate.lt(cutoff))) {
+            while (true) {
+                if (!yieldToIngestion()) return deleted
+
+                val query = Query(criteria(policy, cutoff, from)).with(Sort.by(EventCodec.EVENT_DATE))
+                                                                 .limit(serviceConfig.retentionBatchSize)
+
+                query.fields().include(ID, EventCodec.EVENT_DATE)
+
+                val batch = mongoTemplate.find(query, Document::class.java, partition)
+
+                if (batch.isEmpty()) break
+
+                val start = System.nanoTime()
+                val count = mongoTemplate.remove(Query(Criteria.where(ID).`in`(batch.map { it[ID] })), partition)
+                                         .deletedCount
+                val latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+
+                batchTime.record(latencyMs, TimeUnit.MILLISECONDS)
+                deletedCounter.increment(count.toDouble())
+                deleted += count
+                if (count > 0)
+                    eventPublisher.publishEvent(EventsDeleted(range(batch.first().getDate(EventCodec.EVENT_DATE),
+                                                                    batch.last().getDate(EventCodec.EVENT_DATE)),
+                                                              count))
+                from = batch.last().getDate(EventCodec.EVENT_DATE)
+                checkpoint(policy, cutoff, from, deleted, completed = false)
+                pace(latencyMs)
+            }
+        }
+        checkpoint(policy, cutoff, from, deleted, completed = true)
+        if (deleted > 0)
+            logger.info("Retention $policy: $deleted events older than $cutoff deleted")
+
+        return deleted
+    }
+
+    /**
+     * The events of the policy older than the cutoff, without the events of the more specific policies
+     */
+    private fun criteria(policy: RetentionPolicy, cutoff: LocalDateTime, from: Date?): Criteria {
+        val criteria = Criteria.where(EventCodec.EVENT_DATE).lt(cutoff)
+
+        if (from != null) criteria.gte(from)
+        scope(policy).forEach { (field, value) -> criteria.and(field).`is`(value) }
+
+        val overridden = policy.overriddenBy(policies).map { Criteria().andOperator(scope(it).map { (field, value) ->
+                                                                  Criteria.where(field).`is`(value) }) }
+
+        return if (overridden.isEmpty()) criteria else Criteria().andOperator(criteria, Criteria().norOperator(overridden))
+    }
+
+    private fun scope(policy: RetentionPolicy): List<Pair<String, Any>> {
+        val prefix = if (serviceConfig.storageMode.isTimeSeries) "${EventCodec.META}." else ""
+
+        return listOfNotNull(policy.applicationName?.let { "$prefix${EventCodec.APPLICATION_NAME}" to it },
+                             policy.eventType?.let { "$prefix${EventCodec.EVENT_TYPE}" to it.name })
+    }
+
+    /**
+     * With a default policy, a partition whose last day is older than the longest retention has only expired events
+     */
+    private fun dropExpiredPartitions(now: LocalDateTime) {
+        if (!eventPartitions.isPartitioned || policies.none { it.specificity == 0 }) return
+
+        val cutoff = now.minusDays(policies.maxOf { it.days })
+
+        eventPartitions.partitions()
+                       .filterKeys { !it.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff) }
+                       .toList()
+                       .forEach { (month, it) ->
+                           val count = mongoTemplate.estimatedCount(it)
+                           val range = EventDateRange(month.atDay(1).atStartOfDay(),
+                                                      month.plusMonths(1).atDay(1).atStartOfDay())
+
+                           mongoTemplate.dropCollection(it)
+                           eventPartitions.remove(it)
+                           eventPublisher.publishEvent(EventsDeleted(range, count))
+                           partitionsDropped.increment()
+                           logger.info("Retention: partition $it older than $cutoff dropped")
+                       }
+    }
+
+    private fun range(from: Date, to: Date) = EventDateRange(EventCodec.toLocalDateTime(from.time),
+                                                             EventCodec.toLocalDateTime(to.time))
+
+    /**
+     * Sleeps the current pause and renews the lease
+     *
+     * @return false if the run must stop: the spool has events or the lease was lost
+     */
+    private fun yieldToIngestion(): Boolean {
+        Thread.sleep(pauseMs.get())
+
+        if (eventSpool.depth() > 0) {
+            logger.info("Retention paused until the next run: ${eventSpool.depth()} events are spooled")
+            return false
+        }
+
+        return acquireLease()
+    }
+
+    /**
+     * Adapts the pause between batches to the latency of the last delete
+     *
+     * @return the new pause
+     */
+    internal fun pace(latencyMs: Long): Long =
+        pauseMs.updateAndGet { pause ->
+            if (latencyMs > serviceConfig.retentionTargetLatencyMs)
+                minOf(maxOf(pause * 2, 1L), serviceConfig.retentionMaxPauseMs)
+            else
+                maxOf(pause / 2, serviceConfig.retentionMinPauseMs)
+        }
+
+    private fun checkpoint(policy: RetentionPolicy, cutoff: LocalDateTime, from: Date?, deleted: Long,
+                           completed: Boolean) {
+        mongoTemplate.upsert(Query(Criteria.where(ID).`is`(policy.key)),
+                             Update().set(CUTOFF, cutoff)
+                                     .set(RESUME_FROM, if (completed) null else from)
+                                     .set(DELETED, deleted)
+                                     .set(COMPLETED, if (completed) Date() else null)
+                                     .set(UPDATED, Date()),
+                             CHECKPOINTS)
+    }
+
+    /**
+     * Acquires or renews the lease of the retention, it expires after LEASE_MS without renewal
+     */
+    private fun acquireLease(): Boolean {
+        val now = Date()
+
+        return try {
+            mongoTemplate.upsert(Query(Criteria().andOperator(Criteria.where(ID).`is`(LEASE),
+                                                              Criteria().orOperator(Criteria.where(EXPIRES).lt(now),
+                                                                                    Criteria.where(OWNER).`is`(instanceId)))),
+                                 Update().set(OWNER, instanceId).set(EXPIRES, Date(now.time + LEASE_MS)),
+                                 CHECKPOINTS)
+            true
+        } catch (e: DuplicateKeyException) {
+            false           // another instance has the lease
+        }
+    }
+
+    @PreDestroy
+    fun close() {
+        executor.shutdownNow()
+    }
+
+    companion object {
+        const val CHECKPOINTS = "retentionCheckpoint"
+        private const val LEASE = "lease"
+        private const val LEASE_MS = 5 * 60 * 1000L
+        private const val ID = "_id"
+        private const val OWNER = "owner"
+        private const val EXPIRES = "expiresAt"
+        private const val CUTOFF = "cutoff"
+        private const val RESUME_FROM = "resumeFrom"
+        private const val DELETED = "deleted"
+        private const val COMPLETED = "completedAt"
+        private const val UPDATED = "updatedAt"
+    }
+}
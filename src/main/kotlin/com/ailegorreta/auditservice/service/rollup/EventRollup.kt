@@ -0,0 +1,197 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventRollup.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.rollup
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.gql.types.RollupPoint
+import com.ailegorreta.commons.event.EventType
+import com.ailegorreta.commons.utils.HasLogger
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import jakarta.annotation.PostConstruct
+import jakarta.annotation.PreDestroy
+import org.bson.Document
+import org.springframework.data.domain.Sort
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.index.Index
+import org.springframework.data.mongodb.core.query.Criteria
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.Update
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import java.time.LocalDateTime
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Counters of the events per applicationName, eventName and eventType in buckets of a minute, an hour and a day,
+ * so the dashboards read a few rollup documents instead of aggregating the events.
+ *
+ * The EventService counts every stored event (inserted or spooled, or written to the file) once it is stored, i.e.,
+ * without the duplicates rejected by the insert nor the events of a failed batch, in memory by the minute of its eventDate,
+ * and every 'audit-service.rollup.flush-ms' the counters are added ($inc upserts) to the minute, hour and day
+ * documents of the 'eventRollup' collection, so the instances add their counts to the same documents. If the flush
+ * fails the counters are kept for the next one; the counters that are not flushed when the instance stops are
+ * lost, i.e., the rollups are for the dashboards, the exact counts are the ones of the events (see EventCounter).
+ *
+ * The minute documents expire after 'audit-service.rollup.minute-retention-days' (TTL index).
+ *
+ * Metrics: 'audit.rollup.flush.time' and 'audit.rollup.flush.failed'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventRollup(private val serviceConfig: ServiceConfig,
+                  private val mongoTemplate: MongoTemplate,
+                  meterRegistry: MeterRegistry): HasLogger {
+
+    data class Key(val applicationName: String?, val eventName: String?, val eventType: EventType?,
+                   val minute: LocalDateTime)
+
+    private val counters = ConcurrentHashMap<Key, Long>()
+    private val flushTime = Timer.builder("audit.rollup.flush.time").register(meterRegistry)
+    private val flushFailed = Counter.builder("audit.rollup.flush.failed").register(meterRegistry)
+
+    @PostConstruct
+    fun createIndexes() {
+        if (!serviceConfig.rollupEnabled) return
+
+        try {
+            val indexOps = mongoTemplate.indexOps(ROLLUPS)
+
+            indexOps.ensureIndex(Index().on(GRANULARITY, Sort.Direction.ASC).on(BUCKET, Sort.Direction.ASC)
+                                        .named("granularity_bucket"))
+            indexOps.ensureIndex(Index().on(EXPIRE_AT, Sort.Direction.ASC).expire(0L, TimeUnit.SECONDS)
+                                        .named("expireAt_ttl"))
+        } catch (e: Exception) {
+            logger.warn("The indexes of the $ROLLUPS collection could not be created: ${e.message}")
+        }
+    }
+
+    fun record(event: Event) {
+        if (!serviceConfig.rollupEnabled || event.eventDate == null) return
+
+        counters.merge(Key(event.applicationName, event.eventName, event.eventType,
+                           RollupGranularity.MINUTE.bucket(event.eventDate)), 1L, Long::plus)
+        // ^ merge is atomic, so flush never loses an increment
+    }
+
+    @Scheduled(fixedDelayString = "\${audit-service.rollup.flush-ms:10000}")
+    @Synchronized
+    fun flush() {
+        if (counters.isEmpty()) return
+
+        val snapshot = HashMap<Key, Long>()
+
+        counters.keys.forEach { key -> counters.remove(key)?.let { snapshot[key] = it } }
+        flushTime.record(Runnable {
+            try {
+                write(snapshot)
+            } catch (e: Exception) {
+                flushFailed.increment()
+                snapshot.forEach { (key, count) -> counters.merge(key, count, Long::plus) }
+                logger.warn("The event rollups could not be flushed, they are retried in the next flush: ${e.message}")
+            }
+        })
+    }
+
+    /**
+     * The buckets of 'granularity' between 'from' and 'to' (exclusive) sorted by bucket, for the applicationName,
+     * eventName and eventType when they are not null.
+     */
+    fun series(granularity: RollupGranularity, from: LocalDateTime, to: LocalDateTime,
+               applicationName: String?, eventName: String?, eventType: EventType?): List<RollupPoint> {
+        val criteria = Criteria.where(GRANULARITY).`is`(granularity.name)
+                               .and(BUCKET).gte(granularity.bucket(from)).lt(to)
+
+        applicationName?.let { criteria.and(APPLICATION_NAME).`is`(it) }
+        eventName?.let { criteria.and(EVENT_NAME).`is`(it) }
+        eventType?.let { criteria.and(EVENT_TYPE).`is`(it.name) }
+
+        return mongoTemplate.find(Query(criteria).with(Sort.by(BUCKET)), Document::class.java, ROLLUPS).map {
+            RollupPoint(EventCodec.toLocalDateTime(it.getDate(BUCKET).time),
+                        it.getString(APPLICATION_NAME),
+                        it.getString(EVENT_NAME),
+                        it.getString(EVENT_TYPE)?.let { type -> EventType.valueOf(type) },
+                        (it[COUNT] as Number).toLong())
+        }
+    }
+
+    private fun write(snapshot: Map<Key, Long>) {
+        val buckets = HashMap<Pair<RollupGranularity, Key>, Long>()
+
+        snapshot.forEach { (key, count) ->
+            RollupGranularity.values().forEach { granularity ->
+                buckets.merge(Pair(granularity, key.copy(minute = granularity.bucket(key.minute))), count, Long::plus)
+            }
+        }
+
+        val bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ROLLUPS)
+
+        buckets.forEach { (bucket, count) ->
+            val (granularity, key) = bucket
+            val update = Update().inc(COUNT, count)
+                                 .setOnInsert(GRANULARITY, granularity.name)
+                                 .setOnInsert(BUCKET, key.minute)
+                                 .setOnInsert(APPLICATION_NAME, key.applicationName)
+                                 .setOnInsert(EVENT_NAME, key.eventName)
+                                 .setOnInsert(EVENT_TYPE, key.eventType?.name)
+
+            if (granularity == RollupGranularity.MINUTE)
+                update.setOnInsert(EXPIRE_AT, key.minute.plusDays(serviceConfig.rollupMinuteRetentionDays))
+            bulk.upsert(Query(Criteria.where(ID).`is`(id(granularity, key))), update)
+        }
+        bulk.execute()
+    }
+
+    @PreDestroy
+    fun close() {
+        flush()
+    }
+
+    companion object {
+        const val ROLLUPS = "eventRollup"
+        private const val ID = "_id"
+        private const val GRANULARITY = "granularity"
+        private const val BUCKET = "bucket"
+        private const val APPLICATION_NAME = "applicationName"
+        private const val EVENT_NAME = "eventName"
+        private const val EVENT_TYPE = "eventType"
+        private const val COUNT = "count"
+        private const val EXPIRE_AT = "expireAt"
+
+        /**
+         * Deterministic id of the rollup document, so the upserts of all the instances hit the same document
+         */
+        fun id(granularity: RollupGranularity, key: Key) =
+            "${granularity.name}|${key.applicationName}|${key.eventName}|${key.eventType}|" +
+            EventCodec.toEpochMilli(key.minute)
+    }
+}
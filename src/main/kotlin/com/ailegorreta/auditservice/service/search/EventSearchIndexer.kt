@@ -0,0 +1,109 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventSearchIndexer.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.search
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.auditservice.domain.EventSearch
+import com.ailegorreta.auditservice.domain.TrigramIndex
+import com.ailegorreta.commons.utils.HasLogger
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import org.bson.Document
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.aggregation.Aggregation
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions
+import org.springframework.data.mongodb.core.query.Criteria
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Component
+import java.time.LocalDateTime
+import java.util.*
+
+/**
+ * Loads the distinct usernames and event names of the event collections (or partitions) into the trigram
+ * indexes of the EventSearch. The first load reads all the events; each refresh reads only the events stored
+ * (see Event.storedAt) since the previous watermark, with the storedAt index, e.g., the ones of the other instances.
+ *
+ * The watermark is the start of the load minus 'audit-service.search.watermark-lag-ms', for the inserts in flight
+ * and the clock skew between the instances. The events stored after it are matched with the regex (see EventSearch).
+ *
+ * The distinct values are read with a $group aggregation and a cursor, so there is no 16MB limit of the
+ * 'distinct' command result.
+ *
+ * Metrics: 'audit.search.terms' (tag field).
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Component
+class EventSearchIndexer(private val serviceConfig: ServiceConfig,
+                         private val mongoTemplate: MongoTemplate,
+                         private val eventPartitions: EventPartitions,
+                         private val eventSearch: EventSearch,
+                         meterRegistry: MeterRegistry): HasLogger {
+
+    init {
+        Gauge.builder("audit.search.terms") { eventSearch.usernames().size() }.tag("field", EventCodec.USERNAME)
+             .register(meterRegistry)
+        Gauge.builder("audit.search.terms") { eventSearch.eventNames().size() }.tag("field", EventCodec.EVENT_NAME)
+             .register(meterRegistry)
+    }
+
+    @Scheduled(fixedDelayString = "\${audit-service.search.refresh-ms:60000}")
+    fun refresh() {
+        if (!serviceConfig.searchTrigramIndex) return
+
+        val since = eventSearch.watermark
+        val watermark = LocalDateTime.now().minusNanos(serviceConfig.searchWatermarkLagMs * 1_000_000)
+
+        try {
+            eventPartitions.partitionsFor(null).forEach { collection ->
+                load(collection, EventCodec.USERNAME, eventSearch.usernames(), since)
+                load(collection, EventCodec.EVENT_NAME, eventSearch.eventNames(), since)
+            }
+            eventSearch.watermark = watermark
+        } catch (e: Exception) {
+            logger.warn("The search indexes could not be refreshed: ${e.message}")
+            // ^ the watermark is not moved, the next refresh reads the same events again
+        }
+    }
+
+    private fun load(collection: String, field: String, index: TrigramIndex, since: LocalDateTime?) {
+        val operations = mutableListOf<AggregationOperation>()
+
+        if (since != null)
+            operations.add(Aggregation.match(Criteria.where(EventCodec.STORED_AT)
+                                                     .gte(Date(EventCodec.toEpochMilli(since)))))
+        operations.add(Aggregation.group(field))
+
+        val aggregation = Aggregation.newAggregation(operations)
+                                     .withOptions(AggregationOptions.builder().allowDiskUse(true).build())
+
+        mongoTemplate.aggregateStream(aggregation, collection, Document::class.java).use { values ->
+            values.forEach { (it[EventCodec.ID] as? String)?.let(index::add) }
+        }
+    }
+}
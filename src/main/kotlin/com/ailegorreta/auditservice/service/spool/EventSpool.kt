@@ -0,0 +1,181 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventSpool.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.spool
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.commons.utils.HasLogger
+import com.mongodb.MongoBulkWriteException
+import com.mongodb.MongoSocketException
+import com.mongodb.MongoTimeoutException
+import com.mongodb.MongoWriteConcernException
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import jakarta.annotation.PostConstruct
+import jakarta.annotation.PreDestroy
+import org.springframework.dao.DataAccessResourceFailureException
+import org.springframework.dao.TransientDataAccessException
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.stereotype.Service
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.*
+
+/**
+ * Stores the events in mongo within a latency budget. If the insert does not finish within
+ * 'audit-service.spool.latency-budget-ms' or mongo is unavailable, the events are appended to the local
+ * SpoolLog instead, so the consumer neither loses the events nor stalls the partition.
+ *
+ * While the spool has events all new events are spooled too (i.e., they keep their order) and a background
+ * replayer drains the spool into mongo with bulk inserts once it recovers. An insert that exceeds its budget is
+ * cancelled, but mongo may still have applied it: the events have deterministic ids, so the replay ignores the
+ * duplicates (see EventRepositoryCustom.insertAll, also in the TIME_SERIES storage mode).
+ *
+ * The SpoolLog is opened by the first spooled event, or on startup if the spool directory exists (i.e., there
+ * may be events left by the previous run), so an instance that never spools does not create it.
+ *
+ * Metrics: 'audit.spool.depth' (events), 'audit.spool.age' (seconds of the oldest event), 'audit.spool.spooled'
+ * and 'audit.spool.replayed'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Service
+class EventSpool(private val serviceConfig: ServiceConfig,
+                 private val eventRepository: EventRepository,
+                 private val eventCodec: EventCodec,
+                 meterRegistry: MeterRegistry): HasLogger {
+
+    private val logDelegate = lazy { SpoolLog(Path.of(serviceConfig.spoolPath), serviceConfig.spoolSegmentBytes) }
+    private val log by logDelegate
+    private val writers = ThreadPoolExecutor(serviceConfig.spoolWriterThreads, serviceConfig.spoolWriterThreads,
+                                             60L, TimeUnit.SECONDS,
+                                             ArrayBlockingQueue(serviceConfig.spoolWriterThreads)) { runnable ->
+                                Thread(runnable, "audit-mongo-writer").apply { isDaemon = true }
+                            }
+    private val spooled = Counter.builder("audit.spool.spooled").register(meterRegistry)
+    private val replayed = Counter.builder("audit.spool.replayed").register(meterRegistry)
+
+    init {
+        Gauge.builder("audit.spool.depth") { depth() }
+             .register(meterRegistry)
+        Gauge.builder("audit.spool.age") { if (logDelegate.isInitialized()) log.oldestAgeMs() / 1000.0 else 0.0 }
+             .register(meterRegistry)
+    }
+
+    @PostConstruct
+    fun recover() {
+        if (!serviceConfig.spoolEnabled || !Files.isDirectory(Path.of(serviceConfig.spoolPath))) return
+
+        try {
+            if (log.depth.get() > 0)
+                logger.info("The spool has ${log.depth.get()} events of the previous run, they are replayed")
+        } catch (e: Exception) {
+            logger.error("The spool ${serviceConfig.spoolPath} cannot be opened: ${e.message}")
+        }
+    }
+
+    /**
+     * Events spooled and not yet replayed into mongo
+     */
+    fun depth(): Long = if (logDelegate.isInitialized()) log.depth.get() else 0L
+
+    /**
+     * Inserts the events ignoring the duplicates (see EventRepositoryCustom.insertAll).
+     *
+     * @return the inserted events. The spooled events are considered inserted.
+     */
+    fun insertAll(events: List<Event>): List<Event> {
+        if (!serviceConfig.spoolEnabled)
+            return eventRepository.insertAll(events)
+        if (events.isEmpty() || depth() > 0)
+            return spool(events)
+
+        var insert: Future<List<Event>>? = null
+
+        try {
+            insert = writers.submit(Callable { eventRepository.insertAll(events) })
+
+            return insert.get(serviceConfig.spoolLatencyBudgetMs, TimeUnit.MILLISECONDS)
+        } catch (e: TimeoutException) {
+            insert?.cancel(true)
+            // ^ if mongo already has the batch, the replay skips the duplicates
+            logger.warn("The insert of ${events.size} events exceeded the latency budget, they are spooled")
+        } catch (e: RejectedExecutionException) {
+            logger.warn("All the mongo writers are busy, ${events.size} events are spooled")
+        } catch (e: ExecutionException) {
+            if (!isUnavailable(e.cause)) throw e.cause ?: e
+            logger.warn("Mongo is unavailable (${e.cause?.message}), ${events.size} events are spooled")
+        }
+        return spool(events)
+    }
+
+    private fun spool(events: List<Event>): List<Event> {
+        log.append(events.map { eventCodec.toBytes(it) }, serviceConfig.spoolFsync)
+        spooled.increment(events.size.toDouble())
+
+        return events
+    }
+
+    /**
+     * Drains the spool into mongo. If mongo fails again the replay stops until the next interval.
+     */
+    @Scheduled(fixedDelayString = "\${audit-service.spool.replay-interval-ms:1000}")
+    fun replay() {
+        if (depth() == 0L) return
+
+        while (true) {
+            val batch = log.read(serviceConfig.batchSize)
+
+            if (batch.records.isEmpty()) return
+            try {
+                eventRepository.insertAll(batch.records.map { eventCodec.fromBytes(it) })
+            } catch (e: Exception) {
+                logger.warn("The replay of the spool failed, ${log.depth.get()} events are pending: ${e.message}")
+                return
+            }
+            log.commit(batch)
+            replayed.increment(batch.records.size.toDouble())
+            if (log.depth.get() == 0L)
+                logger.info("The spool has been replayed")
+        }
+    }
+
+    private fun isUnavailable(e: Throwable?): Boolean = when (e) {
+        is DataAccessResourceFailureException, is TransientDataAccessException,
+        is MongoSocketException, is MongoTimeoutException, is MongoWriteConcernException -> true
+        is MongoBulkWriteException -> e.writeConcernError?.let { true } ?: false
+        else -> false
+    }
+
+    @PreDestroy
+    fun close() {
+        writers.shutdown()
+        if (logDelegate.isInitialized())
+            log.force()
+    }
+}
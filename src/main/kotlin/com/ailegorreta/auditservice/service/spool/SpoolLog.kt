@@ -0,0 +1,255 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  SpoolLog.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.spool
+
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.*
+import java.util.concurrent.atomic.AtomicLong
+import java.util.zip.CRC32C
+
+/**
+ * Write-ahead spool: an append log of memory-mapped segment files plus a checkpoint of the replay position.
+ *
+ *  - <sequence>.spool: pre-allocated segment of 'segmentBytes' mapped read-write. One record per event:
+ *      int length | int crc32c | long appended at (epoch ms) | payload
+ *    where length counts the bytes after the crc. The length is written last, so a zero length is the end
+ *    of the segment and a torn record (i.e., crash in the middle of a write) fails its crc.
+ *  - checkpoint: long segment sequence | int offset of the first record that has not been replayed yet.
+ *
+ * The replayer reads the records from the checkpoint, stores them and then commits the new position. The
+ * segments before the checkpoint are deleted. The appends and the reads are synchronized, the spool is only
+ * used while the database is slow or unavailable.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+class SpoolLog(val dir: Path, private val segmentBytes: Int) {
+
+    data class Position(val segment: Long, val offset: Int)
+
+    class Batch(val records: List<ByteBuffer>, val next: Position)
+
+    private val segments = TreeMap<Long, Segment>()
+    private val checkpointPath: Path = dir.resolve("checkpoint")
+    private var readPosition: Position
+    private val crc = CRC32C()
+
+    /**
+     * Number of records that have not been replayed yet
+     */
+    val depth = AtomicLong()
+
+    init {
+        Files.createDirectories(dir)
+        readPosition = readCheckpoint()
+        Files.list(dir).use { files ->
+            files.map { it.fileName.toString() }
+                 .filter { it.endsWith(SUFFIX) }
+                 .map { it.removeSuffix(SUFFIX).toLong() }
+                 .sorted()
+                 .forEach { sequence ->
+                     if (sequence < readPosition.segment)
+                         Files.delete(segmentPath(sequence))
+                     else
+                         segments[sequence] = Segment(segmentPath(sequence), segmentBytes).also { it.recover() }
+                 }
+        }
+        if (segments.isEmpty())
+            segments[readPosition.segment] = Segment(segmentPath(readPosition.segment), segmentBytes)
+        else if (!segments.containsKey(readPosition.segment))
+            readPosition = Position(segments.firstKey(), 0)
+        segments.forEach { (sequence, segment) ->
+            depth.addAndGet(segment.count(if (sequence == readPosition.segment) readPosition.offset else 0))
+        }
+    }
+
+    private val active: Segment
+        get() = segments.lastEntry().value
+
+    @Synchronized
+    fun append(payloads: List<ByteArray>, force: Boolean) {
+        val now = System.currentTimeMillis()
+        val touched = LinkedHashSet<Segment>()
+
+        for (payload in payloads) {
+            if (active.end + HEADER_SIZE + payload.size > active.capacity) {
+                val sequence = segments.lastKey() + 1
+
+                segments[sequence] = Segment(segmentPath(sequence), maxOf(segmentBytes, HEADER_SIZE + payload.size))
+            }
+            active.write(now, payload)
+            touched.add(active)
+        }
+        if (force)
+            touched.forEach { it.buffer.force() }
+        depth.addAndGet(payloads.size.toLong())
+    }
+
+    /**
+     * Reads at most maxRecords records from the checkpoint. The payloads are views of the mapped segments,
+     * so they must be consumed before the batch is committed.
+     */
+    @Synchronized
+    fun read(maxRecords: Int): Batch {
+        val records = ArrayList<ByteBuffer>()
+        var position = readPosition
+
+        while (records.size < maxRecords) {
+            val segment = segments[position.segment] ?: break
+
+            if (position.offset >= segment.end) {
+                position = Position(segments.higherKey(position.segment) ?: break, 0)
+                continue
+            }
+            val length = segment.buffer.getInt(position.offset)
+
+            records.add(segment.buffer.duplicate().position(position.offset + HEADER_SIZE)
+                                                  .limit(position.offset + Int.SIZE_BYTES * 2 + length)
+                                                  .slice())
+            position = Position(position.segment, position.offset + Int.SIZE_BYTES * 2 + length)
+        }
+        return Batch(records, position)
+    }
+
+    /**
+     * The records of the batch have been stored: moves the checkpoint and deletes the replayed segments.
+     */
+    @Synchronized
+    fun commit(batch: Batch) {
+        readPosition = batch.next
+        writeCheckpoint(batch.next)
+        depth.addAndGet(-batch.records.size.toLong())
+        while (segments.firstKey() < batch.next.segment)
+            Files.deleteIfExists(segments.pollFirstEntry().value.path)
+    }
+
+    /**
+     * Age in milliseconds of the oldest record that has not been replayed yet, zero if the spool is empty
+     */
+    @Synchronized
+    fun oldestAgeMs(): Long {
+        var position = readPosition
+
+        while (true) {
+            val segment = segments[position.segment] ?: return 0L
+
+            if (position.offset < segment.end)
+                return System.currentTimeMillis() - segment.buffer.getLong(position.offset + Int.SIZE_BYTES * 2)
+            position = Position(segments.higherKey(position.segment) ?: return 0L, 0)
+        }
+    }
+
+    @Synchronized
+    fun force() {
+        segments.values.forEach { it.buffer.force() }
+    }
+
+    private fun segmentPath(sequence: Long): Path = dir.resolve(String.format("%020d%s", sequence, SUFFIX))
+
+    private fun readCheckpoint(): Position {
+        if (!Files.exists(checkpointPath)) return Position(0L, 0)
+
+        val checkpoint = ByteBuffer.wrap(Files.readAllBytes(checkpointPath))
+
+        return if (checkpoint.remaining() < CHECKPOINT_SIZE) Position(0L, 0)
+               else Position(checkpoint.getLong(), checkpoint.getInt())
+    }
+
+    private fun writeCheckpoint(position: Position) {
+        val checkpoint = ByteBuffer.allocate(CHECKPOINT_SIZE).putLong(position.segment).putInt(position.offset).flip()
+
+        FileChannel.open(checkpointPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE).use { channel ->
+            while (checkpoint.hasRemaining())
+                channel.write(checkpoint, checkpoint.position().toLong())
+            channel.force(false)
+        }
+    }
+
+    private inner class Segment(val path: Path, capacity: Int) {
+        val buffer: MappedByteBuffer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                              StandardOpenOption.WRITE).use { channel ->
+                                            channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                                                        maxOf(capacity.toLong(), channel.size()))
+                                        }
+        val capacity: Int = buffer.capacity()
+        @Volatile var end = 0
+            private set
+
+        fun write(appendedAt: Long, payload: ByteArray) {
+            val position = end
+
+            buffer.putLong(position + Int.SIZE_BYTES * 2, appendedAt)
+            buffer.put(position + HEADER_SIZE, payload)
+            buffer.putInt(position + Int.SIZE_BYTES, checksum(position, Long.SIZE_BYTES + payload.size))
+            buffer.putInt(position, Long.SIZE_BYTES + payload.size)
+            end = position + HEADER_SIZE + payload.size
+        }
+
+        /**
+         * Finds the end of the valid records after a restart
+         */
+        fun recover() {
+            var position = 0
+
+            while (position + HEADER_SIZE <= capacity) {
+                val length = buffer.getInt(position)
+
+                if (length < Long.SIZE_BYTES || position + Int.SIZE_BYTES * 2 + length > capacity ||
+                    buffer.getInt(position + Int.SIZE_BYTES) != checksum(position, length))
+                    break
+                position += Int.SIZE_BYTES * 2 + length
+            }
+            end = position
+        }
+
+        fun count(from: Int): Long {
+            var position = from
+            var count = 0L
+
+            while (position < end) {
+                position += Int.SIZE_BYTES * 2 + buffer.getInt(position)
+                count++
+            }
+            return count
+        }
+
+        private fun checksum(position: Int, length: Int): Int {
+            crc.reset()
+            crc.update(buffer.duplicate().position(position + Int.SIZE_BYTES * 2).limit(position + Int.SIZE_BYTES * 2 + length))
+
+            return crc.value.toInt()
+        }
+    }
+
+    companion object {
+        const val HEADER_SIZE = Int.SIZE_BYTES * 2 + Long.SIZE_BYTES
+        private const val CHECKPOINT_SIZE = Long.SIZE_BYTES + Int.SIZE_BYTES
+        private const val SUFFIX = ".spool"
+    }
+}
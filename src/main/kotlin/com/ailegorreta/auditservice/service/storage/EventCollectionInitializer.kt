@@ -0,0 +1,143 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCollectionInitializer.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.storage
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventIndexes
+import com.ailegorreta.auditservice.domain.EventPartitioning
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.commons.utils.HasLogger
+import jakarta.annotation.PostConstruct
+import jakarta.annotation.PreDestroy
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.event.EventListener
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.stereotype.Component
+import java.util.concurrent.Executors
+
+/**
+ * Prepares the Event collections on startup:
+ *  - In the TIME_SERIES storage mode creates the Event collection as a time-series collection, before the
+ *    first insert creates it as a regular collection. An existing collection is never converted: the events
+ *    must be migrated (e.g., with $out) to a new time-series collection, and until then the startup fails, so
+ *    the documents of both modes are never mixed in one collection (nor in one of its partitions).
+ *  - Creates the missing indexes (see EventIndexes) of the collection or of every partition. The new partitions
+ *    get their indexes when they are created.
+ *
+ * The indexes are built after the application is ready and on their own thread: building them on a large existing
+ * collection takes long, and it must delay neither the startup nor the readiness of the instance. Until they are
+ * built the queries use the indexes that already exist.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Component
+class EventCollectionInitializer(private val serviceConfig: ServiceConfig,
+                                 private val mongoTemplate: MongoTemplate,
+                                 private val eventPartitions: EventPartitions): HasLogger {
+
+    private val collectionName = mongoTemplate.getCollectionName(Event::class.java)
+
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+                                Thread(runnable, "audit-index-builder").apply { isDaemon = true }
+                            }
+
+    /**
+     * @throws IllegalStateException in the TIME_SERIES storage mode if an event collection is a regular collection
+     */
+    @PostConstruct
+    fun initialize() {
+        if (!serviceConfig.storageMode.isTimeSeries) return
+
+        val regular = try {
+            if (serviceConfig.storagePartitioning == EventPartitioning.NONE)
+                createTimeSeriesCollection()
+            // ^ the partitions are created by the EventRepository before their first insert
+            regularCollections()
+        } catch (e: Exception) {
+            logger.error("The event collections could not be prepared: ${e.message}")
+            // ^ e.g., mongo is unavailable, the events are spooled until it is available
+            return
+        }
+        check(regular.isEmpty()) {
+            "The TIME_SERIES storage mode needs time-series collections, but $regular are regular collections: " +
+            "migrate their events to time-series collections (e.g., with \$out) or use the COLLECTION storage mode"
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent::class)
+    fun buildIndexes() {
+        if (!serviceConfig.indexesAutoCreate) return
+
+        executor.execute {
+            try {
+                ensureIndexes()
+            } catch (e: Exception) {
+                logger.error("The indexes of the event collections could not be created: ${e.message}")
+            }
+        }
+    }
+
+    @PreDestroy
+    fun close() {
+        executor.shutdownNow()
+    }
+
+    private fun createTimeSeriesCollection() {
+        if (mongoTemplate.collectionExists(collectionName)) return
+
+        mongoTemplate.createCollection(Event::class.java,
+                                       serviceConfig.storageMode.collectionOptions(serviceConfig.storageGranularity))
+        logger.info("Time-series collection '$collectionName' created with granularity ${serviceConfig.storageGranularity}")
+    }
+
+    private fun ensureIndexes() {
+        val collections = if (serviceConfig.storagePartitioning == EventPartitioning.NONE)
+                              listOf(collectionName)
+                          else
+                              eventPartitions.partitions().values.toList()
+
+        val start = System.currentTimeMillis()
+
+        collections.forEach { EventIndexes.ensureIndexes(mongoTemplate, it, serviceConfig.storageMode.isTimeSeries) }
+        logger.info("Indexes of ${collections.size} event collection(s) checked in ${System.currentTimeMillis() - start} ms")
+    }
+
+    /**
+     * The event collections (the Event collection or its partitions) that are not time-series collections
+     */
+    private fun regularCollections() =
+        mongoTemplate.db.listCollections()
+                        .map { Pair(it.getString("name"), it.getString("type")) }
+                        .filter { (name, type) ->
+                            type != "timeseries" && !name.startsWith("system.") &&
+                            if (serviceConfig.storagePartitioning == EventPartitioning.NONE)
+                                name == collectionName
+                            else
+                                EventPartitioning.month(collectionName, name).isPresent
+                        }
+                        .map { it.first }
+                        .toList()
+}
@@ -0,0 +1,142 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventIdMigration.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.storage
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.commons.utils.HasLogger
+import com.mongodb.ErrorCategory
+import com.mongodb.MongoBulkWriteException
+import com.mongodb.client.model.Filters
+import com.mongodb.client.model.InsertManyOptions
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.bson.BsonBinarySubType
+import org.bson.Document
+import org.bson.types.Binary
+import org.springframework.boot.context.event.ApplicationReadyEvent
+import org.springframework.context.event.EventListener
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.stereotype.Component
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.*
+import java.util.concurrent.Executors
+
+/**
+ * Cut-over of the event ids to the STANDARD uuid representation ('spring.data.mongodb.uuid-representation').
+ *
+ * The events stored before the cut-over have JAVA_LEGACY ids (binary subtype 3, the bytes of each half reversed),
+ * so findById and the id predicates, that are encoded as subtype 4, do not find them. After startup this
+ * component rewrites them, in batches of 'uuid-migration.batch-size' and on its own thread: each event is
+ * inserted again with the same UUID in the STANDARD representation and then the legacy document is deleted.
+ *
+ * The legacy ids are read with an _id range: mongo orders the binaries by length and then by subtype, so all the
+ * 16 byte subtype 3 ids are between Binary(3, 0...) and Binary(4, 0...). When there are none left it is just
+ * one empty index read. The steps are idempotent (the duplicate keys of a re-insert are ignored), so an
+ * interrupted migration, or one run by several instances, resumes in the next startup.
+ *
+ * Only the regular 'event' collection can have legacy ids: the time-series collections and the partitions
+ * were always written with the STANDARD representation.
+ *
+ * Metric: 'audit.storage.ids.migrated'.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Component
+class EventIdMigration(private val serviceConfig: ServiceConfig,
+                       private val mongoTemplate: MongoTemplate,
+                       meterRegistry: MeterRegistry): HasLogger {
+
+    private val collectionName = mongoTemplate.getCollectionName(Event::class.java)
+    private val migrated = Counter.builder("audit.storage.ids.migrated").register(meterRegistry)
+    private val executor = Executors.newSingleThreadExecutor { runnable ->
+                                Thread(runnable, "audit-id-migration").apply { isDaemon = true }
+                            }
+
+    @EventListener(ApplicationReadyEvent::class)
+    fun start() {
+        if (!serviceConfig.uuidMigration || serviceConfig.storageMode.isTimeSeries) return
+
+        executor.execute {
+            try {
+                val count = run()
+
+                if (count > 0)
+                    logger.info("$count event ids migrated to the STANDARD uuid representation")
+            } catch (e: Exception) {
+                logger.warn("The migration of the legacy event ids stopped, it continues in the next startup: ${e.message}")
+            }
+        }
+    }
+
+    /**
+     * Migrates all the legacy ids of the event collection
+     *
+     * @return the number of migrated events
+     */
+    fun run(): Long {
+        if (!mongoTemplate.collectionExists(collectionName)) return 0L
+
+        val collection = mongoTemplate.getCollection(collectionName)
+        val legacy = Filters.and(Filters.gte(ID, Binary(BsonBinarySubType.UUID_LEGACY, ByteArray(16))),
+                                 Filters.lt(ID, Binary(BsonBinarySubType.UUID_STANDARD, ByteArray(16))))
+        var count = 0L
+
+        while (true) {
+            val batch = collection.find(legacy).limit(serviceConfig.uuidMigrationBatchSize).toList()
+
+            if (batch.isEmpty()) return count
+
+            val legacyIds = batch.map { it[ID] }
+
+            try {
+                collection.insertMany(batch.map { Document(it).append(ID, toUuid(it[ID] as Binary)) },
+                                      InsertManyOptions().ordered(false))
+            } catch (e: MongoBulkWriteException) {
+                if (e.writeErrors.isEmpty() ||
+                    !e.writeErrors.all { ErrorCategory.fromErrorCode(it.code) == ErrorCategory.DUPLICATE_KEY })
+                    throw e
+                // ^ already migrated by a previous (interrupted) run or another instance
+            }
+            collection.deleteMany(Filters.`in`(ID, legacyIds))
+            count += batch.size
+            migrated.increment(batch.size.toDouble())
+        }
+    }
+
+    companion object {
+        private const val ID = "_id"
+
+        /**
+         * The UUID of a JAVA_LEGACY binary: each 8 byte half is little endian
+         */
+        fun toUuid(legacy: Binary): UUID {
+            val buffer = ByteBuffer.wrap(legacy.data).order(ByteOrder.LITTLE_ENDIAN)
+
+            return UUID(buffer.getLong(), buffer.getLong())
+        }
+    }
+}
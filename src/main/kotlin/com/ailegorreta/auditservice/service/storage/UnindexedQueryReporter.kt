@@ -0,0 +1,124 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  UnindexedQueryReporter.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.storage
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventIndexes
+import com.ailegorreta.commons.utils.HasLogger
+import com.mongodb.event.CommandListener
+import com.mongodb.event.CommandStartedEvent
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.MeterRegistry
+import org.bson.BsonDocument
+import org.bson.BsonValue
+import org.springframework.stereotype.Component
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Mongo command listener that reports the queries on the event collections that cannot use any index
+ * of EventIndexes, i.e., collection scans: none of the filtered fields is the first field of an index, or it
+ * is only filtered by an unanchored regex or a negation.
+ *
+ * Each query shape (the filtered fields and their operators, without values) is logged once and counted
+ * in 'audit.query.unindexed' (tags collection and shape). The queries without filter are not reported.
+ *
+ * @author rlh
+ * @project : audit-service
+ * @date October 2026
+ */
+@Component
+class UnindexedQueryReporter(private val serviceConfig: ServiceConfig,
+                             private val meterRegistry: MeterRegistry): CommandListener, HasLogger {
+
+    private val leadingFields = EventIndexes.leadingFields(serviceConfig.storageMode.isTimeSeries)
+    private val reported = ConcurrentHashMap.newKeySet<String>()
+
+    override fun commandStarted(event: CommandStartedEvent) {
+        if (!serviceConfig.indexesReportUnindexed) return
+
+        val command = event.command
+        val collection = command[event.commandName]?.takeIf { it.isString }?.asString()?.value ?: return
+
+        if (collection != EVENT_COLLECTION && !collection.startsWith("${EVENT_COLLECTION}_")) return
+
+        val filter = when (event.commandName) {
+            "find" -> command.getDocument("filter", BsonDocument())
+            "aggregate" -> command.getArray("pipeline").firstOrNull()?.asDocument()?.getDocument("\$match", null)
+            else -> null
+        } ?: return
+
+        if (filter.isEmpty() || isIndexed(filter)) return
+
+        val shape = shape(filter)
+
+        Counter.builder("audit.query.unindexed")
+               .tag("collection", if (collection == EVENT_COLLECTION) collection else "${EVENT_COLLECTION}_*")
+               .tag("shape", shape)
+               .register(meterRegistry)
+               .increment()
+        if (reported.add(shape))
+            logger.warn("Unindexed query on the events: $shape (see EventIndexes)")
+    }
+
+    /**
+     * True if at least one of the and-ed fields can use an index, for an 'or' all its branches
+     */
+    private fun isIndexed(filter: BsonDocument): Boolean =
+        filter.entries.any { (field, value) ->
+            when (field) {
+                "\$and" -> value.asArray().any { isIndexed(it.asDocument()) }
+                "\$or" -> value.asArray().isNotEmpty() && value.asArray().all { isIndexed(it.asDocument()) }
+                else -> field in leadingFields && usesIndex(value)
+            }
+        }
+
+    private fun usesIndex(value: BsonValue): Boolean = when {
+        value.isRegularExpression -> value.asRegularExpression().pattern.startsWith("^")
+        value.isDocument && value.asDocument().keys.any { it.startsWith("$") } ->
+            value.asDocument().entries.any { (operator, operand) ->
+                when (operator) {
+                    "\$regex" -> operand.isString && operand.asString().value.startsWith("^") ||
+                                 operand.isRegularExpression && operand.asRegularExpression().pattern.startsWith("^")
+                    "\$ne", "\$nin", "\$not", "\$exists", "\$options" -> false
+                    else -> true
+                }
+            }
+        else -> true
+    }
+
+    private fun shape(filter: BsonDocument): String =
+        filter.entries.joinToString(",", "{", "}") { (field, value) ->
+            when {
+                field.startsWith("$") && value.isArray ->
+                    "$field:" + value.asArray().joinToString(",", "[", "]") { shape(it.asDocument()) }
+                value.isRegularExpression -> "$field:regex"
+                value.isDocument && value.asDocument().keys.any { it.startsWith("$") } ->
+                    "$field:" + value.asDocument().keys.sorted().joinToString("") { it.removePrefix("$") }
+                else -> "$field:eq"
+            }
+        }
+
+    companion object {
+        private const val EVENT_COLLECTION = "event"
+    }
+}
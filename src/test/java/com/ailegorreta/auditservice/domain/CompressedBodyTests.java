@@ -0,0 +1,73 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  CompressedBodyTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Adler32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the compressed eventBody. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class CompressedBodyTests {
+
+    private static byte[] body(int i) {
+        return ("{\"notificaFacultad\": \"NOTIFICA_IAM\", \"datos\": {\"idUsuario\": " + i +
+                ", \"telefono\": \"5591495040\", \"direccion\": \"Prado Sur 240 2do piso\"}}")
+                .repeat(50).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void givenBody_thenDeflateAndInflateWithoutDictionary() {
+        var compressed = CompressedBody.deflate(body(1), 0, null, 6);
+
+        assertThat(compressed.size()).isLessThan(body(1).length / 4);
+        assertThat(compressed.getUncompressedLength()).isEqualTo(body(1).length);
+        assertThat(compressed.inflate(id -> null)).isEqualTo(body(1));
+    }
+
+    @Test
+    void givenDictionary_thenSmallerAndNeedsTheDictionaryToInflate() {
+        var dictionary = body(0);
+        var adler = new Adler32();
+
+        adler.update(dictionary);
+
+        int id = (int) adler.getValue();
+        var plain = CompressedBody.deflate(body(7), 0, null, 6);
+        var compressed = CompressedBody.deflate(body(7), id, dictionary, 6);
+
+        assertThat(compressed.size()).isLessThan(plain.size());
+        assertThat(compressed.getDictionaryId()).isEqualTo(id);
+        assertThat(compressed.inflate(dictionaryId -> dictionaryId == id ? dictionary : null)).isEqualTo(body(7));
+        assertThatThrownBy(() -> compressed.inflate(dictionaryId -> null)).isInstanceOf(IllegalStateException.class);
+    }
+}
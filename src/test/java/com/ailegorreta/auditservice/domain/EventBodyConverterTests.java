@@ -0,0 +1,83 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventBodyConverterTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the conversion of the eventBody into a BSON sub-document. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventBodyConverterTests {
+
+    private static final String BODY = """
+            {
+              "notificaFacultad": "NOTIFICA_PARAM",
+              "datos": { "idUsuario": 12, "telefono": "5512345678", "roles": ["ADMIN", "USER"] }
+            }
+            """;
+
+    @Test
+    void givenJsonNodeBody_thenNestedDocument() throws Exception {
+        var body = (Document) EventBodyConverter.toBson(new ObjectMapper().readTree(BODY));
+        var datos = (Document) body.get("datos");
+
+        assertThat(body.getString("notificaFacultad")).isEqualTo("NOTIFICA_PARAM");
+        assertThat(datos.getInteger("idUsuario")).isEqualTo(12);
+        assertThat(datos.getList("roles", String.class)).containsExactly("ADMIN", "USER");
+    }
+
+    @Test
+    void givenMapOrJsonNodeBody_thenSameDocument() throws Exception {
+        var mapper = new ObjectMapper();
+        var map = mapper.readValue(BODY, LinkedHashMap.class);
+
+        assertThat(EventBodyConverter.toBson(map)).isEqualTo(EventBodyConverter.toBson(mapper.readTree(BODY)));
+        assertThat(EventBodyConverter.toBson(Map.of("list", List.of(Map.of("a", 1)))))
+                .isEqualTo(new Document("list", List.of(new Document("a", 1))));
+    }
+
+    @Test
+    void givenTextBody_thenItIsStoredAsText() {
+        assertThat(EventBodyConverter.toBson("plain text")).isEqualTo("plain text");
+        assertThat(EventBodyConverter.toBson(BODY)).isEqualTo(BODY);
+        // ^ even if it looks like JSON
+    }
+
+    @Test
+    void givenArrayWithNulls_thenNullElements() {
+        assertThat(EventBodyConverter.toBson(new Object[] { "a", null, 1 })).isEqualTo(Arrays.asList("a", null, 1));
+    }
+}
@@ -0,0 +1,114 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCodecTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.commons.event.EventType;
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.io.BasicOutputBuffer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the hand-written Event codec and converters. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventCodecTests {
+
+    private final CodecRegistry registry = CodecRegistries.withUuidRepresentation(
+                                                MongoClientSettings.getDefaultCodecRegistry(), UuidRepresentation.STANDARD);
+    private final EventCodec codec = new EventCodec(registry);
+
+    private Event event() {
+        var event = new Event(UUID.randomUUID(), 0, "correlationId", EventType.FULL_STORE, "adminTEST", "TEST",
+                              LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), "audit-service",
+                              new Document("datos", new Document("idUsuario", 12).append("roles", List.of("ADMIN"))));
+
+        event.setStoredAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        return event;
+    }
+
+    private RawBsonDocument encode(Event event) {
+        return encode(codec, event);
+    }
+
+    private RawBsonDocument encode(EventCodec codec, Event event) {
+        var output = new BasicOutputBuffer();
+
+        codec.encode(new BsonBinaryWriter(output), event, EncoderContext.builder().build());
+        return new RawBsonDocument(output.toByteArray());
+    }
+
+    @Test
+    void givenEvent_thenEncodeAndDecodeAllFields() {
+        var event = event();
+        var decoded = codec.decode(encode(event).asBsonReader(), DecoderContext.builder().build());
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void givenEvent_thenCodecAndConvertersWriteTheSameDocument() {
+        var event = event();
+        var document = new EventConverters.EventWriteConverter(false).convert(event);
+
+        assertThat(document.toBsonDocument(Document.class, registry)).isEqualTo(encode(event));
+        assertThat(new EventConverters.EventReadConverter().convert(document))
+                .usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void givenTimeSeriesLayout_thenMetaFieldsAreNested() {
+        var timeSeriesCodec = new EventCodec(registry, true);
+        var event = event();
+        var encoded = encode(timeSeriesCodec, event);
+        var document = new EventConverters.EventWriteConverter(true).convert(event);
+
+        assertThat(encoded.getDocument(EventCodec.META).getString(EventCodec.APPLICATION_NAME).getValue())
+                .isEqualTo("audit-service");
+        assertThat(encoded.containsKey(EventCodec.APPLICATION_NAME)).isFalse();
+        assertThat(encoded.containsKey(EventCodec.EVENT_TYPE)).isFalse();
+        assertThat(document.toBsonDocument(Document.class, registry)).isEqualTo(encoded);
+        // both layouts are read by the codec and by the converters
+        assertThat(codec.decode(encoded.asBsonReader(), DecoderContext.builder().build()))
+                .usingRecursiveComparison().isEqualTo(event);
+        assertThat(new EventConverters.EventReadConverter().convert(document))
+                .usingRecursiveComparison().isEqualTo(event);
+    }
+}
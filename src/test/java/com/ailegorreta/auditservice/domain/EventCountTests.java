@@ -0,0 +1,129 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCountTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.auditservice.EnableTestContainers;
+import com.ailegorreta.auditservice.config.ServiceConfig;
+import com.ailegorreta.auditservice.config.StorageConfig;
+import com.ailegorreta.commons.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.OptionalLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the counts of eventsTotal (see EventCounter) with MONTHLY partitioning: the capped count that stops
+ * at the limit across the partitions, the estimated count of the collection metadata and the extrapolation of
+ * the $sample of each partition.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@DataMongoTest(properties = "audit-service.storage.partitioning=MONTHLY")
+@EnableTestContainers
+@Import({ServiceConfig.class, StorageConfig.class})
+@ActiveProfiles("integration-tests")
+public class EventCountTests {
+
+    @MockBean
+    private StreamBridge streamBridge;
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+    @Autowired
+    EventRepository eventRepository;
+
+    private final QEvent qEvent = QEvent.event;
+    private final LocalDateTime boundary = LocalDateTime.of(2026, 10, 1, 0, 0);
+
+    @BeforeEach
+    void insertEventsOfTwoMonths() {
+        mongoTemplate.getCollectionNames().stream()
+                     .filter(name -> EventPartitioning.month("event", name).isPresent())
+                     .forEach(mongoTemplate::dropCollection);
+
+        var events = IntStream.range(0, 60)
+                              .mapToObj(i -> event(boundary.plusMinutes(i - 30), i % 3 == 0 ? "admin" : "user-" + i))
+                              .toList();
+        // ^ 30 events in September and 30 in October, 20 of them of 'admin'
+
+        assertThat(eventRepository.insertAll(events)).hasSize(60);
+    }
+
+    private Event event(LocalDateTime eventDate, String username) {
+        var name = username + "|" + eventDate;
+
+        return new Event(EventIds.timeOrdered(EventCodec.toEpochMilli(eventDate), name), 0, name, EventType.DB_STORE,
+                         username, "EVENT_TEST", eventDate, "audit-service", null);
+    }
+
+    @Test
+    void givenLimit_thenCountStopsAtTheLimitAcrossThePartitions() {
+        assertThat(eventRepository.count(null, 25)).isEqualTo(25);
+        assertThat(eventRepository.count(null, 45)).isEqualTo(45);
+        // ^ the whole September partition and 15 events of October
+        assertThat(eventRepository.count(null, 1000)).isEqualTo(60);
+        assertThat(eventRepository.count(qEvent.username.eq("admin"), 15)).isEqualTo(15);
+        assertThat(eventRepository.count(qEvent.username.eq("admin"), 1000)).isEqualTo(20);
+        assertThat(eventRepository.count(qEvent.username.eq("admin").and(qEvent.eventDate.goe(boundary)), 1000))
+                .isEqualTo(10);
+    }
+
+    @Test
+    void givenPartitions_thenEstimatedCountOfAllOfThem() {
+        assertThat(eventRepository.estimatedCount()).isEqualTo(60);
+    }
+
+    @Test
+    void givenSample_thenExtrapolateTheMatchesToEachPartition() {
+        assertThat(eventRepository.estimatedCount(qEvent.username.eq("admin"), 1000, 1)).isEqualTo(OptionalLong.of(20));
+        // ^ a sample bigger than the partitions has all their events: the estimate is exact
+        assertThat(eventRepository.estimatedCount(qEvent.eventName.eq("EVENT_TEST"), 10, 1))
+                .isEqualTo(OptionalLong.of(60));
+        // ^ 10 of 10 sampled events match in each partition of 30 events
+
+        var estimate = eventRepository.estimatedCount(qEvent.username.eq("admin"), 10, 1);
+
+        if (estimate.isPresent())
+            assertThat(estimate.getAsLong()).isBetween(3L, 60L).matches(count -> count % 3 == 0);
+            // ^ 30 * matches / 10 of each partition
+        assertThat(eventRepository.estimatedCount(qEvent.username.eq("admin"), 1000, 21)).isEmpty();
+        // ^ less matches than the minimum: no estimate
+        assertThat(eventRepository.estimatedCount(qEvent.username.eq("nobody"), 1000, 1)).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCursorTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the cursor of the keyset pagination. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventCursorTests {
+
+    private final EventCursor cursor = new EventCursor(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS),
+                                                       EventIds.timeOrdered());
+
+    @Test
+    void givenCursor_thenEncodeAndDecode() {
+        var encoded = cursor.encode();
+
+        assertThat(encoded).hasSize(32).doesNotContain("=", "+", "/");
+        assertThat(EventCursor.decode(encoded)).isEqualTo(cursor);
+        assertThatThrownBy(() -> EventCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EventCursor.decode("AAAA")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void givenCursor_thenSeekBeforeItsEventDate() {
+        var event = QEvent.event;
+        var after = cursor.after(event.username.eq("admin"));
+
+        assertThat(after.toString()).contains("eventDate < " + cursor.eventDate(), "id < " + cursor.id(),
+                                              "username = admin");
+        assertThat(EventDateRange.of(after)).isEqualTo(new EventDateRange(null, cursor.eventDate()));
+        // ^ only the partitions up to the month of the cursor are read
+    }
+}
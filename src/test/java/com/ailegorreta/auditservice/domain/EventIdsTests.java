@@ -0,0 +1,74 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventIdsTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the time ordered event ids. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventIdsTests {
+
+    /**
+     * Compares the ids as the unsigned bytes stored with the STANDARD uuid representation.
+     */
+    private static int compareBytes(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    @Test
+    void givenManyIds_thenMonotonicVersion7() {
+        var ids = new ArrayList<UUID>();
+
+        for (int i = 0; i < 100_000; i++)
+            ids.add(EventIds.timeOrdered());
+
+        assertThat(ids).allMatch(id -> id.version() == 7 && id.variant() == 2);
+        for (int i = 1; i < ids.size(); i++)
+            assertThat(compareBytes(ids.get(i - 1), ids.get(i))).isNegative();
+    }
+
+    @Test
+    void givenNameAndTimestamp_thenDeterministicIdInsideTheBounds() {
+        long now = System.currentTimeMillis();
+        var id = EventIds.timeOrdered(now, "audit/0/42");
+
+        assertThat(id).isEqualTo(EventIds.timeOrdered(now, "audit/0/42"))
+                      .isNotEqualTo(EventIds.timeOrdered(now, "audit/0/43"));
+        assertThat(EventIds.epochMilli(id)).isEqualTo(now);
+        assertThat(compareBytes(EventIds.lowerBound(now), id)).isNegative();
+        assertThat(compareBytes(id, EventIds.upperBound(now))).isNegative();
+        assertThat(compareBytes(EventIds.upperBound(now), EventIds.lowerBound(now + 1))).isNegative();
+    }
+}
@@ -0,0 +1,101 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventPartitionsTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.querydsl.core.BooleanBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the routing of the queries to the monthly event partitions. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventPartitionsTests {
+
+    private final QEvent event = QEvent.event;
+    private final LocalDateTime october = LocalDateTime.of(2026, 10, 15, 12, 0);
+
+    @Test
+    void givenEventDate_thenCollectionNameIsTheMonth() {
+        assertThat(EventPartitioning.MONTHLY.collectionName("event", october)).isEqualTo("event_2026_10");
+        assertThat(EventPartitioning.NONE.collectionName("event", october)).isEqualTo("event");
+        assertThat(EventPartitioning.month("event", "event_2026_10")).contains(YearMonth.of(2026, 10));
+        assertThat(EventPartitioning.month("event", "eventBodyDictionary")).isEqualTo(Optional.empty());
+        assertThat(EventPartitioning.month("event", "event_old")).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    void givenPredicate_thenEventDateRange() {
+        var from = october.minusDays(40);
+
+        assertThat(EventDateRange.of(event.eventDate.between(from, october)))
+                .isEqualTo(new EventDateRange(from, october));
+        assertThat(EventDateRange.of(event.eventName.eq("TEST").and(event.eventDate.goe(from))))
+                .isEqualTo(new EventDateRange(from, null));
+        assertThat(EventDateRange.of(new BooleanBuilder(event.eventDate.goe(from)).and(event.eventDate.lt(october))))
+                .isEqualTo(new EventDateRange(from, october));
+        assertThat(EventDateRange.of(event.eventDate.eq(from).or(event.eventDate.eq(october))))
+                .isEqualTo(new EventDateRange(from, october));
+        // an 'or' with an unbounded branch or a negation is unbounded
+        assertThat(EventDateRange.of(event.eventDate.eq(from).or(event.username.eq("admin"))))
+                .isEqualTo(EventDateRange.UNBOUNDED);
+        assertThat(EventDateRange.of(event.eventDate.goe(from).not())).isEqualTo(EventDateRange.UNBOUNDED);
+        assertThat(EventDateRange.of(null)).isEqualTo(EventDateRange.UNBOUNDED);
+        assertThat(EventDateRange.of(event.eventDate.goe(october).and(event.eventDate.lt(from))).isEmpty()).isTrue();
+    }
+
+    @Test
+    void givenPredicate_thenOnlyTheOverlappingPartitions() {
+        var mongoOperations = mock(MongoOperations.class);
+
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("event_2026_08", "event_2026_09", "event_2026_10",
+                                                                     "eventBodyDictionary"));
+
+        var partitions = new EventPartitions(mongoOperations, "event", EventPartitioning.MONTHLY,
+                                             CollectionOptions.empty());
+
+        assertThat(partitions.partitionsFor(event.eventDate.goe(october.minusMonths(1))))
+                .containsExactly("event_2026_09", "event_2026_10");
+        assertThat(partitions.partitionsFor(event.eventDate.between(october.minusMonths(2), october.minusMonths(2))))
+                .containsExactly("event_2026_08");
+        assertThat(partitions.partitionsFor(event.username.eq("admin")))
+                .containsExactly("event_2026_08", "event_2026_09", "event_2026_10");
+        assertThat(partitions.partitionsFor(event.eventDate.lt(october.minusYears(1)))).isEmpty();
+        assertThat(new EventPartitions(mongoOperations, "event", EventPartitioning.NONE, CollectionOptions.empty())
+                            .partitionsFor(event.eventDate.goe(october)))
+                .containsExactly("event");
+    }
+}
@@ -23,24 +23,31 @@
 package com.ailegorreta.auditservice.domain;
 
 import com.ailegorreta.auditservice.EnableTestContainers;
+import com.ailegorreta.auditservice.config.ServiceConfig;
+import com.ailegorreta.auditservice.config.StorageConfig;
 import com.ailegorreta.commons.event.EventDTO;
 import com.ailegorreta.commons.event.EventType;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataMongoTest
 /* ^ This is just the case we wanted to test just he MongoDB Repositories and not download all context */
 @EnableTestContainers
+@Import({ServiceConfig.class, StorageConfig.class})
 @ActiveProfiles("integration-tests")
 public class EventRepositoryTests {
 
@@ -49,6 +56,9 @@ public class EventRepositoryTests {
     @MockBean
     private JwtDecoder jwtDecoder;
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // ^ the producers send the eventBody as JSON, a String body is stored as text
+
     @Autowired
     MongoTemplate mongoTemplate;
     @Autowired
@@ -81,7 +91,7 @@ public class EventRepositoryTests {
      * Query("'eventBody.datos.idUsuario' : ?0 'eventBody.datos.telefono' : { $regex: ?1}")
      */
     @Test
-    void givenEvent_thenSaveItAndFindUsingEventBodyInternalData() {
+    void givenEvent_thenSaveItAndFindUsingEventBodyInternalData() throws Exception {
         var eventDTO = new EventDTO(
                 "correlationId",
                 EventType.DB_STORE,
@@ -89,7 +99,7 @@ public class EventRepositoryTests {
                 "EVENT_TEST",
                 "AUDIT",
                 "CORE TEST",
-                """
+                MAPPER.readTree("""
                         {
                            "notificaFacultad": "NOTIFICA_IAM",
                            "nombre" : "Juan",
@@ -99,11 +109,68 @@ public class EventRepositoryTests {
                                 "direccion": "Prado Sur 240 2do piso"
                            }
                         }
-                        """);
+                        """));
         var event = Event.createEventByEventDTO(eventDTO);
 
         eventRepository.save(event);
         assertThat(eventRepository.findEventsDetail(123, "5591495040").size()).isEqualTo(1);
     }
 
+    /**
+     * Test that the projections (i.e., the fields selected by a GraphQL query) only read the selected fields.
+     */
+    @Test
+    void givenEvent_thenFindOnlyTheSelectedFields() throws Exception {
+        var eventDTO = new EventDTO(
+                "correlationId",
+                EventType.DB_STORE,
+                "test",
+                "EVENT_TEST",
+                "AUDIT",
+                "CORE TEST",
+                MAPPER.readTree("""
+                        {
+                           "datos": {
+                                "idUsuario": 456,
+                                "telefono": "5591495041"
+                           }
+                        }
+                        """));
+        var event = Event.createEventByEventDTO(eventDTO);
+
+        eventRepository.save(event);
+
+        var page = eventRepository.findAll(QEvent.event.id.eq(event.getId()), PageRequest.of(0, 10),
+                                           List.of("eventDate"));
+        var detail = eventRepository.findEventsDetail(456, "5591495041", List.of("username"));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getId()).isEqualTo(event.getId());
+        assertThat(page.getContent().get(0).getEventDate()).isNotNull();
+        assertThat(page.getContent().get(0).getUsername()).isNull();
+        assertThat(page.getContent().get(0).getEventBody()).isNull();
+        assertThat(detail).hasSize(1);
+        assertThat(detail.get(0).getUsername()).isEqualTo(event.getUsername());
+        assertThat(detail.get(0).getEventBody()).isNull();
+    }
+
+    /**
+     * Test the bulk insert of the batch consumer: the duplicates (i.e., a redelivered batch) are skipped and the
+     * rest of the batch is inserted.
+     */
+    @Test
+    void givenBatchWithDuplicates_thenInsertAllSkipsThem() {
+        var first = Event.createEventByEventDTO(batchEventDTO("batch-1"));
+        var second = Event.createEventByEventDTO(batchEventDTO("batch-2"));
+        var third = Event.createEventByEventDTO(batchEventDTO("batch-3"));
+
+        assertThat(eventRepository.insertAll(List.of(first, second))).containsExactly(first, second);
+        assertThat(eventRepository.insertAll(List.of(first, third, second))).containsExactly(third);
+        assertThat(eventRepository.count(QEvent.event.correlationId.startsWith("batch-"))).isEqualTo(3);
+    }
+
+    private EventDTO batchEventDTO(String correlationId) {
+        return new EventDTO(correlationId, EventType.DB_STORE, "test", "EVENT_TEST", "AUDIT", "CORE TEST",
+                            "{ \"body\": \"test\" }");
+    }
 }
@@ -0,0 +1,94 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventSearchTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the substring search with the trigram index. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+public class EventSearchTests {
+
+    @Test
+    void givenTerms_thenSearchSubstrings() {
+        var index = new TrigramIndex();
+
+        List.of("adminTEST", "administrator", "juan.perez", "Admin", "ma").forEach(index::add);
+        index.add("adminTEST");
+
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.search("min", false)).containsExactlyInAnyOrder("adminTEST", "administrator", "Admin");
+        assertThat(index.search("ADM", true)).containsExactlyInAnyOrder("adminTEST", "administrator", "Admin");
+        assertThat(index.search("ADM", false)).isEmpty();
+        assertThat(index.search("a", false)).containsExactlyInAnyOrder("adminTEST", "administrator", "juan.perez",
+                                                                        "ma");
+        // ^ shorter than a trigram: all the terms are checked
+        assertThat(index.search("nistra", false)).containsExactly("administrator");
+        assertThat(index.search("xyz", true)).isEmpty();
+    }
+
+    @Test
+    void givenIndexLoaded_thenContainsIsAnInOrTheRegexOfTheNewerEvents() {
+        var event = QEvent.event;
+        var eventSearch = new EventSearch(1000);
+        var watermark = LocalDateTime.now().minusMinutes(1);
+
+        eventSearch.index(new Event(null, 0, null, null, "zeta.user", "ZETA_EVENT", null, null, null));
+        assertThat(eventSearch.contains(event.username, "zeta")).isEqualTo(event.username.contains("zeta"));
+        // ^ until the index is loaded
+
+        eventSearch.setWatermark(watermark);
+        assertThat(eventSearch.contains(event.username, "zeta"))
+                .isEqualTo(event.username.in("zeta.user")
+                                         .or(event.username.contains("zeta").and(event.storedAt.goe(watermark))));
+        assertThat(eventSearch.containsIgnoreCase(event.eventName, "zeta_ev"))
+                .isEqualTo(event.eventName.in("ZETA_EVENT")
+                                          .or(event.eventName.containsIgnoreCase("zeta_ev")
+                                                             .and(event.storedAt.goe(watermark))));
+        assertThat(eventSearch.contains(event.username, "omega"))
+                .isEqualTo(event.username.contains("omega").and(event.storedAt.goe(watermark)));
+        // ^ no indexed value matches: only the events stored after the watermark can
+        assertThat(eventSearch.contains(event.correlationId, "zeta")).isEqualTo(event.correlationId.contains("zeta"));
+    }
+
+    @Test
+    void givenTooManyMatches_thenContainsIsTheRegex() {
+        var event = QEvent.event;
+        var eventSearch = new EventSearch(1);
+
+        eventSearch.index(new Event(null, 0, null, null, "zeta.one", null, null, null, null));
+        eventSearch.index(new Event(null, 0, null, null, "zeta.two", null, null, null, null));
+        eventSearch.setWatermark(LocalDateTime.now());
+
+        assertThat(eventSearch.contains(event.username, "zeta")).isEqualTo(event.username.contains("zeta"));
+    }
+}
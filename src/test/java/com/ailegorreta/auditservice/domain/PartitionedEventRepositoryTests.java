@@ -0,0 +1,149 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  PartitionedEventRepositoryTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.auditservice.EnableTestContainers;
+import com.ailegorreta.auditservice.config.ServiceConfig;
+import com.ailegorreta.auditservice.config.StorageConfig;
+import com.ailegorreta.commons.event.EventType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the EventRepository with MONTHLY partitioning: the pages that cross a month boundary, the merge of
+ * the partitions sorted by other property than eventDate and the routing of save, findById and findEventsDetail.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@DataMongoTest(properties = "audit-service.storage.partitioning=MONTHLY")
+@EnableTestContainers
+@Import({ServiceConfig.class, StorageConfig.class})
+@ActiveProfiles("integration-tests")
+public class PartitionedEventRepositoryTests {
+
+    @MockBean
+    private StreamBridge streamBridge;
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+    @Autowired
+    EventRepository eventRepository;
+
+    private final QEvent qEvent = QEvent.event;
+    private final LocalDateTime boundary = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private final List<Event> events = new ArrayList<>();
+
+    @BeforeEach
+    void insertEventsOfTwoMonths() {
+        mongoTemplate.getCollectionNames().stream()
+                     .filter(name -> EventPartitioning.month("event", name).isPresent())
+                     .forEach(mongoTemplate::dropCollection);
+        events.clear();
+        IntStream.range(0, 10).forEach(i -> events.add(event(boundary.plusMinutes(i - 5), "user-" + (9 - i), i)));
+        // ^ five events in September and five in October, the usernames in the opposite order
+
+        assertThat(eventRepository.insertAll(events)).hasSize(10);
+    }
+
+    private Event event(LocalDateTime eventDate, String username, int idUsuario) {
+        var name = username + "|" + eventDate;
+
+        return new Event(EventIds.timeOrdered(EventCodec.toEpochMilli(eventDate), name), 0, name, EventType.DB_STORE,
+                         username, "EVENT_TEST", eventDate, "audit-service",
+                         new Document("datos", new Document("idUsuario", idUsuario).append("telefono", "5591495040")));
+    }
+
+    private List<UUID> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+
+    @Test
+    void givenPagesAcrossTheMonthBoundary_thenEventsInOrderWithoutGapsNorRepetitions() {
+        var predicate = qEvent.eventDate.between(boundary.minusDays(1), boundary.plusDays(1));
+        var read = new ArrayList<Event>();
+
+        for (int page = 0; page < 4; page++) {
+            var result = eventRepository.findAll(predicate, PageRequest.of(page, 3, Sort.by("eventDate")));
+
+            assertThat(result.getTotalElements()).isEqualTo(10);
+            read.addAll(result.getContent());
+        }
+        assertThat(ids(read)).containsExactlyElementsOf(ids(events));
+
+        var descending = eventRepository.findAll(predicate, PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "eventDate")));
+
+        assertThat(ids(descending.getContent())).containsExactlyElementsOf(ids(List.of(events.get(6), events.get(5),
+                                                                                     events.get(4))));
+        assertThat(mongoTemplate.getCollection("event_2026_09").countDocuments()).isEqualTo(5);
+        assertThat(mongoTemplate.getCollection("event_2026_10").countDocuments()).isEqualTo(5);
+    }
+
+    @Test
+    void givenSortByOtherProperty_thenMergeThePartitions() {
+        var byUsername = events.stream().sorted(Comparator.comparing(Event::getUsername)).toList();
+        var page = eventRepository.findAll(qEvent.eventName.eq("EVENT_TEST"), PageRequest.of(1, 4, Sort.by("username")));
+        var fluent = eventRepository.findBy(qEvent.eventName.eq("EVENT_TEST"),
+                                            query -> query.sortBy(Sort.by("username")).page(PageRequest.of(2, 4)));
+
+        assertThat(page.getTotalElements()).isEqualTo(10);
+        assertThat(ids(page.getContent())).containsExactlyElementsOf(ids(byUsername.subList(4, 8)));
+        assertThat(ids(fluent.getContent())).containsExactlyElementsOf(ids(byUsername.subList(8, 10)));
+    }
+
+    @Test
+    void givenPartitions_thenSaveFindByIdAndFindEventsDetailUseThem() {
+        var september = event(boundary.minusDays(10), "user-saved", 99);
+
+        eventRepository.save(september);
+
+        assertThat(mongoTemplate.findById(september.getId(), Event.class, "event_2026_09")).isNotNull();
+        assertThat(eventRepository.findById(september.getId())).isPresent();
+        assertThat(eventRepository.findById(events.get(7).getId()).map(Event::getUsername)).contains("user-2");
+        assertThat(eventRepository.findEventsDetail(99, "5591495040")).hasSize(1);
+        assertThat(eventRepository.findEventsDetail(3, "559149")).hasSize(1);
+    }
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  TimeSeriesEventRepositoryTests.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.auditservice.EnableTestContainers;
+import com.ailegorreta.auditservice.config.ServiceConfig;
+import com.ailegorreta.auditservice.config.StorageConfig;
+import com.ailegorreta.commons.event.EventType;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the EventRepository bulk insert in the TIME_SERIES storage mode, i.e., partitions without a unique
+ * '_id': the events already stored, or repeated in the batch, are not inserted again.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@DataMongoTest(properties = {"audit-service.storage.partitioning=MONTHLY", "audit-service.storage.mode=TIME_SERIES"})
+@EnableTestContainers
+@Import({ServiceConfig.class, StorageConfig.class})
+@ActiveProfiles("integration-tests")
+public class TimeSeriesEventRepositoryTests {
+
+    @MockBean
+    private StreamBridge streamBridge;
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+    @Autowired
+    EventRepository eventRepository;
+
+    private final LocalDateTime eventDate = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    @BeforeEach
+    void dropPartitions() {
+        mongoTemplate.getCollectionNames().stream()
+                     .filter(name -> EventPartitioning.month("event", name).isPresent())
+                     .forEach(mongoTemplate::dropCollection);
+    }
+
+    private List<Event> events(int from, int to) {
+        return IntStream.range(from, to)
+                        .mapToObj(i -> {
+                            var date = eventDate.plusMinutes(i);
+                            var name = "user-" + i + "|" + date;
+
+                            return new Event(EventIds.timeOrdered(EventCodec.toEpochMilli(date), name), 0, name,
+                                             EventType.DB_STORE, "user-" + i, "EVENT_TEST", date, "audit-service",
+                                             new Document("datos", new Document("idUsuario", i)));
+                        })
+                        .toList();
+    }
+
+    @Test
+    void givenRedeliveredEvents_thenOnlyTheNewOnesAreInserted() {
+        assertThat(eventRepository.insertAll(events(0, 4))).hasSize(4);
+
+        var inserted = eventRepository.insertAll(events(2, 6));
+        // ^ e.g., redelivered after the IdempotencyFilter window
+
+        assertThat(inserted).extracting(Event::getUsername).containsExactly("user-4", "user-5");
+        assertThat(eventRepository.count(QEvent.event.eventDate.between(eventDate, eventDate.plusHours(1))))
+                .isEqualTo(6);
+    }
+
+    @Test
+    void givenTheSameEventTwiceInTheBatch_thenItIsInsertedOnce() {
+        var event = events(0, 1).get(0);
+
+        assertThat(eventRepository.insertAll(List.of(event, event))).hasSize(1);
+        assertThat(eventRepository.insertAll(List.of(event))).isEmpty();
+    }
+}
@@ -0,0 +1,186 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  TimeSeriesStorageBenchmark.java
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.domain;
+
+import com.ailegorreta.commons.event.EventType;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import org.bson.Document;
+import org.bson.UuidRepresentation;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark of the storage modes (see EventStorageMode): the same events are stored in a regular collection
+ * and in a time-series collection and it compares the storage footprint and the latency of an eventDate
+ * range query.
+ *
+ * It is not run by the test task, run it with:
+ *
+ *      ./gradlew benchmark -Dbenchmark.events=1000000
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@Tag("benchmark")
+public class TimeSeriesStorageBenchmark {
+
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 200_000);
+    private static final int BATCH = 1_000;
+    private static final int QUERIES = 50;
+    private static final String[] APPLICATIONS = {"audit-service", "iam-service", "cache-service", "bup-service"};
+
+    private static final MongoDBContainer mongo = new MongoDBContainer(DockerImageName.parse("mongo:latest"));
+    private static MongoClient client;
+    private static MongoDatabase database;
+    private static LocalDateTime start;
+
+    @BeforeAll
+    static void startMongo() {
+        mongo.start();
+        client = MongoClients.create(MongoClientSettings.builder()
+                                                        .applyConnectionString(new ConnectionString(mongo.getReplicaSetUrl()))
+                                                        .uuidRepresentation(UuidRepresentation.STANDARD)
+                                                        .build());
+        database = client.getDatabase("benchmark");
+        start = LocalDateTime.now().minusDays(30);
+    }
+
+    @AfterAll
+    static void stopMongo() {
+        client.close();
+        mongo.stop();
+    }
+
+    @Test
+    void compareStorageModes() {
+        database.createCollection("event");
+        database.createCollection("eventTimeSeries",
+                                  new CreateCollectionOptions().timeSeriesOptions(
+                                        new TimeSeriesOptions(EventCodec.EVENT_DATE)
+                                                .metaField(EventCodec.META)
+                                                .granularity(TimeSeriesGranularity.SECONDS)));
+
+        var collection = eventCollection("event", false);
+        var timeSeries = eventCollection("eventTimeSeries", true);
+
+        collection.createIndex(new Document(EventCodec.EVENT_DATE, 1));
+        // ^ a time-series collection has its own clustered index on the buckets by meta and time
+
+        insert(collection, timeSeries);
+
+        var from = start.plusDays(10);
+        var to = from.plusHours(6);
+        var filter = Filters.and(Filters.gte(EventCodec.EVENT_DATE, new Date(EventCodec.toEpochMilli(from))),
+                                 Filters.lt(EventCodec.EVENT_DATE, new Date(EventCodec.toEpochMilli(to))));
+
+        assertThat(count(collection, filter)).isEqualTo(count(timeSeries, filter));
+
+        report("COLLECTION", "event", collection, filter);
+        report("TIME_SERIES", "eventTimeSeries", timeSeries, filter);
+    }
+
+    private MongoCollection<Event> eventCollection(String name, boolean timeSeries) {
+        var documentRegistry = database.getCodecRegistry();
+        CodecRegistry registry = CodecRegistries.fromRegistries(
+                                    CodecRegistries.fromCodecs(new EventCodec(documentRegistry, timeSeries)),
+                                    documentRegistry);
+
+        return database.getCollection(name, Event.class).withCodecRegistry(registry);
+    }
+
+    /**
+     * The same events (a typical audit mix: few applications, bodies of similar shape) in both collections,
+     * one event every ~13 seconds during 30 days for 200,000 events
+     */
+    private void insert(MongoCollection<Event> collection, MongoCollection<Event> timeSeries) {
+        var random = new Random(17);
+        var stepMillis = 30L * 24 * 60 * 60 * 1000 / EVENTS;
+        var batch = new ArrayList<Event>(BATCH);
+
+        for (int i = 0; i < EVENTS; i++) {
+            var date = EventCodec.toLocalDateTime(EventCodec.toEpochMilli(start) + i * stepMillis);
+            var application = APPLICATIONS[random.nextInt(APPLICATIONS.length)];
+            var body = new Document("datos", new Document("idUsuario", random.nextInt(1_000))
+                                                        .append("roles", List.of("ADMIN", "USER"))
+                                                        .append("nombre", "usuario" + random.nextInt(1_000)));
+
+            batch.add(new Event(EventIds.timeOrdered(), 0, "correlation-" + i, EventType.DB_STORE,
+                                "user" + random.nextInt(100), "EVENT_" + random.nextInt(20), date, application, body));
+            if (batch.size() == BATCH || i == EVENTS - 1) {
+                collection.insertMany(batch, new InsertManyOptions().ordered(false));
+                timeSeries.insertMany(batch, new InsertManyOptions().ordered(false));
+                batch.clear();
+            }
+        }
+    }
+
+    private long count(MongoCollection<Event> collection, Bson filter) {
+        return collection.countDocuments(filter);
+    }
+
+    private void report(String mode, String name, MongoCollection<Event> collection, Bson filter) {
+        var stats = database.runCommand(new Document("collStats", name));
+        var latencies = new long[QUERIES];
+
+        for (int i = 0; i < QUERIES; i++) {
+            var begin = System.nanoTime();
+
+            for (var ignored : collection.find(filter)) {}
+            latencies[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-12s events: %,d storageSize: %,d bytes totalIndexSize: %,d bytes " +
+                          "range query p50: %.2f ms p95: %.2f ms%n",
+                          mode, EVENTS,
+                          stats.get("storageSize", Number.class).longValue(),
+                          stats.get("totalIndexSize", Number.class).longValue(),
+                          latencies[QUERIES / 2] / 1e6, latencies[QUERIES * 95 / 100] / 1e6);
+    }
+}
@@ -0,0 +1,136 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  QueryResultCacheTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.cache
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventDateRange
+import com.ailegorreta.auditservice.domain.EventsDeleted
+import com.ailegorreta.auditservice.domain.EventsStored
+import com.ailegorreta.auditservice.domain.QEvent
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.context.SpringBootTest
+import org.springframework.test.context.ActiveProfiles
+import java.time.Clock
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Tests for the keys, the invalidation with the eventDate ranges and the eviction of the query result cache, with
+ * the configuration of application.yml.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@SpringBootTest(classes = [ServiceConfig::class, QueryResultCache::class, SimpleMeterRegistry::class],
+                webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("integration-tests")
+class QueryResultCacheTests {
+
+    @Autowired
+    lateinit var serviceConfig: ServiceConfig
+    @Autowired
+    lateinit var cache: QueryResultCache
+
+    private val loads = AtomicInteger()
+    private val event = QEvent.event
+    private val lastYear = EventDateRange(LocalDateTime.now().minusYears(1).minusDays(1), LocalDateTime.now().minusYears(1))
+    private val today = EventDateRange(LocalDateTime.now().withHour(0), null)
+
+    @BeforeEach
+    fun emptyCache() {
+        cache.clear()
+        cache.clock = Clock.systemDefaultZone()
+    }
+
+    @Test
+    fun givenTheSameQuery_thenLoadItOnce() {
+        val predicate = event.username.eq("admin").and(event.eventName.eq("LOGIN"))
+        val reordered = event.eventName.eq("LOGIN").and(event.username.eq("admin"))
+
+        assertThat(cache.get("eventsCount", predicate, "") { loads.incrementAndGet() }).isEqualTo(1)
+        assertThat(cache.get("eventsCount", reordered, "") { loads.incrementAndGet() }).isEqualTo(1)
+        assertThat(cache.get("eventsCount", reordered, "page 2") { loads.incrementAndGet() }).isEqualTo(2)
+    }
+
+    @Test
+    fun givenStoredEvents_thenInvalidateOnlyTheOverlappingRanges() {
+        cache.get("lastYear", lastYear) { loads.incrementAndGet() }
+        cache.get("today", today) { loads.incrementAndGet() }
+        cache.get("all", EventDateRange.UNBOUNDED) { loads.incrementAndGet() }
+
+        cache.onStored(EventsStored(EventDateRange(LocalDateTime.now(), LocalDateTime.now()), 10))
+
+        assertThat(cache.size()).isEqualTo(1)
+        assertThat(cache.get("lastYear", lastYear) { loads.incrementAndGet() }).isEqualTo(1)
+        assertThat(cache.get("today", today) { loads.incrementAndGet() }).isEqualTo(4)
+    }
+
+    @Test
+    fun givenDeletedEvents_thenInvalidateTheirRange() {
+        cache.get("lastYear", lastYear) { loads.incrementAndGet() }
+        cache.get("today", today) { loads.incrementAndGet() }
+
+        cache.onDeleted(EventsDeleted(EventDateRange(lastYear.from().minusDays(1), lastYear.from()), 100))
+
+        assertThat(cache.get("lastYear", lastYear) { loads.incrementAndGet() }).isEqualTo(3)
+        assertThat(cache.get("today", today) { loads.incrementAndGet() }).isEqualTo(2)
+    }
+
+    @Test
+    fun givenEventsStoredDuringTheLoad_thenDoNotCacheTheResult() {
+        cache.get("today", today) {
+            cache.onStored(EventsStored(EventDateRange(LocalDateTime.now(), LocalDateTime.now()), 1))
+            loads.incrementAndGet()
+        }
+
+        assertThat(cache.size()).isZero()
+    }
+
+    @Test
+    fun givenTheWatermark_thenExpireTheOpenRangesFirst() {
+        cache.get("lastYear", lastYear) { loads.incrementAndGet() }
+        cache.get("today", today) { loads.incrementAndGet() }
+        cache.clock = Clock.offset(Clock.systemDefaultZone(), Duration.ofSeconds(10))
+
+        assertThat(cache.get("lastYear", lastYear) { loads.incrementAndGet() }).isEqualTo(1)
+        assertThat(cache.get("today", today) { loads.incrementAndGet() }).isEqualTo(3)
+    }
+
+    @Test
+    fun givenMoreThanMaxBytes_thenEvictTheLeastRecentlyUsed() {
+        val result = "x".repeat(2_000_000)         // ~4MB, a 64MB cache holds 15 of them
+
+        (1..20).forEach { i -> cache.get<String>("result $i", lastYear) { result } }
+
+        assertThat(cache.bytes()).isLessThanOrEqualTo(serviceConfig.cacheMaxBytes)
+        assertThat(cache.size()).isLessThan(20)
+        cache.get("result 1", lastYear) { loads.incrementAndGet() }
+        assertThat(loads.get()).isEqualTo(1)
+    }
+}
@@ -0,0 +1,108 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventBodyCompressorTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.compression
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.commons.event.EventType
+import com.mongodb.MongoClientSettings
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.BsonBinaryWriter
+import org.bson.Document
+import org.bson.UuidRepresentation
+import org.bson.codecs.EncoderContext
+import org.bson.codecs.configuration.CodecRegistries
+import org.bson.io.BasicOutputBuffer
+import org.bson.types.Binary
+import org.bson.types.ObjectId
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.verifyNoInteractions
+import org.springframework.data.mongodb.core.MongoTemplate
+import java.math.BigDecimal
+import java.time.LocalDateTime
+import java.util.*
+
+/**
+ * Tests for the size bound that keeps the eventBody smaller than the compression threshold from being encoded in
+ * the ingestion path. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventBodyCompressorTests {
+
+    private val codec = CodecRegistries.withUuidRepresentation(MongoClientSettings.getDefaultCodecRegistry(),
+                                                               UuidRepresentation.STANDARD)
+                                       .get(Document::class.java)
+
+    @Test
+    fun givenBodies_thenTheBoundIsNeverSmallerThanTheBsonSize() {
+        val bodies = listOf(Document(),
+                            Document("datos", "value").append("ñandú", "símbolo €").append("emoji", "😀"),
+                            Document("n", 1).append("l", 2L).append("d", 3.5).append("b", true).append("x", null)
+                                            .append("date", Date()).append("local", LocalDateTime.now())
+                                            .append("id", UUID.randomUUID()).append("oid", ObjectId())
+                                            .append("dec", BigDecimal("12.50")).append("bin", Binary(ByteArray(40))),
+                            Document("datos", Document("lista", (0 until 200).map { Document("i", it).append("s", "v$it") })
+                                                       .append("mapa", mapOf("a" to listOf(1, 2, 3)))))
+
+        bodies.forEach { body ->
+            assertThat(EventBodyCompressor.bsonSizeBound(body, Int.MAX_VALUE)).isGreaterThanOrEqualTo(bson(body).size)
+        }
+    }
+
+    @Test
+    fun givenLimit_thenTheBoundStopsAtIt() {
+        val body = Document("lista", (0 until 10_000).map { "value-$it" })
+
+        assertThat(EventBodyCompressor.bsonSizeBound(body, 1024)).isEqualTo(1024)
+        assertThat(EventBodyCompressor.bsonSizeBound(Document("other", Any()), 1024)).isEqualTo(1024)
+        // ^ a type without a bound is encoded to know its size
+    }
+
+    @Test
+    fun givenSmallBody_thenItIsNotEncoded() {
+        val mongoTemplate = mock(MongoTemplate::class.java)
+        val compressor = EventBodyCompressor(ServiceConfig(), mongoTemplate, SimpleMeterRegistry())
+        val event = Event(UUID.randomUUID(), 0, "correlationId", EventType.DB_STORE, "adminTEST", "TEST",
+                          LocalDateTime.now(), "audit-service", Document("datos", "value"))
+
+        compressor.compress(event)
+
+        verifyNoInteractions(mongoTemplate)
+        // ^ the codec of the MongoTemplate is only read to encode a body
+        assertThat(event.eventBody).isInstanceOf(Document::class.java)
+        compressor.close()
+    }
+
+    private fun bson(body: Document): ByteArray {
+        val output = BasicOutputBuffer()
+
+        codec.encode(BsonBinaryWriter(output), body, EncoderContext.builder().build())
+
+        return output.toByteArray()
+    }
+}
@@ -0,0 +1,95 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventCounterTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.count
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventCountMode
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.domain.QEvent
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.ArgumentMatchers.anyLong
+import org.mockito.ArgumentMatchers.eq
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import java.util.OptionalLong
+
+/**
+ * Tests for the choice of the counting mode and the display of the counts, with a mock repository.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventCounterTests {
+
+    private val eventRepository = mock(EventRepository::class.java)
+    private val eventCounter = EventCounter(ServiceConfig(), eventRepository)
+    private val predicate = QEvent.event.username.eq("admin")
+
+    @Test
+    fun givenCappedMode_thenStopAtTheLimit() {
+        `when`(eventRepository.count(predicate, 10_001L)).thenReturn(10_001L)
+        `when`(eventRepository.count(predicate, 101L)).thenReturn(42L)
+
+        val capped = eventCounter.count(predicate, EventCountMode.CAPPED, null)
+        val count = eventCounter.count(predicate, EventCountMode.CAPPED, 100L)
+
+        assertThat(capped.count).isEqualTo(10_000L)
+        assertThat(capped.exact).isFalse()
+        assertThat(capped.display).isEqualTo("10,000+")
+        assertThat(count.count).isEqualTo(42L)
+        assertThat(count.exact).isTrue()
+        assertThat(count.display).isEqualTo("42")
+    }
+
+    @Test
+    fun givenAutoModeWithoutPredicate_thenUseTheMetadata() {
+        `when`(eventRepository.estimatedCount()).thenReturn(1_234_567L)
+
+        val count = eventCounter.count(null, EventCountMode.AUTO, null)
+
+        assertThat(count.mode).isEqualTo(EventCountMode.ESTIMATE)
+        assertThat(count.count).isEqualTo(1_230_000L)
+        assertThat(count.display).isEqualTo("~1,230,000")
+        verify(eventRepository, never()).count()
+    }
+
+    @Test
+    fun givenEstimateMode_thenUseTheSampleOrFallBackToCapped() {
+        `when`(eventRepository.estimatedCount(eq(predicate), anyInt(), anyInt())).thenReturn(OptionalLong.of(12_345L))
+
+        assertThat(eventCounter.count(predicate, EventCountMode.ESTIMATE, null).display).isEqualTo("~12,300")
+
+        `when`(eventRepository.estimatedCount(eq(predicate), anyInt(), anyInt())).thenReturn(OptionalLong.empty())
+        `when`(eventRepository.count(eq(predicate), anyLong())).thenReturn(3L)
+
+        val count = eventCounter.count(predicate, EventCountMode.ESTIMATE, null)
+
+        assertThat(count.mode).isEqualTo(EventCountMode.CAPPED)
+        assertThat(count.display).isEqualTo("3")
+    }
+}
@@ -0,0 +1,203 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventServiceBatchTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.auditservice.service.file.EventFileSink
+import com.ailegorreta.auditservice.service.notification.NotificationBuffer
+import com.ailegorreta.auditservice.service.notification.NotificationSubscriptions
+import com.ailegorreta.auditservice.service.rollup.EventRollup
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.commons.event.EventType
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyBoolean
+import org.mockito.ArgumentMatchers.anyCollection
+import org.mockito.ArgumentMatchers.anyList
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.doNothing
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.mockingDetails
+import org.mockito.Mockito.`when`
+import reactor.core.publisher.Sinks
+import java.io.IOException
+
+/**
+ * Tests for the batch consumer path (processEvents): the events are inserted in bulks of at most
+ * 'audit-service.ingest.batch.size' events, the FULL_STORE duplicates are written to the file only if absent and
+ * only the stored events are counted in the rollups.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventServiceBatchTests {
+
+    private val serviceConfig = ServiceConfig()
+    private val eventSpool = mock(EventSpool::class.java)
+    private val eventFileSink = mock(EventFileSink::class.java)
+    private val idempotencyFilter = IdempotencyFilter(serviceConfig)
+    private val eventRollup = mock(EventRollup::class.java)
+    private val eventService = EventService(serviceConfig, eventFileSink, idempotencyFilter, eventSpool,
+                                            mock(EventBodyCompressor::class.java),
+                                            eventRollup, mock(NotificationBuffer::class.java),
+                                            mock(NotificationSubscriptions::class.java),
+                                            Sinks.many().multicast().directBestEffort())
+    private val bulks = mutableListOf<List<Event>>()
+    private val duplicates = mutableSetOf<String>()
+
+    init {
+        `when`(eventSpool.insertAll(anyList())).thenAnswer { invocation ->
+            val events = invocation.getArgument<List<Event>>(0)
+
+            bulks.add(events)
+            events.filter { it.correlationId !in duplicates }
+        }
+    }
+
+    @Test
+    fun givenBatch_thenInsertInBulksOfTheBatchSize() {
+        val eventDTOs = (1..serviceConfig.batchSize + 1).map { eventDTO("event-$it", EventType.DB_STORE) }
+
+        eventService.processEvents(eventDTOs)
+
+        assertThat(bulks.map { it.size }).containsExactly(serviceConfig.batchSize, 1)
+    }
+
+    @Test
+    fun givenDuplicatesInTheBulk_thenTheFullStoreOnesAreWrittenToTheFileIfAbsent() {
+        val eventDTOs = listOf(eventDTO("inserted", EventType.FULL_STORE),
+                               eventDTO("duplicate", EventType.FULL_STORE),
+                               eventDTO("file", EventType.FILE_STORE),
+                               eventDTO("database", EventType.DB_STORE))
+
+        duplicates.add("duplicate")
+        eventService.processEvents(eventDTOs)
+
+        assertThat(bulks.single().map { it.correlationId }).containsExactly("inserted", "duplicate", "database")
+        assertThat(appended()).containsExactlyInAnyOrder("inserted", "file")
+        assertThat(appendedIfAbsent()).containsExactly("duplicate")
+    }
+
+    @Test
+    fun givenRedeliveredBatch_thenItIsSkipped() {
+        val eventDTOs = listOf(eventDTO("event", EventType.FULL_STORE))
+        val origins = listOf(EventOrigin("audit", 0, 5L, System.currentTimeMillis()))
+
+        eventService.processEvents(eventDTOs, origins)
+        eventService.processEvents(eventDTOs, origins)
+
+        assertThat(bulks).hasSize(1)
+        assertThat(appended()).containsExactly("event")
+    }
+
+    @Test
+    fun givenFailedBatch_thenTheRedeliveryCountsEachEventOnce() {
+        val eventDTOs = listOf(eventDTO("inserted", EventType.DB_STORE),
+                               eventDTO("duplicate", EventType.DB_STORE),
+                               eventDTO("file", EventType.FILE_STORE))
+        val origins = eventDTOs.indices.map { EventOrigin("audit", 0, it.toLong(), System.currentTimeMillis()) }
+
+        duplicates.add("duplicate")
+        // ^ e.g., inserted by the failed delivery
+        doThrow(IllegalStateException("disk full")).`when`(eventFileSink).append(anyEvent(), anyBoolean())
+        assertThatThrownBy { eventService.processEvents(eventDTOs, origins) }.isInstanceOf(IllegalStateException::class.java)
+        assertThat(recorded()).containsExactly("inserted")
+
+        duplicates.add("inserted")
+        doNothing().`when`(eventFileSink).append(anyEvent(), anyBoolean())
+        eventService.processEvents(eventDTOs, origins)
+
+        assertThat(recorded()).containsExactly("inserted", "file")
+    }
+
+    @Test
+    fun givenFailedSyncAfterTheInsert_thenTheRedeliveryWritesTheFullStoreEventToTheFile() {
+        val eventDTOs = listOf(eventDTO("event", EventType.FULL_STORE))
+        val origins = listOf(EventOrigin("audit", 0, 7L, System.currentTimeMillis()))
+
+        doAnswer { throw IOException("disk full") }.`when`(eventFileSink).sync(anyCollection())
+        assertThatThrownBy { eventService.processEvents(eventDTOs, origins) }.isInstanceOf(IOException::class.java)
+
+        duplicates.add("event")
+        // ^ mongo stored it before the sync failed
+        doNothing().`when`(eventFileSink).sync(anyCollection())
+        eventService.processEvents(eventDTOs, origins)
+
+        assertThat(appended()).containsExactly("event")
+        assertThat(appendedIfAbsent()).containsExactly("event")
+        assertThat(recorded()).containsExactly("event")
+    }
+
+    @Test
+    fun givenFailedSyncAfterTheInsert_thenTheRedeliveryOfASingleEventWritesItToTheFile() {
+        val eventDTO = eventDTO("event", EventType.FULL_STORE)
+        val origin = EventOrigin("audit", 0, 8L, System.currentTimeMillis())
+
+        doAnswer { throw IOException("disk full") }.`when`(eventFileSink).sync(anyCollection())
+        assertThatThrownBy { eventService.processEvent(eventDTO, origin) }.isInstanceOf(IOException::class.java)
+
+        duplicates.add("event")
+        doNothing().`when`(eventFileSink).sync(anyCollection())
+        eventService.processEvent(eventDTO, origin)
+
+        assertThat(appendedIfAbsent()).containsExactly("event")
+    }
+
+    private fun anyEvent(): Event {
+        any(Event::class.java)
+
+        return uninitialized()
+        // ^ the matcher is registered, the mock does not check the null
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> uninitialized(): T = null as T
+
+    private fun recorded() = mockingDetails(eventRollup).invocations
+                                                        .filter { it.method.name == "record" }
+                                                        .map { (it.arguments[0] as Event).correlationId }
+
+    private fun appended() = appended(false)
+
+    private fun appendedIfAbsent() = appended(true)
+
+    private fun appended(ifAbsent: Boolean) = mockingDetails(eventFileSink).invocations
+                                                                           .filter { it.method.name == "append" &&
+                                                                                     it.arguments[1] == ifAbsent }
+                                                                           .map { (it.arguments[0] as Event).correlationId }
+
+    private fun eventDTO(correlationId: String, eventType: EventType) = EventDTO(correlationId = correlationId,
+                                                                                 eventType = eventType,
+                                                                                 username = "adminTEST",
+                                                                                 eventName = "TEST",
+                                                                                 applicationName = "audit-service",
+                                                                                 coreName = "test",
+                                                                                 eventBody = mapOf("datos" to "value"))
+}
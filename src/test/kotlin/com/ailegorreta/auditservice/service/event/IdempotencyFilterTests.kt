@@ -0,0 +1,83 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  IdempotencyFilterTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventIds
+import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.commons.event.EventType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.*
+
+/**
+ * Tests for the idempotency filter. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class IdempotencyFilterTests {
+
+    private val filter = IdempotencyFilter(ServiceConfig())
+
+    private fun eventDTO(correlationId: String) = EventDTO(correlationId = correlationId,
+                                                           eventType = EventType.DB_STORE,
+                                                           username = "adminTEST",
+                                                           eventName = "TEST",
+                                                           applicationName = "audit-service",
+                                                           coreName = "test",
+                                                           eventBody = mapOf("datos" to "value"))
+
+    @Test
+    fun givenSameRecord_thenSameTimeOrderedId() {
+        val origin = EventOrigin("audit", 3, 42L, System.currentTimeMillis())
+        val id = filter.idFor(eventDTO("a"), origin)
+
+        assertThat(id).isEqualTo(filter.idFor(eventDTO("a"), origin))
+        assertThat(id).isNotEqualTo(filter.idFor(eventDTO("a"), origin.copy(offset = 43L)))
+        assertThat(EventIds.isTimeOrdered(id)).isTrue
+        assertThat(EventIds.epochMilli(id)).isEqualTo(origin.timestamp)
+        assertThat(filter.idFor(eventDTO("a"), null)).isNotEqualTo(filter.idFor(eventDTO("a"), null))
+        // ^ not from Kafka, i.e., no redeliveries: just a new time ordered id
+    }
+
+    @Test
+    fun givenRecreatedTopic_thenTheSameOffsetGetsADifferentId() {
+        val origin = EventOrigin("audit", 3, 42L, System.currentTimeMillis())
+        val recreated = origin.copy(timestamp = origin.timestamp!! + 60_000)
+
+        assertThat(filter.idFor(eventDTO("a"), origin)).isNotEqualTo(filter.idFor(eventDTO("b"), origin))
+        assertThat(filter.idFor(eventDTO("a"), origin)).isNotEqualTo(filter.idFor(eventDTO("a"), recreated))
+    }
+
+    @Test
+    fun givenRegisteredId_thenIsDuplicate() {
+        val id = filter.idFor(eventDTO("a"), EventOrigin("audit", 0, 1L, System.currentTimeMillis()))
+
+        assertThat(filter.isDuplicate(id)).isFalse
+        filter.register(id)
+        assertThat(filter.isDuplicate(id)).isTrue
+        assertThat(filter.isDuplicate(UUID.randomUUID())).isFalse
+    }
+}
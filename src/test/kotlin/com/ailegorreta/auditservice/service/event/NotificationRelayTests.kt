@@ -0,0 +1,97 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  NotificationRelayTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.gql.types.Notification
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.auditservice.service.file.EventFileSink
+import com.ailegorreta.auditservice.service.notification.NotificationBuffer
+import com.ailegorreta.auditservice.service.notification.NotificationSubscriptions
+import com.ailegorreta.auditservice.service.rollup.EventRollup
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.commons.event.EventType
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.anyList
+import org.mockito.Mockito.*
+import reactor.core.publisher.Sinks
+
+/**
+ * Tests for the broadcast of the notifications: they are stored by the instance of the shared group and sent to
+ * the subscribers by the relay of every instance.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class NotificationRelayTests {
+
+    private val eventSpool = mock(EventSpool::class.java)
+    private val notificationBuffer = mock(NotificationBuffer::class.java)
+    private val notificationSubscriptions = NotificationSubscriptions(ServiceConfig(), notificationBuffer,
+                                                                      SimpleMeterRegistry())
+    private val notificationSink = Sinks.many().replay().all<Notification>()
+    private val eventService = EventService(ServiceConfig(), mock(EventFileSink::class.java),
+                                            IdempotencyFilter(ServiceConfig()), eventSpool, mock(EventBodyCompressor::class.java),
+                                            mock(EventRollup::class.java), notificationBuffer,
+                                            notificationSubscriptions, notificationSink)
+
+    init {
+        `when`(eventSpool.insertAll(anyList())).thenAnswer { it.getArgument<List<Event>>(0) }
+    }
+
+    private fun eventDTO() = EventDTO(correlationId = "test",
+                                      eventType = EventType.DB_STORE,
+                                      username = "admin",
+                                      eventName = NotificationBuffer.NOTIFICATION,
+                                      applicationName = "audit-service",
+                                      coreName = "test",
+                                      eventBody = linkedMapOf("notificaFacultad" to "title", "datos" to "message"))
+
+    private fun sent() = notificationSink.asFlux().map { it.title }.collectList().block(java.time.Duration.ofSeconds(1))
+
+    @Test
+    fun givenBroadcast_thenTheConsumerStoresAndTheRelaySends() {
+        val origin = EventOrigin("notify", 0, 7L, System.currentTimeMillis())
+        val received = mutableListOf<String>()
+        val session = notificationSubscriptions.subscribe("admin").subscribe { received.add(it.title) }
+
+        eventService.processNotification(eventDTO(), origin)
+        assertThat(received).isEmpty()
+        verify(eventSpool, times(1)).insertAll(anyList())
+
+        eventService.relayNotification(eventDTO(), origin)
+        notificationSink.tryEmitComplete()
+
+        assertThat(received).containsExactly("title")
+        assertThat(sent()).containsExactly("title")
+        verify(eventSpool, times(1)).insertAll(anyList())           // the relay does not store
+        assertThat(mockingDetails(notificationBuffer).invocations.count { it.method.name == "add" }).isEqualTo(2)
+        // ^ same event id in both: the buffer ignores the second one
+        session.dispose()
+    }
+}
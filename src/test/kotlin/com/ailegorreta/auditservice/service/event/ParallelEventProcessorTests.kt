@@ -0,0 +1,183 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  ParallelEventProcessorTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.event
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.commons.event.EventDTO
+import com.ailegorreta.commons.event.EventType
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.spy
+import org.mockito.Mockito.`when`
+import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.kafka.support.Acknowledgment
+import org.springframework.kafka.support.KafkaHeaders
+import org.springframework.messaging.Message
+import java.util.*
+
+/**
+ * Tests for the lanes of the parallel consumer: order per key, acknowledgment after the processing and the
+ * retries of a failed event, that is acknowledged only once it is in the dead-letter topic.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class ParallelEventProcessorTests {
+
+    private val serviceConfig = spy(ServiceConfig())
+    private val eventService = mock(EventService::class.java)
+    private val streamBridge = mock(StreamBridge::class.java)
+    private val log = Collections.synchronizedList(mutableListOf<String>())
+
+    init {
+        doReturn(4).`when`(serviceConfig).parallelWorkers
+        doReturn(3).`when`(serviceConfig).parallelMaxAttempts
+        `when`(streamBridge.send(anyString(), any())).thenAnswer {
+            val message = it.getArgument<Message<EventDTO>>(1)
+
+            log.add("dead letter ${message.payload.correlationId}: ${message.headers[KafkaHeaders.DLT_EXCEPTION_MESSAGE]}")
+            true
+        }
+    }
+
+    @Test
+    fun givenEventsOfManyKeys_thenEachKeyIsProcessedInOrder() {
+        val random = Random(7)
+        val processor = ParallelEventProcessor(eventService, serviceConfig, streamBridge)
+
+        `when`(eventService.processEvent(anyEventDTO(), any())).thenAnswer {
+            Thread.sleep(random.nextInt(3).toLong())
+            val eventDTO = it.getArgument<EventDTO>(0)
+
+            log.add("${eventDTO.applicationName}:${eventDTO.correlationId}")
+            eventDTO
+        }
+        (0 until 50).forEach { i -> (0 until 8).forEach { app -> submit(processor, "app-$app", "$i") } }
+        processor.close()
+
+        (0 until 8).forEach { app ->
+            assertThat(log.filter { it.startsWith("app-$app:") }.map { it.substringAfter(':').toInt() })
+                .containsExactlyElementsOf(0 until 50)
+        }
+    }
+
+    @Test
+    fun givenProcessedEvent_thenItIsAcknowledgedAfterwards() {
+        val processor = ParallelEventProcessor(eventService, serviceConfig, streamBridge)
+
+        `when`(eventService.processEvent(anyEventDTO(), any())).thenAnswer {
+            log.add("processed")
+            it.getArgument<EventDTO>(0)
+        }
+        submit(processor, "app", "1")
+        processor.close()
+
+        assertThat(log).containsExactly("processed", "acknowledged")
+    }
+
+    @Test
+    fun givenFailures_thenRetryAndSendToTheDeadLetterTopicWhenTheAttemptsAreExhausted() {
+        val processor = ParallelEventProcessor(eventService, serviceConfig, streamBridge)
+        val attempts = mutableMapOf<String, Int>()
+
+        `when`(eventService.processEvent(anyEventDTO(), any())).thenAnswer {
+            val eventDTO = it.getArgument<EventDTO>(0)
+            val attempt = attempts.merge(eventDTO.correlationId!!, 1, Int::plus)!!
+
+            if (eventDTO.correlationId == "always" || (eventDTO.correlationId == "once" && attempt < 2))
+                throw IllegalStateException("mongo is down")
+            log.add("processed ${eventDTO.correlationId}")
+            eventDTO
+        }
+        submit(processor, "app", "once")
+        submit(processor, "app", "always")
+        submit(processor, "app", "next")
+        processor.close()
+
+        assertThat(attempts).containsEntry("once", 2).containsEntry("always", 3).containsEntry("next", 1)
+        assertThat(log).containsExactly("processed once", "acknowledged",
+                                        "dead letter always: mongo is down", "acknowledged",
+                                        "processed next", "acknowledged")
+        // ^ the failed event is acknowledged once it is in the dead-letter topic, so the offsets keep advancing
+    }
+
+    @Test
+    fun givenExhaustedAttemptsWithoutDeadLetter_thenTheEventIsNotAcknowledged() {
+        doReturn(false).`when`(serviceConfig).parallelDeadLetter
+        val processor = ParallelEventProcessor(eventService, serviceConfig, streamBridge)
+
+        `when`(eventService.processEvent(anyEventDTO(), any())).thenAnswer {
+            val eventDTO = it.getArgument<EventDTO>(0)
+
+            if (eventDTO.correlationId == "always") throw IllegalStateException("mongo is down")
+            log.add("processed ${eventDTO.correlationId}")
+            eventDTO
+        }
+        submit(processor, "app", "always")
+        submit(processor, "app", "next")
+        processor.close()
+
+        assertThat(log).containsExactly("processed next", "acknowledged")
+        // ^ the committed offset does not pass the failed event
+    }
+
+    @Test
+    fun givenFailedDeadLetterSend_thenTheEventIsNotAcknowledged() {
+        val processor = ParallelEventProcessor(eventService, serviceConfig, streamBridge)
+
+        doReturn(false).`when`(streamBridge).send(anyString(), any())
+        `when`(eventService.processEvent(anyEventDTO(), any())).thenThrow(IllegalStateException("mongo is down"))
+        submit(processor, "app", "always")
+        processor.close()
+
+        assertThat(log).isEmpty()
+    }
+
+    private fun anyEventDTO(): EventDTO {
+        any(EventDTO::class.java)
+
+        return uninitialized()
+        // ^ the matcher is registered, the mock does not check the null
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun <T> uninitialized(): T = null as T
+
+    private fun submit(processor: ParallelEventProcessor, applicationName: String, correlationId: String) {
+        val eventDTO = EventDTO(correlationId = correlationId,
+                                eventType = EventType.DB_STORE,
+                                username = "adminTEST",
+                                eventName = "TEST",
+                                applicationName = applicationName,
+                                coreName = "test",
+                                eventBody = mapOf("datos" to "value"))
+        val acknowledgment = Acknowledgment { log.add("acknowledged") }
+
+        processor.submit(eventDTO, null, null, acknowledgment)
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventExporterTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.export
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.commons.event.EventType
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.SerializationFeature
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.`when`
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.time.LocalDateTime
+import java.util.*
+import java.util.stream.Stream
+import java.util.zip.GZIPInputStream
+
+/**
+ * Tests for the NDJSON format of the export, with a mock repository.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventExporterTests {
+
+    private val eventRepository = mock(EventRepository::class.java)
+    private val eventBodyCompressor = mock(EventBodyCompressor::class.java)
+    private val objectMapper = ObjectMapper().registerModule(JavaTimeModule())
+                                             .enable(SerializationFeature.INDENT_OUTPUT)
+                                             // ^ as the application ObjectMapper
+    private val eventExporter = EventExporter(ServiceConfig(), eventRepository, eventBodyCompressor, objectMapper,
+                                              SimpleMeterRegistry())
+    private var closed = false
+
+    init {
+        `when`(eventBodyCompressor.decompress(any())).thenAnswer { it.getArgument(0) }
+    }
+
+    @Test
+    fun givenEvents_thenWriteOneJsonEventPerLine() {
+        mockEvents(3)
+
+        val output = ByteArrayOutputStream()
+
+        assertThat(eventExporter.export(null, output, false)).isEqualTo(3L)
+        assertLines(output.toString(Charsets.UTF_8), 3)
+        assertThat(closed).isTrue()
+    }
+
+    @Test
+    fun givenGzip_thenWriteAGzipStream() {
+        mockEvents(2)
+
+        val output = ByteArrayOutputStream()
+
+        eventExporter.export(null, output, true)
+        assertLines(GZIPInputStream(ByteArrayInputStream(output.toByteArray())).readAllBytes().toString(Charsets.UTF_8), 2)
+    }
+
+    @Test
+    fun givenNoEvents_thenWriteNothing() {
+        mockEvents(0)
+
+        val output = ByteArrayOutputStream()
+
+        assertThat(eventExporter.export(null, output, false)).isZero()
+        assertThat(output.size()).isZero()
+    }
+
+    private fun mockEvents(count: Int) {
+        val events = (1..count).map {
+            Event(UUID.randomUUID(), it, "correlation", EventType.DB_STORE, "admin", "LOGIN",
+                  LocalDateTime.of(2026, 10, 18, 10, it), "iam-service", mapOf("n" to it))
+        }
+
+        `when`(eventRepository.stream(any(), anyInt())).thenReturn(events.stream().onClose { closed = true })
+    }
+
+    private fun assertLines(ndjson: String, count: Int) {
+        val lines = ndjson.split('\n')
+
+        assertThat(lines).hasSize(count + 1)
+        assertThat(lines.last()).isEmpty()
+        lines.dropLast(1).forEachIndexed { i, line ->
+            assertThat(objectMapper.readTree(line)["username"].asText()).isEqualTo("admin")
+            assertThat(objectMapper.readTree(line)["eventBody"]["n"].asInt()).isEqualTo(i + 1)
+        }
+    }
+}
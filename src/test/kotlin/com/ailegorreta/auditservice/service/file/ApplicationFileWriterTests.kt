@@ -0,0 +1,99 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  ApplicationFileWriterTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import org.mockito.Mockito.spy
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import java.nio.charset.StandardCharsets
+import java.nio.file.Path
+import java.util.*
+
+/**
+ * Tests for the group commit writer of the file sink. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class ApplicationFileWriterTests {
+
+    @TempDir
+    lateinit var dir: Path
+
+    @Test
+    fun givenSync_thenTheAppendedRecordsAreWrittenAndForced() {
+        val log = spy(SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128))
+        val writer = ApplicationFileWriter(log, FsyncPolicy.NEVER, 1000, 1000, 100)
+
+        (0 until 10).forEach { writer.append(record(1_000L + it, "event-$it")) }
+        writer.sync(5_000)
+
+        assertThat(log.read(0L, 2_000L, 100)).hasSize(10)
+        verify(log, times(1)).force()
+        // ^ NEVER policy: just the fsync requested by sync
+
+        writer.sync(5_000)
+        verify(log, times(1)).force()
+        // ^ nothing new to force
+        writer.close()
+    }
+
+    @Test
+    fun givenClose_thenThePendingRecordsAreWritten() {
+        val writer = ApplicationFileWriter(SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128),
+                                           FsyncPolicy.INTERVAL, 1000, 1000, 100)
+
+        (0 until 50).forEach { writer.append(record(1_000L + it, "event-$it")) }
+        writer.close()
+
+        val reopened = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128)
+
+        assertThat(reopened.read(0L, 2_000L, 100)).hasSize(50)
+        reopened.close()
+    }
+
+    @Test
+    fun givenRecordsIfAbsent_thenOnlyTheIdsNotInTheLogAreWritten() {
+        val log = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128)
+        val writer = ApplicationFileWriter(log, FsyncPolicy.NEVER, 1000, 1000, 100)
+        val stored = record(1_000L, "stored")
+
+        writer.append(stored)
+        writer.append(FileRecord(stored.eventDate, stored.id, stored.payload, ifAbsent = true))
+        // ^ a redelivered event already in the log
+        writer.append(FileRecord(1_001L, UUID.randomUUID(), "absent".toByteArray(StandardCharsets.UTF_8),
+                                 ifAbsent = true))
+        writer.sync(5_000)
+
+        assertThat(log.read(0L, 2_000L, 100).map { StandardCharsets.UTF_8.decode(it).toString() })
+            .containsExactly("stored", "absent")
+        writer.close()
+    }
+
+    private fun record(eventDate: Long, text: String) =
+        FileRecord(eventDate, UUID.randomUUID(), text.toByteArray(StandardCharsets.UTF_8))
+}
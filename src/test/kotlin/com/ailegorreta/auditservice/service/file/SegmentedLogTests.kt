@@ -0,0 +1,200 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  SegmentedLogTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.file
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.*
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Tests for the segmented log used by the file sink. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class SegmentedLogTests {
+
+    @TempDir
+    lateinit var dir: Path
+
+    @Test
+    fun givenRecords_thenRollSegmentsAndReadByDateRange() {
+        val log = SegmentedLog(dir, 1024, Long.MAX_VALUE, 128)
+        val ids = (0 until 100).map { UUID.randomUUID() }
+
+        ids.forEachIndexed { i, id -> log.append(1_000L + i, id, "event-$i".toByteArray(StandardCharsets.UTF_8)) }
+
+        assertThat(Files.list(dir).use { files -> files.filter { it.toString().endsWith(".log") }.count() })
+            .isGreaterThan(1)
+        assertThat(log.read(1_010L, 1_019L, 100).map { text(it) })
+            .containsExactlyElementsOf((10..19).map { "event-$it" })
+        assertThat(log.read(1_000L, 2_000L, 5)).hasSize(5)
+        assertThat(text(log.find(ids[42])!!)).isEqualTo("event-42")
+        assertThat(log.find(UUID.randomUUID())).isNull()
+        log.close()
+    }
+
+    @Test
+    fun givenReadOnlyLog_thenRefreshReadsTheAppendedRecordsAndTheRolledSegments() {
+        val writer = SegmentedLog(dir, 1024, Long.MAX_VALUE, 128)
+        val reader = SegmentedLog(dir, 1024, Long.MAX_VALUE, 128, readOnly = true)
+        val ids = (0 until 100).map { UUID.randomUUID() }
+
+        writer.append(1_000L, ids[0], "event-0".toByteArray(StandardCharsets.UTF_8))
+        reader.refresh()
+        assertThat(reader.read(0L, 2_000L, 200).map { text(it) }).containsExactly("event-0")
+
+        (1 until 100).forEach { i -> writer.append(1_000L + i, ids[i], "event-$i".toByteArray(StandardCharsets.UTF_8)) }
+        // ^ rolls several segments
+        reader.refresh()
+
+        assertThat(reader.read(0L, 2_000L, 200).map { text(it) }).containsExactlyElementsOf((0 until 100).map { "event-$it" })
+        assertThat(text(reader.find(ids[99])!!)).isEqualTo("event-99")
+        writer.close()
+    }
+
+    @Test
+    fun givenTornRecordInAReadOnlyLog_thenItIsReadOnceComplete() {
+        val writer = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128)
+
+        writer.append(1_000L, UUID.randomUUID(), "complete".toByteArray(StandardCharsets.UTF_8))
+        writer.force()
+        val segment = Files.list(dir).use { files -> files.filter { it.toString().endsWith(".log") }.findFirst().get() }
+        val complete = Files.readAllBytes(segment)
+
+        writer.append(2_000L, UUID.randomUUID(), "after".toByteArray(StandardCharsets.UTF_8))
+        writer.close()
+        val full = Files.readAllBytes(segment)
+
+        Files.write(segment, full.copyOf(complete.size + 10))
+        // ^ the writer of another instance in the middle of a write
+        val reader = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128, readOnly = true)
+
+        reader.refresh()
+        assertThat(reader.read(0L, 3_000L, 10).map { text(it) }).containsExactly("complete")
+
+        Files.write(segment, full)
+        reader.refresh()
+        assertThat(reader.read(0L, 3_000L, 10).map { text(it) }).containsExactly("complete", "after")
+    }
+
+    @Test
+    fun givenTornRecord_thenTruncateItWhenReopening() {
+        val log = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128)
+        val id = UUID.randomUUID()
+
+        log.append(1_000L, id, "complete".toByteArray(StandardCharsets.UTF_8))
+        log.close()
+        val segment = Files.list(dir).use { files -> files.filter { it.toString().endsWith(".log") }.findFirst().get() }
+
+        Files.write(segment, byteArrayOf(0, 0, 0, 100, 1, 2, 3), java.nio.file.StandardOpenOption.APPEND)
+        // ^ simulates a crash in the middle of a write
+
+        val reopened = SegmentedLog(dir, 1024 * 1024, Long.MAX_VALUE, 128)
+
+        reopened.append(2_000L, UUID.randomUUID(), "after".toByteArray(StandardCharsets.UTF_8))
+        assertThat(reopened.read(0L, 3_000L, 10).map { text(it) }).containsExactly("complete", "after")
+        assertThat(text(reopened.find(id)!!)).isEqualTo("complete")
+        reopened.close()
+    }
+
+    @Test
+    fun givenQueriesDuringTheIngest_thenReadOnlyTheCommittedRecords() {
+        val log = SegmentedLog(dir, Long.MAX_VALUE, Long.MAX_VALUE, 128)
+        val ids = (0 until 20_000).map { UUID.randomUUID() }
+        val errors = ArrayList<Throwable>()
+        val writing = AtomicBoolean(true)
+        val reader = Thread {
+            try {
+                while (writing.get()) {
+                    log.read(0L, Long.MAX_VALUE, Int.MAX_VALUE)
+                    log.find(ids[0])
+                }
+            } catch (e: Throwable) {
+                synchronized(errors) { errors.add(e) }
+            }
+        }
+
+        log.append(0L, ids[0], "event-0".toByteArray(StandardCharsets.UTF_8))
+        reader.start()
+        (1 until ids.size).forEach { log.append(it.toLong(), ids[it], "event-$it".toByteArray(StandardCharsets.UTF_8)) }
+        writing.set(false)
+        reader.join()
+
+        assertThat(errors).isEmpty()
+        assertThat(log.read(0L, Long.MAX_VALUE, Int.MAX_VALUE)).hasSize(ids.size)
+        log.close()
+    }
+
+    @Test
+    fun givenIdIndex_thenFindTheRecordsAppendedAfterIt() {
+        val log = SegmentedLog(dir, Long.MAX_VALUE, Long.MAX_VALUE, 128)
+        val ids = (0 until 10_000).map { UUID.randomUUID() }
+
+        ids.take(5_000).forEachIndexed { i, id -> log.append(i.toLong(), id, "event-$i".toByteArray(StandardCharsets.UTF_8)) }
+        assertThat(text(log.find(ids[10])!!)).isEqualTo("event-10")
+        // ^ builds the index
+        ids.drop(5_000).forEachIndexed { i, id ->
+            log.append(5_000L + i, id, "event-${5_000 + i}".toByteArray(StandardCharsets.UTF_8))
+        }
+
+        assertThat(text(log.find(ids[4_999])!!)).isEqualTo("event-4999")
+        assertThat(text(log.find(ids[5_000])!!)).isEqualTo("event-5000")
+        assertThat(text(log.find(ids[9_999])!!)).isEqualTo("event-9999")
+        assertThat(log.find(UUID.randomUUID())).isNull()
+        log.close()
+    }
+
+    @Test
+    fun givenReadOnlyLog_thenReadWithoutChangingTheSegments() {
+        val log = SegmentedLog(dir, 1024, Long.MAX_VALUE, 128)
+        val id = UUID.randomUUID()
+
+        log.append(1_000L, id, "stored".toByteArray(StandardCharsets.UTF_8))
+        log.close()
+        val files = Files.list(dir).use { it.count() }
+        val readOnly = SegmentedLog(dir, 1024, Long.MAX_VALUE, 128, readOnly = true)
+
+        assertThat(text(readOnly.find(id)!!)).isEqualTo("stored")
+        assertThat(readOnly.read(0L, 2_000L, 10)).hasSize(1)
+        assertThat(Files.list(dir).use { it.count() }).isEqualTo(files)
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException::class.java) {
+            readOnly.append(2_000L, UUID.randomUUID(), ByteArray(1))
+        }
+    }
+
+    private fun text(buffer: ByteBuffer): String {
+        val bytes = ByteArray(buffer.remaining())
+
+        buffer.duplicate().get(bytes)
+
+        return String(bytes, StandardCharsets.UTF_8)
+    }
+}
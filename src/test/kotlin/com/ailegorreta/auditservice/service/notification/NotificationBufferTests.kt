@@ -0,0 +1,169 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  NotificationBufferTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.notification
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.service.compression.EventBodyCompressor
+import com.ailegorreta.commons.event.EventType
+import com.querydsl.core.types.Predicate
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.springframework.data.domain.Sort
+import java.time.LocalDateTime
+import java.time.ZoneId
+import java.util.*
+
+/**
+ * Tests for the notification ring buffers, loaded from a mock repository.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class NotificationBufferTests {
+
+    private val eventRepository = mock(EventRepository::class.java)
+    private val eventBodyCompressor = mock(EventBodyCompressor::class.java)
+    private val notificationBuffer = NotificationBuffer(ServiceConfig(), eventRepository, eventBodyCompressor,
+                                                        SimpleMeterRegistry())
+
+    init {
+        `when`(eventBodyCompressor.decompress(any())).thenAnswer { it.getArgument(0) }
+    }
+
+    @Test
+    fun givenNotLoaded_thenReadMongo() {
+        notificationBuffer.add(notification("admin", "stored before the load", 1))
+
+        assertThat(notificationBuffer.notifications("admin")).isNull()
+    }
+
+    @Test
+    fun givenLoadedBuffers_thenReturnTheUserAndBroadcastNotifications() {
+        val stored = notification("admin", "stored", 3)
+
+        load(notification("*", "to all", 2), stored, notification("other", "not mine", 1),
+             notification("admin", "too old", 8 * 24))
+        notificationBuffer.add(stored)                          // the same event read by the load
+        notificationBuffer.add(notification("admin", "new", 0))
+        notificationBuffer.add(event("admin", "NOT_A_NOTIFICATION", "ignored", 0))
+
+        assertThat(notificationBuffer.notifications("admin")!!.map { it.title }).containsExactly("stored", "to all", "new")
+        assertThat(notificationBuffer.notifications("nobody")!!.map { it.title }).containsExactly("to all")
+        assertThat(notificationBuffer.notifications("*")!!.map { it.title }).containsExactly("to all")
+    }
+
+    @Test
+    fun givenMoreNotificationsThanTheCapacity_thenReadMongoForThatUser() {
+        load()
+        (1..ServiceConfig().notificationsUserCapacity + 1).forEach {
+            notificationBuffer.add(notification("admin", "notification $it", 0))
+        }
+        notificationBuffer.add(notification("other", "mine", 0))
+
+        assertThat(notificationBuffer.notifications("admin")).isNull()
+        assertThat(notificationBuffer.notifications("other")!!.map { it.title }).containsExactly("mine")
+    }
+
+    @Test
+    fun givenResumedSubscription_thenReplayTheMissedNotificationsFromMemory() {
+        load(notification("admin", "received", 3), notification("*", "missed to all", 2))
+        notificationBuffer.add(notification("admin", "missed", 1))
+        notificationBuffer.add(notification("other", "not mine", 1))
+
+        val since = LocalDateTime.now().minusMinutes(150).atZone(ZoneId.systemDefault()).toInstant()
+
+        assertThat(notificationBuffer.replay("admin", since).map { it.title }).containsExactly("missed to all", "missed")
+        verify(eventRepository, times(1)).findAll(any(Predicate::class.java), any(Sort::class.java))
+        // ^ just the load
+    }
+
+    @Test
+    fun givenTruncatedBuffer_thenReplayFromMongo() {
+        load()
+        (1..ServiceConfig().notificationsUserCapacity + 1).forEach {
+            notificationBuffer.add(notification("admin", "notification $it", 0))
+        }
+        `when`(eventRepository.findAll(any(Predicate::class.java), any(Sort::class.java)))
+            .thenReturn(listOf(notification("admin", "from mongo", 0)))
+
+        val since = LocalDateTime.now().minusHours(1).atZone(ZoneId.systemDefault()).toInstant()
+
+        assertThat(notificationBuffer.replay("admin", since).map { it.title }).containsExactly("from mongo")
+    }
+
+    @Test
+    fun givenNotificationStoredLate_thenTheRefreshReadsItByStoredAt() {
+        val predicates = mutableListOf<Predicate>()
+        val late = notification("admin", "stored late", 5)
+        // ^ e.g., replayed from the spool: an old eventDate
+
+        `when`(eventRepository.findAll(any(Predicate::class.java), any(Sort::class.java))).thenAnswer {
+            predicates.add(it.getArgument(0))
+            if (predicates.size == 1) emptyList() else listOf(late)
+        }
+        notificationBuffer.refresh()
+        notificationBuffer.refresh()
+
+        assertThat(predicates[0].toString()).doesNotContain("storedAt")
+        assertThat(predicates[1].toString()).contains("storedAt")
+        assertThat(notificationBuffer.notifications("admin")!!.map { it.title }).containsExactly("stored late")
+    }
+
+    @Test
+    fun givenNotificationsInMongo_thenSkipTheMalformedOnesLikeTheBuffers() {
+        val malformed = notification("admin", "malformed", 1).apply { eventBody = mapOf("datos" to "no title") }
+        val sort = mutableListOf<Sort>()
+
+        `when`(eventRepository.findAll(any(Predicate::class.java), any(Sort::class.java))).thenAnswer {
+            sort.add(it.getArgument(1))
+            listOf(notification("*", "to all", 2), malformed, notification("admin", "mine", 1))
+        }
+
+        assertThat(notificationBuffer.notificationsFromMongo("admin").map { it.title }).containsExactly("to all", "mine")
+        assertThat(sort.single()).isEqualTo(Sort.by(Sort.Direction.ASC, "eventDate"))
+        notificationBuffer.refresh()
+        assertThat(notificationBuffer.notifications("admin")!!.map { it.title }).containsExactly("to all", "mine")
+    }
+
+    private fun load(vararg events: Event) {
+        `when`(eventRepository.findAll(any(Predicate::class.java), any(Sort::class.java))).thenReturn(events.toList())
+        notificationBuffer.refresh()
+    }
+
+    private fun notification(username: String, title: String, hoursAgo: Long) =
+        event(username, NotificationBuffer.NOTIFICATION, title, hoursAgo)
+
+    private fun event(username: String, eventName: String, title: String, hoursAgo: Long) =
+        Event(UUID.randomUUID(), 1, "Notificación", EventType.DB_STORE, username, eventName,
+              LocalDateTime.now().minusHours(hoursAgo), "iam-service",
+              linkedMapOf("notificaFacultad" to title, "datos" to "message"))
+}
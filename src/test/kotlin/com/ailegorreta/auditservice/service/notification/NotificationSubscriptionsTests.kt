@@ -0,0 +1,119 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  NotificationSubscriptionsTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.notification
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.gql.types.Notification
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.`when`
+import reactor.test.StepVerifier
+import java.time.Duration
+import java.time.Instant
+
+/**
+ * Tests for the per-user notification subscriptions.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class NotificationSubscriptionsTests {
+
+    private val meterRegistry = SimpleMeterRegistry()
+    private val notificationBuffer = mock(NotificationBuffer::class.java)
+    private val notificationSubscriptions = NotificationSubscriptions(ServiceConfig(), notificationBuffer, meterRegistry)
+
+    @Test
+    fun givenUserSubscriptions_thenOnlyTheirNotificationsAreDelivered() {
+        val admin = mutableListOf<String>()
+        val other = mutableListOf<String>()
+        val adminSession = notificationSubscriptions.subscribe("admin").subscribe { admin.add(it.title) }
+        val otherSession = notificationSubscriptions.subscribe("other").subscribe { other.add(it.title) }
+
+        notificationSubscriptions.publish(Notification("admin", "mine", "message"))
+        notificationSubscriptions.publish(Notification("nobody", "no session", "message"))
+        notificationSubscriptions.publish(Notification("*", "to all", "message"))
+
+        assertThat(admin).containsExactly("mine", "to all")
+        assertThat(other).containsExactly("to all")
+        assertThat(meterRegistry.counter("audit.notifications.delivered").count()).isEqualTo(3.0)
+
+        adminSession.dispose()
+        otherSession.dispose()
+    }
+
+    @Test
+    fun givenCancelledSessions_thenTheyAreRemoved() {
+        val first = notificationSubscriptions.subscribe("admin").subscribe()
+        val second = notificationSubscriptions.subscribe("admin").subscribe()
+
+        assertThat(notificationSubscriptions.subscribers()).isEqualTo(2)
+        first.dispose()
+        assertThat(notificationSubscriptions.subscribers()).isEqualTo(1)
+        second.dispose()
+        assertThat(notificationSubscriptions.subscribers()).isEqualTo(0)
+        notificationSubscriptions.publish(Notification("admin", "no session", "message"))
+        assertThat(meterRegistry.counter("audit.notifications.delivered").count()).isEqualTo(0.0)
+    }
+
+    @Test
+    fun givenResumedSubscription_thenReplayAndThenTheNewNotifications() {
+        val since = Instant.now().minusSeconds(60)
+        val missed = Notification("admin", "missed", "message", since.plusSeconds(10))
+        val storedDuringReplay = Notification("admin", "stored during the replay", "message", since.plusSeconds(20))
+
+        `when`(notificationBuffer.replay("admin", since)).thenAnswer {
+            notificationSubscriptions.publish(storedDuringReplay)     // already registered: sent live too
+            listOf(missed, storedDuringReplay)
+        }
+
+        StepVerifier.create(notificationSubscriptions.subscribe("admin", since))
+                    .assertNext { assertThat(it.title).isEqualTo("missed") }
+                    .assertNext { assertThat(it.title).isEqualTo("stored during the replay") }
+                    .then { notificationSubscriptions.publish(Notification("admin", "new", "message")) }
+                    .assertNext { assertThat(it.title).isEqualTo("new") }
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(5))
+        assertThat(notificationSubscriptions.subscribers()).isEqualTo(0)
+    }
+
+    @Test
+    fun givenSlowSession_thenTheOldestNotificationsAreDropped() {
+        val subscriberBuffer = ServiceConfig().notificationsSubscriberBuffer
+
+        StepVerifier.create(notificationSubscriptions.subscribe("admin"), 0)
+                    .then {
+                        (0..subscriberBuffer).forEach {
+                            notificationSubscriptions.publish(Notification("admin", "$it", "message"))
+                        }
+                    }
+                    .thenRequest(1)
+                    .assertNext { assertThat(it.title).isEqualTo("1") }
+                    .thenCancel()
+                    .verify()
+        assertThat(meterRegistry.counter("audit.notifications.dropped").count()).isEqualTo(1.0)
+    }
+}
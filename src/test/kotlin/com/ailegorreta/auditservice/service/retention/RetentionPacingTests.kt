@@ -0,0 +1,68 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionPacingTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+import org.springframework.context.ApplicationEventPublisher
+import org.springframework.data.mongodb.core.MongoTemplate
+
+/**
+ * Tests for the pause between the retention batches: it doubles while the deletes are slower than the target
+ * latency and halves when they are faster, within 'min-pause-ms' and 'max-pause-ms'. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class RetentionPacingTests {
+
+    private val meterRegistry = SimpleMeterRegistry()
+    private val retentionService = RetentionService(ServiceConfig(), mock(MongoTemplate::class.java),
+                                                    mock(EventPartitions::class.java), mock(EventSpool::class.java),
+                                                    mock(ApplicationEventPublisher::class.java), meterRegistry)
+
+    @Test
+    fun givenSlowDeletes_thenThePauseDoublesUpToTheMaximum() {
+        assertThat((1..3).map { retentionService.pace(100L) }).containsExactly(20L, 40L, 80L)
+        repeat(20) { retentionService.pace(100L) }
+
+        assertThat(retentionService.pace(100L)).isEqualTo(5000L)
+        assertThat(meterRegistry.get("audit.retention.pause").gauge().value()).isEqualTo(5000.0)
+    }
+
+    @Test
+    fun givenFastDeletes_thenThePauseHalvesDownToTheMinimum() {
+        repeat(5) { retentionService.pace(100L) }           // 320 ms
+
+        assertThat((1..3).map { retentionService.pace(10L) }).containsExactly(160L, 80L, 40L)
+        repeat(10) { retentionService.pace(10L) }
+
+        assertThat(retentionService.pace(10L)).isEqualTo(10L)
+    }
+}
@@ -0,0 +1,134 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionPartitionsTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.auditservice.EnableTestContainers
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.config.StorageConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventIds
+import com.ailegorreta.auditservice.domain.EventPartitioning
+import com.ailegorreta.auditservice.domain.EventPartitions
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import com.ailegorreta.commons.event.EventType
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.Document
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest
+import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Import
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.security.oauth2.jwt.JwtDecoder
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.context.TestPropertySource
+import java.time.LocalDateTime
+
+/**
+ * Tests for the drop of the expired monthly partitions against the mongo test container: the repository shares
+ * the EventPartitions of the retention, so a late insert creates the dropped partition again with its indexes.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@DataMongoTest
+@EnableTestContainers
+@ActiveProfiles("integration-tests")
+@Import(ServiceConfig::class, StorageConfig::class, RetentionService::class, RetentionPartitionsTests.MetricsConfig::class)
+@TestPropertySource(properties = ["audit-service.storage.partitioning=MONTHLY",
+                                  "audit-service.retention.policies=*/*=30",
+                                  "audit-service.retention.min-pause-ms=0"])
+class RetentionPartitionsTests {
+
+    @TestConfiguration
+    class MetricsConfig {
+        @Bean
+        fun meterRegistry(): MeterRegistry = SimpleMeterRegistry()
+    }
+
+    @MockBean
+    private lateinit var streamBridge: StreamBridge
+    @MockBean
+    private lateinit var jwtDecoder: JwtDecoder
+    @MockBean
+    private lateinit var eventSpool: EventSpool
+
+    @Autowired
+    private lateinit var eventRepository: EventRepository
+    @Autowired
+    private lateinit var eventPartitions: EventPartitions
+    @Autowired
+    private lateinit var mongoTemplate: MongoTemplate
+    @Autowired
+    private lateinit var retentionService: RetentionService
+
+    private val now = LocalDateTime.now()
+    private val expired = now.minusDays(90)
+    private val expiredPartition = EventPartitioning.MONTHLY.collectionName("event", expired)
+    private val current = now.withDayOfMonth(1).withHour(12)
+    private val currentPartition = EventPartitioning.MONTHLY.collectionName("event", current)
+
+    private fun event(eventDate: LocalDateTime) =
+        Event(EventIds.timeOrdered(EventCodec.toEpochMilli(eventDate), "$eventDate"), 0, "correlationId",
+              EventType.DB_STORE, "test", "EVENT_TEST", eventDate, "iam-service", Document("datos", "test"))
+
+    @BeforeEach
+    fun clean() {
+        mongoTemplate.collectionNames.filter { EventPartitioning.month("event", it).isPresent }
+                                     .forEach { mongoTemplate.dropCollection(it) }
+        mongoTemplate.dropCollection(RetentionService.CHECKPOINTS)
+    }
+
+    @Test
+    fun givenExpiredPartition_thenItIsDroppedAndNotListedAnymore() {
+        eventRepository.insertAll((0 until 5L).map { event(expired.plusMinutes(it)) } +
+                                  (0 until 3L).map { event(current.plusMinutes(it)) })
+
+        retentionService.run(now)
+
+        assertThat(mongoTemplate.collectionExists(expiredPartition)).isFalse
+        assertThat(eventPartitions.partitionsFor(null)).containsExactly(currentPartition)
+        assertThat(eventRepository.count()).isEqualTo(3L)
+    }
+
+    @Test
+    fun givenLateInsertInADroppedPartition_thenItIsCreatedAgainWithItsIndexes() {
+        eventRepository.insertAll(listOf(event(expired)))
+        retentionService.run(now)
+
+        eventRepository.insertAll(listOf(event(expired.plusMinutes(1))))
+
+        assertThat(mongoTemplate.collectionExists(expiredPartition)).isTrue
+        assertThat(mongoTemplate.indexOps(expiredPartition).indexInfo.size).isGreaterThan(1)
+        // ^ the _id index and the ones of EventIndexes, i.e., it was not auto created by the insert
+    }
+}
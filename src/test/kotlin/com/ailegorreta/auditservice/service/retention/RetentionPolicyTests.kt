@@ -0,0 +1,67 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionPolicyTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.commons.event.EventType
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for the parsing and the precedence of the retention policies. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class RetentionPolicyTests {
+
+    @Test
+    fun givenPolicies_thenParse() {
+        assertThat(RetentionPolicy.parse("*/*=365")).isEqualTo(RetentionPolicy(null, null, 365))
+        assertThat(RetentionPolicy.parse(" iam-service / ERROR_EVENT = 30 "))
+            .isEqualTo(RetentionPolicy("iam-service", EventType.ERROR_EVENT, 30))
+        assertThat(RetentionPolicy.parseAll(listOf(""))).isEmpty()
+    }
+
+    @Test
+    fun givenInvalidPolicies_thenFail() {
+        assertThatThrownBy { RetentionPolicy.parse("iam-service=30") }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { RetentionPolicy.parse("*/UNKNOWN=30") }.isInstanceOf(IllegalArgumentException::class.java)
+        assertThatThrownBy { RetentionPolicy.parseAll(listOf("*/ERROR_EVENT=30", "*/ERROR_EVENT=60")) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+    }
+
+    @Test
+    fun givenOverlappingPolicies_thenTheMostSpecificTakesPrecedence() {
+        val policies = RetentionPolicy.parseAll(listOf("*/*=365", "*/ERROR_EVENT=730", "iam-service/*=30",
+                                                       "iam-service/ERROR_EVENT=90", "cache-service/DB_STORE=7"))
+        val (default, errors, iam, iamErrors, cache) = policies
+
+        assertThat(default.overriddenBy(policies)).containsExactlyInAnyOrder(errors, iam, iamErrors, cache)
+        assertThat(errors.overriddenBy(policies)).containsExactlyInAnyOrder(iam, iamErrors)
+        assertThat(iam.overriddenBy(policies)).containsExactly(iamErrors)
+        assertThat(iamErrors.overriddenBy(policies)).isEmpty()
+        assertThat(cache.overriddenBy(policies)).isEmpty()
+    }
+}
@@ -0,0 +1,126 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  RetentionServiceTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.retention
+
+import com.ailegorreta.auditservice.EnableTestContainers
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.config.StorageConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventIds
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.auditservice.service.spool.EventSpool
+import com.ailegorreta.commons.event.EventType
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.Document
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.`when`
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest
+import org.springframework.boot.test.context.TestConfiguration
+import org.springframework.boot.test.mock.mockito.MockBean
+import org.springframework.cloud.stream.function.StreamBridge
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Import
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.security.oauth2.jwt.JwtDecoder
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.context.TestPropertySource
+import java.time.LocalDateTime
+
+/**
+ * Tests for the retention engine against the mongo test container.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+@DataMongoTest
+@EnableTestContainers
+@ActiveProfiles("integration-tests")
+@Import(ServiceConfig::class, StorageConfig::class, RetentionService::class, RetentionServiceTests.MetricsConfig::class)
+@TestPropertySource(properties = ["audit-service.retention.policies=*/ERROR_EVENT=730,iam-service/*=30",
+                                  "audit-service.retention.batch-size=7",
+                                  "audit-service.retention.min-pause-ms=0"])
+class RetentionServiceTests {
+
+    @TestConfiguration
+    class MetricsConfig {
+        @Bean
+        fun meterRegistry(): MeterRegistry = SimpleMeterRegistry()
+    }
+
+    @MockBean
+    private lateinit var streamBridge: StreamBridge
+    @MockBean
+    private lateinit var jwtDecoder: JwtDecoder
+    @MockBean
+    private lateinit var eventSpool: EventSpool
+
+    @Autowired
+    private lateinit var eventRepository: EventRepository
+    @Autowired
+    private lateinit var mongoTemplate: MongoTemplate
+    @Autowired
+    private lateinit var retentionService: RetentionService
+
+    private val now = LocalDateTime.now()
+
+    private fun event(applicationName: String, eventType: EventType, daysAgo: Long) =
+        Event(EventIds.timeOrdered(), 0, "correlationId", eventType, "test", "EVENT_TEST",
+              now.minusDays(daysAgo), applicationName, Document("datos", "test"))
+
+    @BeforeEach
+    fun clean() {
+        eventRepository.deleteAll()
+        mongoTemplate.dropCollection(RetentionService.CHECKPOINTS)
+    }
+
+    @Test
+    fun givenPolicies_thenDeleteOnlyTheExpiredEventsOfTheMostSpecificPolicy() {
+        val kept = listOf(event("iam-service", EventType.ERROR_EVENT, 29),        // iam-service/* keeps 30 days
+                          event("cache-service", EventType.ERROR_EVENT, 700),
+                          event("cache-service", EventType.DB_STORE, 5000))       // no policy: kept
+        val expired = (1..10L).map { event("iam-service", EventType.ERROR_EVENT, 30 + it) } +
+                      (1..10L).map { event("iam-service", EventType.DB_STORE, 30 + it) } +
+                      (1..5L).map { event("cache-service", EventType.ERROR_EVENT, 730 + it) }
+
+        eventRepository.insertAll(kept + expired)
+
+        assertThat(retentionService.run(now)).isEqualTo(expired.size.toLong())
+        assertThat(eventRepository.findAll().map { it.id }).containsExactlyInAnyOrderElementsOf(kept.map { it.id })
+        assertThat(mongoTemplate.findById("iam-service/*", Document::class.java, RetentionService.CHECKPOINTS)!!
+                                .getLong("deleted")).isEqualTo(20L)
+    }
+
+    @Test
+    fun givenSpooledEvents_thenYieldToTheIngestion() {
+        eventRepository.insertAll((1..10L).map { event("iam-service", EventType.DB_STORE, 60 + it) })
+        `when`(eventSpool.depth()).thenReturn(100L)
+
+        assertThat(retentionService.run(now)).isZero
+        assertThat(eventRepository.count()).isEqualTo(10L)
+    }
+}
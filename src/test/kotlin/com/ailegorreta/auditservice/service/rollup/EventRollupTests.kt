@@ -0,0 +1,107 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventRollupTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.rollup
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.commons.event.EventType
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyString
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import org.mockito.Mockito.`when`
+import org.springframework.data.mongodb.core.BulkOperations
+import org.springframework.data.mongodb.core.MongoTemplate
+import org.springframework.data.mongodb.core.query.Query
+import org.springframework.data.mongodb.core.query.Update
+import java.time.LocalDateTime
+import java.util.*
+
+/**
+ * Tests for the aggregation of the rollup counters in the flush, with a mock MongoTemplate.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventRollupTests {
+
+    private val mongoTemplate = mock(MongoTemplate::class.java)
+    private val bulk = mock(BulkOperations::class.java)
+    private val eventRollup = EventRollup(ServiceConfig(), mongoTemplate, SimpleMeterRegistry())
+    private val upserts = ArrayList<Pair<String, Long>>()
+
+    init {
+        `when`(mongoTemplate.bulkOps(any(BulkOperations.BulkMode::class.java), anyString())).thenReturn(bulk)
+        `when`(bulk.upsert(any(Query::class.java), any(Update::class.java))).thenAnswer {
+            val query = it.getArgument<Query>(0)
+            val update = it.getArgument<Update>(1)
+
+            upserts.add(Pair(query.queryObject.getString("_id"),
+                             (update.updateObject["\$inc"] as org.bson.Document).getLong("count")))
+            bulk
+        }
+    }
+
+    @Test
+    fun givenEvents_thenFlushTheMinuteHourAndDayBuckets() {
+        val date = LocalDateTime.of(2026, 10, 18, 10, 15, 30)
+
+        eventRollup.record(event(date))
+        eventRollup.record(event(date.plusSeconds(10)))
+        eventRollup.record(event(date.plusMinutes(20)))
+        eventRollup.flush()
+
+        val minute = EventRollup.Key("iam-service", "LOGIN", EventType.DB_STORE, LocalDateTime.of(2026, 10, 18, 10, 15))
+
+        assertThat(upserts).containsExactlyInAnyOrder(
+            Pair(EventRollup.id(RollupGranularity.MINUTE, minute), 2L),
+            Pair(EventRollup.id(RollupGranularity.MINUTE, minute.copy(minute = minute.minute.plusMinutes(20))), 1L),
+            Pair(EventRollup.id(RollupGranularity.HOUR, minute.copy(minute = minute.minute.withMinute(0))), 3L),
+            Pair(EventRollup.id(RollupGranularity.DAY, minute.copy(minute = minute.minute.toLocalDate().atStartOfDay())), 3L))
+        verify(bulk, times(1)).execute()
+
+        upserts.clear()
+        eventRollup.flush()                 // nothing new to flush
+        assertThat(upserts).isEmpty()
+    }
+
+    @Test
+    fun givenAFailedFlush_thenRetryTheCounters() {
+        `when`(bulk.execute()).thenThrow(RuntimeException("mongo is down")).thenReturn(null)
+
+        eventRollup.record(event(LocalDateTime.of(2026, 10, 18, 10, 15)))
+        eventRollup.flush()
+        upserts.clear()
+        eventRollup.flush()
+
+        assertThat(upserts.map { it.second }).containsOnly(1L).hasSize(3)
+    }
+
+    private fun event(date: LocalDateTime) =
+        Event(UUID.randomUUID(), 1, "correlation", EventType.DB_STORE, "admin", "LOGIN", date, "iam-service", null)
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventSpoolTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.spool
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.ailegorreta.auditservice.domain.Event
+import com.ailegorreta.auditservice.domain.EventCodec
+import com.ailegorreta.auditservice.domain.EventRepository
+import com.ailegorreta.commons.event.EventType
+import com.mongodb.MongoClientSettings
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.Document
+import org.bson.UuidRepresentation
+import org.bson.codecs.configuration.CodecRegistries
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import org.mockito.ArgumentMatchers.anyList
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.doReturn
+import org.mockito.Mockito.doThrow
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.spy
+import org.mockito.Mockito.`when`
+import org.springframework.dao.DataAccessResourceFailureException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.LocalDateTime
+import java.time.temporal.ChronoUnit
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Tests for the spool of the events that mongo does not store within the latency budget: the spool, the replay
+ * once mongo recovers and the cancellation of the inserts that exceed the budget. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventSpoolTests {
+
+    @TempDir
+    lateinit var dir: Path
+
+    private val serviceConfig = spy(ServiceConfig())
+    private val eventRepository = mock(EventRepository::class.java)
+    private val eventCodec = EventCodec(CodecRegistries.withUuidRepresentation(MongoClientSettings.getDefaultCodecRegistry(),
+                                                                               UuidRepresentation.STANDARD))
+    private val stored = Collections.synchronizedList(mutableListOf<Event>())
+    private var eventSpool: EventSpool? = null
+
+    init {
+        doReturn(50L).`when`(serviceConfig).spoolLatencyBudgetMs
+        doReturn(false).`when`(serviceConfig).spoolFsync
+        doReturn(2).`when`(serviceConfig).spoolWriterThreads
+    }
+
+    @AfterEach
+    fun close() {
+        eventSpool?.close()
+    }
+
+    private fun spool(): EventSpool {
+        doReturn(dir.resolve("spool").toString()).`when`(serviceConfig).spoolPath
+
+        return EventSpool(serviceConfig, eventRepository, eventCodec, SimpleMeterRegistry()).also { eventSpool = it }
+    }
+
+    private fun events(count: Int) = (0 until count).map {
+        Event(UUID.randomUUID(), 0, "correlation-$it", EventType.DB_STORE, "adminTEST", "TEST",
+              LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS), "audit-service", Document("datos", it))
+    }
+
+    private fun mongoAvailable() {
+        doAnswer { invocation -> invocation.getArgument<List<Event>>(0).also { stored.addAll(it) } }
+            .`when`(eventRepository).insertAll(anyList())
+    }
+
+    private fun mongoUnavailable() {
+        doThrow(DataAccessResourceFailureException("mongo is down")).`when`(eventRepository).insertAll(anyList())
+    }
+
+    @Test
+    fun givenNothingSpooled_thenReplayDoesNotCreateTheSpool() {
+        val eventSpool = spool()
+
+        eventSpool.replay()
+
+        assertThat(eventSpool.depth()).isZero
+        assertThat(Files.exists(dir.resolve("spool"))).isFalse
+    }
+
+    @Test
+    fun givenMongoUnavailable_thenSpoolAndReplayWhenItRecovers() {
+        val eventSpool = spool()
+        val events = events(10)
+
+        mongoUnavailable()
+        assertThat(eventSpool.insertAll(events.subList(0, 5))).hasSize(5)
+        assertThat(eventSpool.depth()).isEqualTo(5)
+
+        mongoAvailable()
+        eventSpool.insertAll(events.subList(5, 10))
+        // ^ the spool has events, so the new ones are spooled too and keep their order
+        assertThat(eventSpool.depth()).isEqualTo(10)
+        assertThat(stored).isEmpty()
+
+        eventSpool.replay()
+
+        assertThat(eventSpool.depth()).isZero
+        assertThat(stored.map { it.id }).containsExactlyElementsOf(events.map { it.id })
+    }
+
+    @Test
+    fun givenSlowInsert_thenItIsCancelledAndSpooled() {
+        val eventSpool = spool()
+        val interrupted = CountDownLatch(1)
+
+        `when`(eventRepository.insertAll(anyList())).thenAnswer {
+            try {
+                Thread.sleep(10_000)
+            } catch (e: InterruptedException) {
+                interrupted.countDown()
+            }
+            emptyList<Event>()
+        }
+
+        assertThat(eventSpool.insertAll(events(3))).hasSize(3)
+        assertThat(eventSpool.depth()).isEqualTo(3)
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue
+    }
+}
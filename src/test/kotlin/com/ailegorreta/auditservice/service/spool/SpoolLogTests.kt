@@ -0,0 +1,88 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  SpoolLogTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.spool
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Tests for the memory-mapped spool. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class SpoolLogTests {
+
+    @TempDir
+    lateinit var dir: Path
+
+    private fun payloads(range: IntRange) = range.map { "event-$it".toByteArray(StandardCharsets.UTF_8) }
+
+    private fun text(buffer: ByteBuffer) = StandardCharsets.UTF_8.decode(buffer.duplicate()).toString()
+
+    private fun segments() = Files.list(dir).use { files -> files.filter { it.toString().endsWith(".spool") }.count() }
+
+    @Test
+    fun givenSpooledEvents_thenReplayInOrderAndDeleteSegments() {
+        val spool = SpoolLog(dir, 256)
+
+        spool.append(payloads(0 until 50), true)
+        assertThat(spool.depth.get()).isEqualTo(50)
+        assertThat(segments()).isGreaterThan(1)
+
+        val first = spool.read(20)
+
+        assertThat(first.records.map { text(it) }).containsExactlyElementsOf((0 until 20).map { "event-$it" })
+        spool.commit(first)
+        assertThat(spool.depth.get()).isEqualTo(30)
+
+        val rest = spool.read(100)
+
+        assertThat(rest.records.map { text(it) }).containsExactlyElementsOf((20 until 50).map { "event-$it" })
+        spool.commit(rest)
+        assertThat(spool.depth.get()).isZero
+        assertThat(spool.oldestAgeMs()).isZero
+        assertThat(segments()).isEqualTo(1)
+    }
+
+    @Test
+    fun givenRestart_thenContinueFromTheCheckpoint() {
+        val spool = SpoolLog(dir, 1024)
+
+        spool.append(payloads(0 until 10), true)
+        spool.commit(spool.read(4))
+
+        val reopened = SpoolLog(dir, 1024)
+
+        assertThat(reopened.depth.get()).isEqualTo(6)
+        reopened.append(payloads(10 until 12), true)
+        assertThat(reopened.read(100).records.map { text(it) })
+            .containsExactlyElementsOf((4 until 12).map { "event-$it" })
+    }
+}
@@ -0,0 +1,75 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  EventIdMigrationTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.storage
+
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.BsonBinarySubType
+import org.bson.BsonDocument
+import org.bson.BsonDocumentWriter
+import org.bson.UuidRepresentation
+import org.bson.codecs.EncoderContext
+import org.bson.codecs.UuidCodec
+import org.bson.types.Binary
+import org.junit.jupiter.api.Test
+import java.util.*
+
+/**
+ * Tests for the conversion of the legacy event ids. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class EventIdMigrationTests {
+
+    private fun encode(id: UUID, representation: UuidRepresentation): Binary {
+        val document = BsonDocument()
+
+        BsonDocumentWriter(document).apply {
+            writeStartDocument()
+            writeName("_id")
+            UuidCodec(representation).encode(this, id, EncoderContext.builder().build())
+            writeEndDocument()
+        }
+
+        return document.getBinary("_id").let { Binary(it.type, it.data) }
+    }
+
+    @Test
+    fun givenJavaLegacyId_thenSameUuid() {
+        val id = UUID.randomUUID()
+        val legacy = encode(id, UuidRepresentation.JAVA_LEGACY)
+
+        assertThat(legacy.type).isEqualTo(BsonBinarySubType.UUID_LEGACY.value)
+        assertThat(EventIdMigration.toUuid(legacy)).isEqualTo(id)
+    }
+
+    @Test
+    fun givenStandardId_thenOutsideTheLegacyRange() {
+        val standard = encode(UUID(0L, 0L), UuidRepresentation.STANDARD)
+
+        assertThat(standard.type).isEqualTo(BsonBinarySubType.UUID_STANDARD.value)
+        assertThat(encode(UUID(-1L, -1L), UuidRepresentation.JAVA_LEGACY).type).isLessThan(standard.type)
+        // ^ mongo orders the binaries of the same length by subtype, so the legacy ids are a contiguous _id range
+    }
+}
@@ -0,0 +1,78 @@
+/* Copyright (c) 2026, LegoSoft Soluciones, S.C.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are not permitted.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ *  UnindexedQueryReporterTests.kt
+ *
+ *  Developed 2026 by LegoSoftSoluciones, S.C. www.legosoft.com.mx
+ */
+package com.ailegorreta.auditservice.service.storage
+
+import com.ailegorreta.auditservice.config.ServiceConfig
+import com.mongodb.ServerAddress
+import com.mongodb.connection.ConnectionDescription
+import com.mongodb.connection.ServerId
+import com.mongodb.connection.ClusterId
+import com.mongodb.event.CommandStartedEvent
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.bson.BsonDocument
+import org.junit.jupiter.api.Test
+
+/**
+ * Tests for the report of the unindexed queries. No Spring context is needed.
+ *
+ * @project audit-service
+ * @author rlh
+ * @date October 2026
+ */
+class UnindexedQueryReporterTests {
+
+    private val meterRegistry = SimpleMeterRegistry()
+    private val reporter = UnindexedQueryReporter(ServiceConfig(), meterRegistry)
+    private val connection = ConnectionDescription(ServerId(ClusterId(), ServerAddress()))
+
+    private fun find(collection: String, filter: String) =
+        reporter.commandStarted(CommandStartedEvent(1, connection, "events", "find",
+                                                    BsonDocument.parse("{find: '$collection', filter: $filter}")))
+
+    private fun unindexed() = meterRegistry.find("audit.query.unindexed").counters().sumOf { it.count() }
+
+    @Test
+    fun givenIndexedQueries_thenNotReported() {
+        find("event", "{username: 'admin', eventDate: {\$gte: {\$date: '2026-10-01T00:00:00Z'}}}")
+        find("event", "{eventName: {\$in: ['A', 'B']}}")
+        find("event_2026_10", "{\$or: [{username: 'admin'}, {username: '*'}], eventName: {\$regex: '.*A.*'}}")
+        find("event", "{username: {\$regex: '^adm'}}")
+        find("event", "{}")
+        find("eventBodyDictionary", "{dictionary: 1}")
+
+        assertThat(unindexed()).isZero
+    }
+
+    @Test
+    fun givenUnindexedQueries_thenCountedByShape() {
+        find("event", "{username: {\$regex: '.*adm.*', \$options: 'i'}}")
+        find("event", "{username: {\$regex: '.*root.*', \$options: 'i'}}")
+        find("event_2026_10", "{correlationId: 'abc'}")
+        find("event", "{\$or: [{username: 'admin'}, {correlationId: 'abc'}]}")
+
+        assertThat(unindexed()).isEqualTo(4.0)
+        assertThat(meterRegistry.find("audit.query.unindexed").tag("shape", "{username:regex}").counter()!!.count())
+            .isEqualTo(2.0)
+    }
+}